@@ -15,4 +15,47 @@ public class BlobStorageConfig {
 
     @Value("${BLOB_STORAGE_CONTAINER_MATERIALS}")
     private String materialsContainer;
+
+    // Maximum number of BLOBs uploaded at the same time by the whole server
+    @Value("${BLOB_STORAGE_MAX_CONCURRENT_UPLOADS:8}")
+    private int maxConcurrentUploads;
+
+    // Meshes bigger than a block are split and uploaded as staged blocks, a block is read into memory so it is capped just below 2 GiB
+    @Value("${BLOB_STORAGE_MESH_BLOCK_SIZE_BYTES:8388608}")
+    private long meshBlockSize;
+
+    @Value("${BLOB_STORAGE_MESH_UPLOAD_CONCURRENCY:4}")
+    private int meshUploadConcurrency;
+
+    @Value("${BLOB_STORAGE_MESH_BLOCK_MAX_ATTEMPTS:3}")
+    private int meshBlockMaxAttempts;
+
+    // Wait before the second attempt of a block, doubled at every further attempt
+    @Value("${BLOB_STORAGE_MESH_BLOCK_RETRY_BACKOFF_MS:200}")
+    private long meshBlockRetryBackoffMillis;
+
+    // Maximum number of mesh blocks staged at the same time by the whole server, in a pool separate from the uploads
+    @Value("${BLOB_STORAGE_MAX_CONCURRENT_BLOCK_STAGINGS:8}")
+    private int maxConcurrentBlockStagings;
+
+    // Background removal of the BLOBs and Cosmos DB documents not referenced by any version vertex
+    @Value("${BLOB_STORAGE_RECONCILER_ENABLED:false}")
+    private boolean reconcilerEnabled;
+
+    @Value("${BLOB_STORAGE_RECONCILER_INTERVAL_MS:3600000}")
+    private long reconcilerIntervalMillis;
+
+    // Artifacts younger than the grace period are never removed, it must exceed the push journal staleness
+    @Value("${BLOB_STORAGE_RECONCILER_GRACE_PERIOD_MS:86400000}")
+    private long reconcilerGracePeriodMillis;
+
+    @Value("${BLOB_STORAGE_RECONCILER_PAGE_SIZE:100}")
+    private int reconcilerPageSize;
+
+    // Pause between two pages, so that the scan doesn't compete with the requests for throughput
+    @Value("${BLOB_STORAGE_RECONCILER_PAGE_DELAY_MS:1000}")
+    private long reconcilerPageDelayMillis;
+
+    @Value("${BLOB_STORAGE_RECONCILER_MAX_DELETIONS_PER_RUN:1000}")
+    private int reconcilerMaxDeletionsPerRun;
 }
@@ -1,16 +1,20 @@
 package it.unisa.ddditserver.db.blobstorage.versioning;
 
+import it.unisa.ddditserver.subsystems.versioning.dto.PageDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.BlobFileDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.StoredBlobDTO;
 import it.unisa.ddditserver.subsystems.versioning.dto.version.VersionDTO;
 import org.apache.commons.lang3.tuple.Triple;
 import java.io.InputStream;
 import java.util.List;
+import java.util.function.BiConsumer;
 
 /**
  * Repository interface for managing version-related operations
  * in a BLOB storage database.
  *
  * @author Angelo Antonio Prisco
- * @version 1.1
+ * @version 1.5
  * @since 2025-08-25
  */
 public interface BlobStorageVersionRepository {
@@ -18,17 +22,35 @@ public interface BlobStorageVersionRepository {
      * Saves a new mesh BLOB in the BLOB storage.
      *
      * @param versionDTO the versionDTO containing version information
+     * @param onBlobWritten called with the URL and the ETag of the mesh once it is written
      * @return a string containing the mesh URL
      */
-    String saveMesh(VersionDTO versionDTO);
+    String saveMesh(VersionDTO versionDTO, BiConsumer<String, String> onBlobWritten);
 
     /**
      * Saves a new material folder with textures BLOB in the BLOB storage.
      *
      * @param versionDTO the versionDTO containing version information
+     * @param onBlobWritten called with the URL and the ETag of every texture once it is written
      * @return a string containing the material folder URL
      */
-    String saveMaterial(VersionDTO versionDTO);
+    String saveMaterial(VersionDTO versionDTO, BiConsumer<String, String> onBlobWritten);
+
+    /**
+     * Builds the URL that {@link #saveMesh} returns for the specified version, without any request to the BLOB storage.
+     *
+     * @param versionDTO the versionDTO containing version information
+     * @return a string containing the mesh URL
+     */
+    String getMeshUrl(VersionDTO versionDTO);
+
+    /**
+     * Builds the URL that {@link #saveMaterial} returns for the specified version, without any request to the BLOB storage.
+     *
+     * @param versionDTO the versionDTO containing version information
+     * @return a string containing the material folder URL
+     */
+    String getMaterialUrl(VersionDTO versionDTO);
 
     /**
      * Checks if a mesh exists for the specified URL.
@@ -62,6 +84,51 @@ public interface BlobStorageVersionRepository {
      */
     List<Triple<InputStream, String, String>> findMaterialByUrl(String materialFolderUrl);
 
+    /**
+     * Retrieves the properties of the mesh for the specified URL, without opening its content.
+     *
+     * @param meshUrl the BLOB storage URL that identifies the mesh
+     * @return a {@link BlobFileDTO} containing name, content-type, size and ETag of the mesh
+     */
+    BlobFileDTO findMeshFileByUrl(String meshUrl);
+
+    /**
+     * Retrieves the properties of the textures in the specified folder URL, without opening their content.
+     *
+     * @param materialFolderUrl the BLOB storage URL that identifies the folder of the material
+     * @return a list of {@link BlobFileDTO} containing name, content-type, size and ETag of each texture
+     */
+    List<BlobFileDTO> findMaterialFilesByUrl(String materialFolderUrl);
+
+    /**
+     * Opens a stream on a range of the specified file.
+     * The stream fails if the BLOB has been overwritten after its properties were retrieved.
+     *
+     * @param blobFileDTO the file to read, as returned by {@link #findMeshFileByUrl} or {@link #findMaterialFilesByUrl}
+     * @param offset the first byte to read
+     * @param length the number of bytes to read
+     * @return an InputStream containing the requested bytes of the file
+     */
+    InputStream openFileRange(BlobFileDTO blobFileDTO, long offset, long length);
+
+    /**
+     * Lists a page of the BLOBs of the meshes container, in the order of their paths.
+     *
+     * @param continuationToken the token returned with the previous page, null for the first page
+     * @param pageSize the maximum number of BLOBs of the page
+     * @return a {@link PageDTO} of {@link StoredBlobDTO}, with the token of the next page if any
+     */
+    PageDTO<StoredBlobDTO> findMeshBlobs(String continuationToken, int pageSize);
+
+    /**
+     * Lists a page of the texture BLOBs of the materials container, in the order of their paths.
+     *
+     * @param continuationToken the token returned with the previous page, null for the first page
+     * @param pageSize the maximum number of BLOBs of the page
+     * @return a {@link PageDTO} of {@link StoredBlobDTO}, with the token of the next page if any
+     */
+    PageDTO<StoredBlobDTO> findMaterialBlobs(String continuationToken, int pageSize);
+
     /**
      * Delete the mesh BLOB for the specified URL.
      *
@@ -75,4 +142,22 @@ public interface BlobStorageVersionRepository {
      * @param materialFolderUrl the BLOB storage URL that identifies the folder of the material
      */
     void deleteMaterialByUrl(String materialFolderUrl);
+
+    /**
+     * Delete the mesh BLOB for the specified URL, only if its content is still the one identified by the ETag.
+     * Nothing is done if the mesh doesn't exist or has been rewritten since.
+     *
+     * @param meshUrl the BLOB storage URL that identifies the mesh
+     * @param eTag the ETag of the content to delete
+     */
+    void deleteMeshByUrlIfMatch(String meshUrl, String eTag);
+
+    /**
+     * Delete the texture BLOB for the specified URL, only if its content is still the one identified by the ETag.
+     * Nothing is done if the texture doesn't exist or has been rewritten since.
+     *
+     * @param textureUrl the BLOB storage URL that identifies the texture
+     * @param eTag the ETag of the content to delete
+     */
+    void deleteTextureByUrlIfMatch(String textureUrl, String eTag);
 }
@@ -1,28 +1,66 @@
 package it.unisa.ddditserver.db.blobstorage.versioning;
 
 import com.azure.core.http.rest.PagedIterable;
+import com.azure.core.http.rest.PagedResponse;
+import com.azure.core.http.rest.Response;
+import com.azure.core.util.BinaryData;
+import com.azure.core.util.Context;
 import com.azure.storage.blob.*;
 import com.azure.storage.blob.models.*;
+import com.azure.storage.blob.options.BlobParallelUploadOptions;
+import com.azure.storage.blob.specialized.BlobInputStream;
+import com.azure.storage.blob.specialized.BlockBlobClient;
 import it.unisa.ddditserver.db.blobstorage.BlobStorageConfig;
+import it.unisa.ddditserver.subsystems.versioning.dto.PageDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.BlobFileDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.StoredBlobDTO;
 import it.unisa.ddditserver.subsystems.versioning.dto.version.VersionDTO;
 import it.unisa.ddditserver.subsystems.versioning.exceptions.version.VersionException;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.apache.commons.lang3.tuple.Triple;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import org.springframework.web.multipart.MultipartFile;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
 
 @Repository
 public class BlobStorageVersionRepositoryImpl implements BlobStorageVersionRepository {
+    // Largest array the JVM can allocate
+    private static final long MAX_BLOCK_SIZE = Integer.MAX_VALUE - 8;
+
     private final BlobStorageConfig config;
     private BlobContainerClient meshesContainerClient;
     private BlobContainerClient materialsContainerClient;
+    private ExecutorService uploadExecutor;
+    private ExecutorService blockStagingExecutor;
+    private int meshBlockSize;
+    private int meshUploadConcurrency;
+    private int meshBlockMaxAttempts;
+    private long meshBlockRetryBackoffMillis;
 
     @Autowired
     public BlobStorageVersionRepositoryImpl(BlobStorageConfig config) {
@@ -38,10 +76,50 @@ public class BlobStorageVersionRepositoryImpl implements BlobStorageVersionRepos
 
         this.meshesContainerClient = blobServiceClient.getBlobContainerClient(config.getMeshesContainer());
         this.materialsContainerClient = blobServiceClient.getBlobContainerClient(config.getMaterialsContainer());
+
+        // Bounded pool shared by all the requests, so that push bursts can't open an unbounded number of uploads
+        this.uploadExecutor = Executors.newFixedThreadPool(config.getMaxConcurrentUploads());
+        // Blocks have their own pool, so that the blocks of a big mesh don't queue behind the textures and vice versa
+        this.blockStagingExecutor = Executors.newFixedThreadPool(config.getMaxConcurrentBlockStagings());
+
+        // A block is read into a single array, so its size can't exceed the largest array, whatever the BLOB storage allows
+        this.meshBlockSize = (int) Math.min(config.getMeshBlockSize(), MAX_BLOCK_SIZE);
+        this.meshUploadConcurrency = config.getMeshUploadConcurrency();
+        this.meshBlockMaxAttempts = config.getMeshBlockMaxAttempts();
+        this.meshBlockRetryBackoffMillis = config.getMeshBlockRetryBackoffMillis();
+    }
+
+    @PreDestroy
+    public void close() {
+        if (uploadExecutor != null) {
+            uploadExecutor.shutdown();
+        }
+        if (blockStagingExecutor != null) {
+            blockStagingExecutor.shutdown();
+        }
+    }
+
+    // ETag of the content written by an upload, null if the BLOB storage didn't return it
+    private static String eTagOf(Response<BlockBlobItem> response) {
+        return response != null && response.getValue() != null ? response.getValue().getETag() : null;
+    }
+
+    private String uploadTexture(BlobClient blobClient, MultipartFile texture) throws IOException {
+        BlobHttpHeaders headers = new BlobHttpHeaders()
+                .setContentType(texture.getContentType() != null ? texture.getContentType() : "application/octet-stream");
+
+        // Headers are sent with the upload itself and the stream is closed as soon as the upload ends
+        try (InputStream dataStream = texture.getInputStream()) {
+            BlobParallelUploadOptions options = new BlobParallelUploadOptions(BinaryData.fromStream(dataStream, texture.getSize()))
+                    .setHeaders(headers)
+                    .setRequestConditions(new BlobRequestConditions().setIfNoneMatch("*"));
+
+            return eTagOf(blobClient.uploadWithResponse(options, null, Context.NONE));
+        }
     }
 
     @Override
-    public String saveMesh(VersionDTO versionDTO) {
+    public String saveMesh(VersionDTO versionDTO, BiConsumer<String, String> onBlobWritten) {
         String repoFolder = versionDTO.getRepositoryName();
         String branchFolder = versionDTO.getBranchName();
         String resourceFolder = versionDTO.getResourceName();
@@ -54,13 +132,26 @@ public class BlobStorageVersionRepositoryImpl implements BlobStorageVersionRepos
         try {
             BlobClient blobClient = meshesContainerClient.getBlobClient(blobPath);
 
-            try (InputStream dataStream = mesh.getInputStream()) {
-                blobClient.upload(dataStream, mesh.getSize(), true);
-            }
-
             BlobHttpHeaders headers = new BlobHttpHeaders()
                     .setContentType(mesh.getContentType() != null ? mesh.getContentType() : "application/octet-stream");
-            blobClient.setHttpHeaders(headers);
+
+            String eTag;
+
+            if (meshBlockSize <= 0 || mesh.getSize() <= meshBlockSize) {
+                // Small meshes are sent in a single request, headers included
+                try (InputStream dataStream = mesh.getInputStream()) {
+                    BlobParallelUploadOptions options = new BlobParallelUploadOptions(BinaryData.fromStream(dataStream, mesh.getSize()))
+                            .setHeaders(headers);
+
+                    eTag = eTagOf(blobClient.uploadWithResponse(options, null, Context.NONE));
+                }
+            } else {
+                eTag = uploadMeshInBlocks(blobClient.getBlockBlobClient(), mesh, headers);
+            }
+
+            if (eTag != null) {
+                onBlobWritten.accept(blobClient.getBlobUrl(), eTag);
+            }
 
             return blobClient.getBlobUrl();
         } catch (BlobStorageException | IOException e) {
@@ -69,31 +160,187 @@ public class BlobStorageVersionRepositoryImpl implements BlobStorageVersionRepos
         }
     }
 
+    private String uploadMeshInBlocks(BlockBlobClient blockBlobClient, MultipartFile mesh, BlobHttpHeaders headers) throws IOException {
+        // Blocks staged by a previous failed push of the same version are kept by the BLOB storage and are not sent again
+        Map<String, Long> stagedBlocks = findUncommittedBlocks(blockBlobClient);
+
+        List<String> blockIds = new ArrayList<>();
+        List<Future<?>> stagings = new ArrayList<>();
+        // Bounds both the blocks uploaded at the same time and the blocks kept in memory for a single mesh
+        Semaphore inFlightBlocks = new Semaphore(meshUploadConcurrency > 0 ? meshUploadConcurrency : 1);
+        AtomicBoolean failed = new AtomicBoolean(false);
+        boolean allBlocksRead = false;
+
+        try (InputStream dataStream = mesh.getInputStream()) {
+            int blockIndex = 0;
+            byte[] block;
+
+            while (!failed.get() && (block = dataStream.readNBytes(meshBlockSize)).length > 0) {
+                byte[] blockMd5 = md5(block);
+                String blockId = blockId(blockIndex++, blockMd5);
+                blockIds.add(blockId);
+
+                Long stagedSize = stagedBlocks.get(blockId);
+                if (stagedSize != null && stagedSize == block.length) {
+                    continue;
+                }
+
+                acquire(inFlightBlocks);
+                byte[] blockData = block;
+
+                stagings.add(blockStagingExecutor.submit(() -> {
+                    try {
+                        stageBlock(blockBlobClient, blockId, blockData, blockMd5);
+                    } catch (RuntimeException e) {
+                        failed.set(true);
+                        throw e;
+                    } finally {
+                        inFlightBlocks.release();
+                    }
+                    return null;
+                }));
+            }
+
+            allBlocksRead = true;
+        } finally {
+            // A failed read drops the stagings not started yet
+            if (!allBlocksRead) {
+                failed.set(true);
+                stagings.forEach(staging -> staging.cancel(false));
+            }
+
+            // Every staging is awaited, a failed push leaves the staged blocks available for the next attempt
+            for (Future<?> staging : stagings) {
+                try {
+                    staging.get();
+                } catch (ExecutionException | CancellationException e) {
+                    failed.set(true);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failed.set(true);
+                }
+            }
+        }
+
+        if (failed.get()) {
+            throw new IOException("Error during mesh block staging");
+        }
+
+        return eTagOf(blockBlobClient.commitBlockListWithResponse(blockIds, headers, null, null, null, null, Context.NONE));
+    }
+
+    private Map<String, Long> findUncommittedBlocks(BlockBlobClient blockBlobClient) {
+        try {
+            return blockBlobClient.listBlocks(BlockListType.UNCOMMITTED).getUncommittedBlocks().stream()
+                    .collect(Collectors.toMap(Block::getName, Block::getSizeLong, (first, second) -> second));
+        } catch (BlobStorageException e) {
+            // The BLOB doesn't exist yet, so there is nothing to resume
+            return Map.of();
+        }
+    }
+
+    private void stageBlock(BlockBlobClient blockBlobClient, String blockId, byte[] block, byte[] blockMd5) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                blockBlobClient.stageBlockWithResponse(blockId, new ByteArrayInputStream(block), block.length, blockMd5, null, null, Context.NONE);
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= meshBlockMaxAttempts) {
+                    throw e;
+                }
+
+                // Exponential backoff, so that a throttled storage account is not retried at full rate
+                try {
+                    Thread.sleep(meshBlockRetryBackoffMillis << Math.min(attempt - 1, 16));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static void acquire(Semaphore semaphore) throws IOException {
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted during mesh block staging", e);
+        }
+    }
+
+    // Block IDs depend on position and content, so a block is reused only if it holds the same bytes
+    private static String blockId(int blockIndex, byte[] blockMd5) {
+        String rawId = String.format("%06d-%s", blockIndex, HexFormat.of().formatHex(blockMd5));
+        return Base64.getEncoder().encodeToString(rawId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] md5(byte[] block) {
+        try {
+            return MessageDigest.getInstance("MD5").digest(block);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 algorithm not available", e);
+        }
+    }
+
     @Override
-    public String saveMaterial(VersionDTO versionDTO) {
+    public String saveMaterial(VersionDTO versionDTO, BiConsumer<String, String> onBlobWritten) {
         String repoFolder = versionDTO.getRepositoryName();
         String branchFolder = versionDTO.getBranchName();
         String resourceFolder = versionDTO.getResourceName();
         String versionName = versionDTO.getVersionName();
         List<MultipartFile> material = versionDTO.getMaterial();
 
+        List<BlobClient> uploadedBlobs = Collections.synchronizedList(new ArrayList<>());
+        List<Future<?>> uploads = new ArrayList<>();
+
         for (MultipartFile texture : material) {
             // BLOB path: repoName/resourceName/branchName/versionName/textureFileName
             String blobPath = repoFolder + "/" + resourceFolder + "/" + branchFolder + "/" + versionName + "/" + texture.getOriginalFilename();
 
             BlobClient blobClient = materialsContainerClient.getBlobClient(blobPath);
 
+            uploads.add(uploadExecutor.submit(() -> {
+                String eTag = uploadTexture(blobClient, texture);
+                uploadedBlobs.add(blobClient);
+
+                if (eTag != null) {
+                    onBlobWritten.accept(blobClient.getBlobUrl(), eTag);
+                }
+                return null;
+            }));
+        }
+
+        // Every upload is awaited, so that no texture can be written after the clean up
+        String failedTexture = null;
+
+        for (int i = 0; i < uploads.size(); i++) {
             try {
-                InputStream dataStream = texture.getInputStream();
-                blobClient.upload(dataStream, texture.getSize(), false);
+                uploads.get(i).get();
+            } catch (ExecutionException e) {
+                if (failedTexture == null) {
+                    failedTexture = material.get(i).getOriginalFilename();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (failedTexture == null) {
+                    failedTexture = material.get(i).getOriginalFilename();
+                }
+            }
+        }
 
-                BlobHttpHeaders headers = new BlobHttpHeaders()
-                        .setContentType(texture.getContentType() != null ? texture.getContentType() : "application/octet-stream");
-                blobClient.setHttpHeaders(headers);
-            } catch (BlobStorageException | IOException e) {
-                // If it is necessary use a RuntimeException for more detailed debug
-                throw new VersionException("Error during material saving in BLOB storage for " + texture.getOriginalFilename() + " file");
+        if (failedTexture != null) {
+            // Remove the textures already uploaded, a partial material must not be left in the BLOB storage
+            for (BlobClient uploadedBlob : uploadedBlobs) {
+                try {
+                    uploadedBlob.deleteIfExists();
+                } catch (BlobStorageException ignored) {
+                    // Best effort clean up, the original failure is the one reported
+                }
             }
+
+            // If it is necessary use a RuntimeException for more detailed debug
+            throw new VersionException("Error during material saving in BLOB storage for " + failedTexture + " file");
         }
 
         BlobClient folderClient;
@@ -108,6 +355,23 @@ public class BlobStorageVersionRepositoryImpl implements BlobStorageVersionRepos
         return folderClient.getBlobUrl();
     }
 
+    @Override
+    public String getMeshUrl(VersionDTO versionDTO) {
+        // BLOB path: repoName/resourceName/branchName/versionName/fileName
+        String blobPath = versionDTO.getRepositoryName() + "/" + versionDTO.getResourceName() + "/" + versionDTO.getBranchName() + "/"
+                + versionDTO.getVersionName() + "/" + versionDTO.getMesh().getOriginalFilename();
+
+        return meshesContainerClient.getBlobClient(blobPath).getBlobUrl();
+    }
+
+    @Override
+    public String getMaterialUrl(VersionDTO versionDTO) {
+        String folderBlobPath = versionDTO.getRepositoryName() + "/" + versionDTO.getResourceName() + "/" + versionDTO.getBranchName() + "/"
+                + versionDTO.getVersionName();
+
+        return materialsContainerClient.getBlobClient(folderBlobPath).getBlobUrl();
+    }
+
     @Override
     public boolean existsMeshByUrl(String meshUrl) {
         if (meshUrl == null || meshUrl.isEmpty()) {
@@ -163,11 +427,9 @@ public class BlobStorageVersionRepositoryImpl implements BlobStorageVersionRepos
     public Triple<InputStream, String, String> findMeshByUrl(String meshUrl) {
         if (meshUrl == null || meshUrl.isEmpty()) {
             throw new VersionException("Mesh URL can't be null or empty");
-        } else {
-            existsMeshByUrl(meshUrl);
         }
 
-        InputStream inputStream;
+        BlobInputStream inputStream;
         String contentType;
         String meshName;
 
@@ -181,12 +443,14 @@ public class BlobStorageVersionRepositoryImpl implements BlobStorageVersionRepos
 
             BlobClient blobClient = meshesContainerClient.getBlobClient(relativePath);
 
+            // A missing mesh makes the download fail, so no existence check is needed
             inputStream = blobClient.openInputStream();
 
             String path = blobClient.getBlobName();
             meshName = path.substring(path.lastIndexOf("/") + 1);
 
-            contentType = blobClient.getProperties().getContentType();
+            // Properties come with the download response, no further request is needed
+            contentType = inputStream.getProperties().getContentType();
             if (contentType == null || contentType.isEmpty()) {
                 contentType = "application/octet-stream";
             }
@@ -202,8 +466,6 @@ public class BlobStorageVersionRepositoryImpl implements BlobStorageVersionRepos
     public List<Triple<InputStream, String, String>> findMaterialByUrl(String materialFolderUrl) {
         if (materialFolderUrl == null || materialFolderUrl.isEmpty()) {
             throw new VersionException("Material URL can't be null or empty");
-        } else {
-            existsMaterialByUrl(materialFolderUrl);
         }
 
         try {
@@ -218,13 +480,14 @@ public class BlobStorageVersionRepositoryImpl implements BlobStorageVersionRepos
                 relativePath += "/";
             }
 
+            // A single listing gives both the textures and their properties, an empty folder gives no textures
             return materialsContainerClient.listBlobsByHierarchy(relativePath).stream()
+                    .filter(blobItem -> !Boolean.TRUE.equals(blobItem.isPrefix()))
                     .map(blobItem -> {
-                        BlobClient client = materialsContainerClient.getBlobClient(blobItem.getName());
-                        String path = client.getBlobName();
+                        String path = blobItem.getName();
                         String textureName = path.substring(path.lastIndexOf("/") + 1);
-                        InputStream inputStream = client.openInputStream();
-                        String contentType = client.getProperties().getContentType();
+                        InputStream inputStream = materialsContainerClient.getBlobClient(path).openInputStream();
+                        String contentType = blobItem.getProperties().getContentType();
                         if (contentType == null || contentType.isEmpty()) {
                             contentType = "application/octet-stream";
                         }
@@ -237,6 +500,143 @@ public class BlobStorageVersionRepositoryImpl implements BlobStorageVersionRepos
         }
     }
 
+    @Override
+    public BlobFileDTO findMeshFileByUrl(String meshUrl) {
+        if (meshUrl == null || meshUrl.isEmpty()) {
+            throw new VersionException("Mesh URL can't be null or empty");
+        }
+
+        try {
+            meshUrl = URLDecoder.decode(meshUrl, StandardCharsets.UTF_8);
+
+            String containerUrl = meshesContainerClient.getBlobContainerUrl() + "/";
+            String relativePath = meshUrl.startsWith(containerUrl)
+                    ? meshUrl.substring(containerUrl.length())
+                    : meshUrl;
+
+            BlobClient blobClient = meshesContainerClient.getBlobClient(relativePath);
+            BlobProperties properties = blobClient.getProperties();
+
+            String path = blobClient.getBlobName();
+            String contentType = properties.getContentType();
+            if (contentType == null || contentType.isEmpty()) {
+                contentType = "application/octet-stream";
+            }
+
+            return new BlobFileDTO(blobClient.getBlobUrl(), path.substring(path.lastIndexOf("/") + 1),
+                    contentType, properties.getBlobSize(), properties.getETag());
+        } catch (BlobStorageException e) {
+            // If it is necessary use a RuntimeException for more detailed debug
+            throw new VersionException("Error during mesh retrieving in BLOB storage");
+        }
+    }
+
+    @Override
+    public List<BlobFileDTO> findMaterialFilesByUrl(String materialFolderUrl) {
+        if (materialFolderUrl == null || materialFolderUrl.isEmpty()) {
+            throw new VersionException("Material URL can't be null or empty");
+        }
+
+        try {
+            materialFolderUrl = URLDecoder.decode(materialFolderUrl, StandardCharsets.UTF_8);
+
+            String containerUrl = materialsContainerClient.getBlobContainerUrl() + "/";
+            String relativePath = materialFolderUrl.startsWith(containerUrl)
+                    ? materialFolderUrl.substring(containerUrl.length())
+                    : materialFolderUrl;
+
+            if (!relativePath.endsWith("/")) {
+                relativePath += "/";
+            }
+
+            // The listing already carries the properties of each BLOB, no further request is needed
+            return materialsContainerClient.listBlobsByHierarchy(relativePath).stream()
+                    .filter(blobItem -> !Boolean.TRUE.equals(blobItem.isPrefix()))
+                    .map(blobItem -> {
+                        String path = blobItem.getName();
+                        BlobItemProperties properties = blobItem.getProperties();
+                        String contentType = properties.getContentType();
+                        if (contentType == null || contentType.isEmpty()) {
+                            contentType = "application/octet-stream";
+                        }
+                        String blobUrl = materialsContainerClient.getBlobClient(path).getBlobUrl();
+                        return new BlobFileDTO(blobUrl, path.substring(path.lastIndexOf("/") + 1),
+                                contentType, properties.getContentLength(), properties.getETag());
+                    })
+                    .toList();
+        } catch (BlobStorageException e) {
+            // If it is necessary use a RuntimeException for more detailed debug
+            throw new VersionException("Error during material retrieving in BLOB storage");
+        }
+    }
+
+    @Override
+    public InputStream openFileRange(BlobFileDTO blobFileDTO, long offset, long length) {
+        if (blobFileDTO == null || blobFileDTO.getBlobUrl() == null || blobFileDTO.getBlobUrl().isEmpty()) {
+            throw new VersionException("BLOB URL can't be null or empty");
+        }
+
+        try {
+            String blobUrl = URLDecoder.decode(blobFileDTO.getBlobUrl(), StandardCharsets.UTF_8);
+
+            String meshesContainerUrl = meshesContainerClient.getBlobContainerUrl() + "/";
+            BlobContainerClient containerClient = blobUrl.startsWith(meshesContainerUrl)
+                    ? meshesContainerClient
+                    : materialsContainerClient;
+
+            String containerUrl = containerClient.getBlobContainerUrl() + "/";
+            String relativePath = blobUrl.startsWith(containerUrl)
+                    ? blobUrl.substring(containerUrl.length())
+                    : blobUrl;
+
+            BlobRequestConditions conditions = new BlobRequestConditions().setIfMatch(blobFileDTO.getETag());
+
+            return containerClient.getBlobClient(relativePath)
+                    .openInputStream(new BlobRange(offset, length), conditions);
+        } catch (BlobStorageException e) {
+            // If it is necessary use a RuntimeException for more detailed debug
+            throw new VersionException("Error during file retrieving in BLOB storage");
+        }
+    }
+
+    @Override
+    public PageDTO<StoredBlobDTO> findMeshBlobs(String continuationToken, int pageSize) {
+        return findBlobs(meshesContainerClient, continuationToken, pageSize);
+    }
+
+    @Override
+    public PageDTO<StoredBlobDTO> findMaterialBlobs(String continuationToken, int pageSize) {
+        return findBlobs(materialsContainerClient, continuationToken, pageSize);
+    }
+
+    // A flat listing returns a single page per request, the continuation token is the one of BLOB Storage
+    private static PageDTO<StoredBlobDTO> findBlobs(BlobContainerClient containerClient, String continuationToken, int pageSize) {
+        try {
+            ListBlobsOptions options = new ListBlobsOptions().setMaxResultsPerPage(pageSize);
+            Iterator<PagedResponse<BlobItem>> pages = containerClient.listBlobs(options, null)
+                    .iterableByPage(continuationToken, pageSize)
+                    .iterator();
+
+            if (!pages.hasNext()) {
+                return new PageDTO<>(List.of(), null);
+            }
+
+            PagedResponse<BlobItem> page = pages.next();
+
+            List<StoredBlobDTO> blobs = page.getValue().stream()
+                    .map(blobItem -> new StoredBlobDTO(
+                            containerClient.getBlobClient(blobItem.getName()).getBlobUrl(),
+                            blobItem.getName(),
+                            blobItem.getProperties().getLastModified().toInstant().toEpochMilli()))
+                    .toList();
+
+            return new PageDTO<>(blobs, page.getContinuationToken());
+        } catch (BlobStorageException e) {
+            // If it is necessary use a RuntimeException for more detailed debug
+            throw new VersionException("Error listing BLOBs in BLOB storage");
+        }
+    }
+
     @Override
     public void deleteMeshByUrl(String meshUrl) {
         if (meshUrl == null || meshUrl.isEmpty()) {
@@ -295,4 +695,38 @@ public class BlobStorageVersionRepositoryImpl implements BlobStorageVersionRepos
             throw new VersionException("Error deleting material in BLOB storage");
         }
     }
+
+    @Override
+    public void deleteMeshByUrlIfMatch(String meshUrl, String eTag) {
+        deleteBlobIfMatch(meshesContainerClient, meshUrl, eTag);
+    }
+
+    @Override
+    public void deleteTextureByUrlIfMatch(String textureUrl, String eTag) {
+        deleteBlobIfMatch(materialsContainerClient, textureUrl, eTag);
+    }
+
+    private static void deleteBlobIfMatch(BlobContainerClient containerClient, String blobUrl, String eTag) {
+        if (blobUrl == null || blobUrl.isEmpty() || eTag == null || eTag.isEmpty()) {
+            throw new VersionException("BLOB URL and ETag can't be null or empty");
+        }
+
+        try {
+            blobUrl = URLDecoder.decode(blobUrl, StandardCharsets.UTF_8);
+
+            String containerUrl = containerClient.getBlobContainerUrl() + "/";
+            String relativePath = blobUrl.startsWith(containerUrl)
+                    ? blobUrl.substring(containerUrl.length())
+                    : blobUrl;
+
+            containerClient.getBlobClient(relativePath).deleteWithResponse(DeleteSnapshotsOptionType.INCLUDE,
+                    new BlobRequestConditions().setIfMatch(eTag), null, Context.NONE);
+        } catch (BlobStorageException e) {
+            // A BLOB already deleted or rewritten by another push doesn't hold the content to delete anymore
+            if (e.getStatusCode() != 404 && e.getStatusCode() != 412) {
+                // If it is necessary use a RuntimeException for more detailed debug
+                throw new VersionException("Error deleting BLOB in BLOB storage");
+            }
+        }
+    }
 }
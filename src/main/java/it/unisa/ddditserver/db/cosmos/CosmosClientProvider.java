@@ -0,0 +1,84 @@
+package it.unisa.ddditserver.db.cosmos;
+
+import com.azure.cosmos.ConnectionMode;
+import com.azure.cosmos.CosmosAsyncClient;
+import com.azure.cosmos.CosmosAsyncContainer;
+import com.azure.cosmos.CosmosAsyncDatabase;
+import com.azure.cosmos.CosmosClientBuilder;
+import com.azure.cosmos.CosmosEndToEndOperationLatencyPolicyConfigBuilder;
+import com.azure.cosmos.DirectConnectionConfig;
+import com.azure.cosmos.GatewayConnectionConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+
+/**
+ * Shared Cosmos DB client used by every Cosmos repository.
+ *
+ * A single {@link CosmosAsyncClient} is built from {@link CosmosConfig}, as recommended by the SDK,
+ * so that all the containers share the same connections, address caches and threads.
+ * Direct mode is used by default to reach the backend replicas without the gateway hop.
+ *
+ * @version 1.0
+ * @since 2026-10-18
+ */
+@Component
+public class CosmosClientProvider {
+    private final CosmosConfig config;
+    private CosmosAsyncClient client;
+    private CosmosAsyncDatabase database;
+
+    @Autowired
+    public CosmosClientProvider(CosmosConfig config) {
+        this.config = config;
+    }
+
+    @PostConstruct
+    public void init() {
+        CosmosClientBuilder builder = new CosmosClientBuilder()
+                .endpoint(config.getEndpoint())
+                .key(config.getKey())
+                // Written documents are never read back from the write response
+                .contentResponseOnWriteEnabled(false)
+                .endToEndOperationLatencyPolicyConfig(
+                        new CosmosEndToEndOperationLatencyPolicyConfigBuilder(Duration.ofMillis(config.getRequestTimeoutMillis())).build());
+
+        if (config.getPreferredRegions() != null && !config.getPreferredRegions().isEmpty()) {
+            builder.preferredRegions(config.getPreferredRegions());
+        }
+
+        if (ConnectionMode.GATEWAY.name().equalsIgnoreCase(config.getConnectionMode())) {
+            GatewayConnectionConfig gatewayConfig = GatewayConnectionConfig.getDefaultConfig()
+                    .setMaxConnectionPoolSize(config.getMaxConnectionsPerEndpoint());
+            builder.gatewayMode(gatewayConfig);
+        } else {
+            DirectConnectionConfig directConfig = DirectConnectionConfig.getDefaultConfig()
+                    .setMaxConnectionsPerEndpoint(config.getMaxConnectionsPerEndpoint())
+                    .setNetworkRequestTimeout(Duration.ofMillis(config.getNetworkRequestTimeoutMillis()));
+            builder.directMode(directConfig);
+        }
+
+        // Build the only client connection to Cosmos server
+        this.client = builder.buildAsyncClient();
+        this.database = client.getDatabase(config.getDatabaseName());
+    }
+
+    @PreDestroy
+    public void close() {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    /**
+     * Returns a reference to a container of the configured database, backed by the shared client.
+     *
+     * @param containerName the name of the container
+     * @return the {@link CosmosAsyncContainer} of the given name
+     */
+    public CosmosAsyncContainer getContainer(String containerName) {
+        return database.getContainer(containerName);
+    }
+}
@@ -3,6 +3,7 @@ package it.unisa.ddditserver.db.cosmos;
 import lombok.Getter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import java.util.List;
 
 @Getter
 @Component
@@ -21,4 +22,51 @@ public class CosmosConfig {
 
     @Value("${COSMOS_SQL_CONTAINER_TOKEN_BLACKLIST}")
     private String tokenBlacklistContainerName;
-}
\ No newline at end of file
+
+    // Journal of the pushes in progress, the container is partitioned by /id
+    @Value("${COSMOS_SQL_CONTAINER_PUSH_JOURNAL:pushJournal}")
+    private String pushJournalContainerName;
+
+    // The blacklist is mirrored in memory from the change feed, Cosmos is read only when the mirror is stale
+    @Value("${COSMOS_BLACKLIST_REFRESH_MS:5000}")
+    private long blacklistRefreshMillis;
+
+    @Value("${COSMOS_BLACKLIST_MAX_STALENESS_MS:30000}")
+    private long blacklistMaxStalenessMillis;
+
+    @Value("${COSMOS_BLACKLIST_CACHE_MAX_SIZE:100000}")
+    private int blacklistCacheMaxSize;
+
+    // Shared client, direct mode needs the TCP ports 10250-20000 of the account to be reachable from the server
+    @Value("${COSMOS_CONNECTION_MODE:DIRECT}")
+    private String connectionMode;
+
+    @Value("${COSMOS_PREFERRED_REGIONS:}")
+    private List<String> preferredRegions;
+
+    // Connections per backend replica in direct mode, size of the HTTP pool in gateway mode
+    @Value("${COSMOS_MAX_CONNECTIONS_PER_ENDPOINT:130}")
+    private int maxConnectionsPerEndpoint;
+
+    // Timeout of a single network request, the SDK accepts values between 5 and 10 seconds
+    @Value("${COSMOS_NETWORK_REQUEST_TIMEOUT_MS:5000}")
+    private long networkRequestTimeoutMillis;
+
+    // Timeout of a whole operation, retries included
+    @Value("${COSMOS_REQUEST_TIMEOUT_MS:10000}")
+    private long requestTimeoutMillis;
+
+    // Version documents read by point reads, only the tags of a version being classified can change
+    @Value("${COSMOS_VERSION_CACHE_MAX_SIZE:10000}")
+    private int versionCacheMaxSize;
+
+    // Pushes left in the journal longer than the staleness are compensated, it must exceed the longest upload
+    @Value("${COSMOS_PUSH_JOURNAL_RECOVERY_MS:60000}")
+    private long pushJournalRecoveryMillis;
+
+    @Value("${COSMOS_PUSH_JOURNAL_STALE_MS:1800000}")
+    private long pushJournalStaleMillis;
+
+    @Value("${COSMOS_PUSH_JOURNAL_RECOVERY_BATCH:100}")
+    private int pushJournalRecoveryBatch;
+}
@@ -1,11 +1,13 @@
 package it.unisa.ddditserver.db.cosmos.auth;
 
+import java.util.Map;
+
 /**
  * Repository interface for managing authentication-related operations
  * in a Cosmos DB.
  *
  * @author Angelo Antonio Prisco
- * @version 1.0
+ * @version 1.1
  * @since 2025-08-25
  */
 public interface CosmosAuthRepository {
@@ -23,4 +25,11 @@ public interface CosmosAuthRepository {
      * @return true if the token is blacklisted (revoked), false otherwise
      */
     boolean isTokenBlacklisted(String token);
+
+    /**
+     * Returns a snapshot of the in-memory mirror of the blacklist and of its refresh counters.
+     *
+     * @return a map containing mirror settings, refresh and eviction counters
+     */
+    Map<String, Object> getBlacklistCacheMetrics();
 }
\ No newline at end of file
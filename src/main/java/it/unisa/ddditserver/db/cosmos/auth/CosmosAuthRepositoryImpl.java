@@ -3,37 +3,154 @@ package it.unisa.ddditserver.db.cosmos.auth;
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.azure.cosmos.*;
+import com.azure.cosmos.models.CosmosChangeFeedRequestOptions;
+import com.azure.cosmos.models.FeedRange;
+import com.azure.cosmos.models.FeedResponse;
 import com.azure.cosmos.models.PartitionKey;
 import it.unisa.ddditserver.subsystems.auth.dto.BlacklistedTokenDTO;
 import it.unisa.ddditserver.subsystems.auth.exceptions.AuthException;
+import it.unisa.ddditserver.db.cosmos.CosmosClientProvider;
 import it.unisa.ddditserver.db.cosmos.CosmosConfig;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Repository
 public class CosmosAuthRepositoryImpl implements CosmosAuthRepository {
     private final CosmosConfig config;
-    private CosmosContainer blacklistContainer;
+    private final CosmosClientProvider clientProvider;
+    private CosmosAsyncContainer blacklistContainer;
+
+    // In memory mirror of the blacklist: token -> expiry in epoch seconds
+    private final Map<String, Long> blacklistCache = new ConcurrentHashMap<>();
+    // The same tokens ordered by expiry, the earliest ones are dropped first when the mirror is full
+    private final NavigableSet<ExpiringToken> expiryOrder = new ConcurrentSkipListSet<>(
+            Comparator.comparingLong(ExpiringToken::expiry).thenComparing(ExpiringToken::token));
+    // Latest expiry among the dropped tokens, until then a token missing from the mirror may have been dropped
+    private volatile long evictedUntil;
+    private volatile long lastRefreshMillis;
+    // Only used by the refresher thread
+    private String changeFeedContinuation;
+    private ScheduledExecutorService refresher;
+    private long maxStalenessMillis;
+    private int maxCacheSize;
+
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong failedRefreshes = new AtomicLong();
+    private final AtomicLong evictedTokens = new AtomicLong();
+
+    private record ExpiringToken(String token, long expiry) {
+    }
 
     @Autowired
-    public CosmosAuthRepositoryImpl(CosmosConfig config) {
+    public CosmosAuthRepositoryImpl(CosmosConfig config, CosmosClientProvider clientProvider) {
         this.config = config;
+        this.clientProvider = clientProvider;
     }
 
     @PostConstruct
     public void init() {
-        // Build client connection to Cosmos server
-        CosmosClient cosmosClient = new CosmosClientBuilder()
-                .endpoint(config.getEndpoint())
-                .key(config.getKey())
-                .buildClient();
+        // Get container reference for token blacklist from the shared client
+        this.blacklistContainer = clientProvider.getContainer(config.getTokenBlacklistContainerName());
+
+        this.maxStalenessMillis = config.getBlacklistMaxStalenessMillis();
+        this.maxCacheSize = config.getBlacklistCacheMaxSize();
+
+        // The change feed keeps the mirrors of all the nodes in sync with the blacklist container
+        this.refresher = Executors.newSingleThreadScheduledExecutor();
+        refresher.scheduleWithFixedDelay(this::refreshBlacklistCache, 0, config.getBlacklistRefreshMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    private void refreshBlacklistCache() {
+        try {
+            CosmosChangeFeedRequestOptions options = changeFeedContinuation == null
+                    ? CosmosChangeFeedRequestOptions.createForProcessingFromBeginning(FeedRange.forFullRange())
+                    : CosmosChangeFeedRequestOptions.createForProcessingFromContinuation(changeFeedContinuation);
+
+            for (FeedResponse<BlacklistedTokenDTO> page : blacklistContainer
+                    .queryChangeFeed(options, BlacklistedTokenDTO.class).byPage().toIterable()) {
+                for (BlacklistedTokenDTO blacklistedToken : page.getResults()) {
+                    cacheToken(blacklistedToken.getTokenId(), expiryOf(blacklistedToken));
+                }
+
+                changeFeedContinuation = page.getContinuationToken();
+
+                if (page.getResults().isEmpty()) {
+                    break;
+                }
+            }
+
+            removeExpiredTokens();
+
+            lastRefreshMillis = System.currentTimeMillis();
+            refreshes.incrementAndGet();
+        } catch (Exception e) {
+            // The mirror becomes stale and lookups fall back to Cosmos until the next successful refresh
+            failedRefreshes.incrementAndGet();
+        }
+    }
+
+    private static long expiryOf(BlacklistedTokenDTO blacklistedToken) {
+        try {
+            return JWT.decode(blacklistedToken.getTokenId()).getExpiresAt().getTime() / 1000;
+        } catch (Exception e) {
+            // Not a decodable token, the document TTL bounds its life
+            long ttl = blacklistedToken.getTtl() != null ? blacklistedToken.getTtl() : 0;
+            return System.currentTimeMillis() / 1000 + ttl;
+        }
+    }
+
+    // Called by the refresher and by the revocations of this node, the two indexes are changed together
+    private synchronized void cacheToken(String token, long expiry) {
+        if (token == null) {
+            return;
+        }
+
+        Long previousExpiry = blacklistCache.put(token, expiry);
+        if (previousExpiry != null) {
+            expiryOrder.remove(new ExpiringToken(token, previousExpiry));
+        }
+        expiryOrder.add(new ExpiringToken(token, expiry));
+
+        // A full mirror drops the tokens closest to their expiry, which the signature check rejects first anyway
+        while (blacklistCache.size() > maxCacheSize && !expiryOrder.isEmpty()) {
+            ExpiringToken earliest = expiryOrder.pollFirst();
+            blacklistCache.remove(earliest.token());
+            evictedUntil = Math.max(evictedUntil, earliest.expiry());
+            evictedTokens.incrementAndGet();
+        }
+    }
+
+    // Expired tokens are rejected by the signature check anyway
+    private synchronized void removeExpiredTokens() {
+        long now = System.currentTimeMillis() / 1000;
 
-        // Get database reference
-        CosmosDatabase database = cosmosClient.getDatabase(config.getDatabaseName());
+        while (!expiryOrder.isEmpty() && expiryOrder.first().expiry() <= now) {
+            blacklistCache.remove(expiryOrder.pollFirst().token());
+        }
+    }
 
-        // Get container reference for token blacklist
-        this.blacklistContainer = database.getContainer(config.getTokenBlacklistContainerName());
+    private boolean isCacheAuthoritative() {
+        long lastRefresh = lastRefreshMillis;
+        return lastRefresh > 0 && System.currentTimeMillis() - lastRefresh <= maxStalenessMillis;
     }
 
     @Override
@@ -48,7 +165,10 @@ public class CosmosAuthRepositoryImpl implements CosmosAuthRepository {
             if (remainingTtl <= 0) return;
 
             BlacklistedTokenDTO blacklistedToken = new BlacklistedTokenDTO(token, token, remainingTtl);
-            blacklistContainer.upsertItem(blacklistedToken);
+            blacklistContainer.upsertItem(blacklistedToken).block();
+
+            // This node sees the revocation at once, the others through the change feed
+            cacheToken(token, tokenExpiryTimestamp);
         } catch (CosmosException e) {
             // If it is necessary use a RuntimeException for more detailed debug
             throw new AuthException("Error blacklisting token");
@@ -57,9 +177,23 @@ public class CosmosAuthRepositoryImpl implements CosmosAuthRepository {
 
     @Override
     public boolean isTokenBlacklisted(String token) {
+        if (isCacheAuthoritative()) {
+            long now = System.currentTimeMillis() / 1000;
+            Long expiry = blacklistCache.get(token);
+
+            if (expiry != null) {
+                return expiry > now;
+            }
+
+            // While a dropped token may still be valid only the misses are checked on Cosmos
+            if (evictedUntil <= now) {
+                return false;
+            }
+        }
+
         try {
             BlacklistedTokenDTO blacklistedTokenDTO = blacklistContainer.
-                    readItem(token, new PartitionKey(token), BlacklistedTokenDTO.class).getItem();
+                    readItem(token, new PartitionKey(token), BlacklistedTokenDTO.class).block().getItem();
 
             return blacklistedTokenDTO!= null;
         } catch (CosmosException e) {
@@ -70,5 +204,18 @@ public class CosmosAuthRepositoryImpl implements CosmosAuthRepository {
             throw new AuthException("Error checking blacklisted token");
         }
     }
-}
 
+    @Override
+    public Map<String, Object> getBlacklistCacheMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("maxSize", maxCacheSize);
+        metrics.put("size", blacklistCache.size());
+        metrics.put("authoritative", isCacheAuthoritative());
+        metrics.put("lastRefreshMillis", lastRefreshMillis);
+        metrics.put("refreshes", refreshes.get());
+        metrics.put("failedRefreshes", failedRefreshes.get());
+        metrics.put("evictedTokens", evictedTokens.get());
+        metrics.put("evictedUntilSeconds", evictedUntil);
+        return metrics;
+    }
+}
@@ -0,0 +1,63 @@
+package it.unisa.ddditserver.db.cosmos.versioning;
+
+import it.unisa.ddditserver.subsystems.versioning.dto.version.PushJournalEntryDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.WrittenBlobDTO;
+import java.util.List;
+
+/**
+ * Repository interface for the journal of the pushes in progress stored in CosmosDB.
+ * An entry is written before any artifact of the push and removed once the push is committed or rolled back,
+ * so the artifacts of a push interrupted by a crash can always be found.
+ *
+ * @version 1.1
+ * @since 2026-10-18
+ */
+public interface CosmosPushJournalRepository {
+    /**
+     * Records a new push in the journal, waiting for the write to be durable.
+     *
+     * @param entry the push with the locations of the artifacts it is going to write
+     */
+    void saveEntry(PushJournalEntryDTO entry);
+
+    /**
+     * Appends a BLOB written by a push to its entry and refreshes its update time.
+     *
+     * @param entryId the id of the push
+     * @param writtenBlob the URL of the BLOB and the ETag of the content written by the push
+     */
+    void recordWrittenBlob(String entryId, WrittenBlobDTO writtenBlob);
+
+    /**
+     * Refreshes the update time of a push still in progress, so that it is not taken for an interrupted push.
+     * Nothing is done if the push is no longer in the journal.
+     *
+     * @param entryId the id of the push
+     */
+    void refreshEntry(String entryId);
+
+    /**
+     * Marks a push as being rolled back and refreshes its update time.
+     * Nothing is done if the push is no longer in the journal.
+     *
+     * @param entryId the id of the push
+     */
+    void markCompensating(String entryId);
+
+    /**
+     * Removes a push from the journal.
+     * Nothing is done if the push is no longer in the journal.
+     *
+     * @param entryId the id of the push
+     */
+    void deleteEntry(String entryId);
+
+    /**
+     * Retrieves the pushes whose status has not changed since the given time.
+     *
+     * @param updatedBeforeMillis the epoch milliseconds before which the pushes are considered stale
+     * @param maxEntries the maximum number of pushes to retrieve
+     * @return a list of {@link PushJournalEntryDTO} of the stale pushes, oldest first
+     */
+    List<PushJournalEntryDTO> findStaleEntries(long updatedBeforeMillis, int maxEntries);
+}
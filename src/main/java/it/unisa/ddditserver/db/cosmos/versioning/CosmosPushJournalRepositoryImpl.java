@@ -0,0 +1,139 @@
+package it.unisa.ddditserver.db.cosmos.versioning;
+
+import com.azure.cosmos.CosmosAsyncContainer;
+import com.azure.cosmos.CosmosException;
+import com.azure.cosmos.models.CosmosItemRequestOptions;
+import com.azure.cosmos.models.CosmosPatchOperations;
+import com.azure.cosmos.models.CosmosQueryRequestOptions;
+import com.azure.cosmos.models.FeedResponse;
+import com.azure.cosmos.models.PartitionKey;
+import com.azure.cosmos.models.SqlParameter;
+import com.azure.cosmos.models.SqlQuerySpec;
+import it.unisa.ddditserver.db.cosmos.CosmosClientProvider;
+import it.unisa.ddditserver.db.cosmos.CosmosConfig;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.PushJournalEntryDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.PushStatus;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.WrittenBlobDTO;
+import it.unisa.ddditserver.subsystems.versioning.exceptions.version.VersionException;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+public class CosmosPushJournalRepositoryImpl implements CosmosPushJournalRepository {
+    // Status code of a document that does not exist, the journal operations are idempotent on it
+    private static final int NOT_FOUND = 404;
+
+    private final CosmosConfig config;
+    private final CosmosClientProvider clientProvider;
+    private CosmosAsyncContainer container;
+
+    @Autowired
+    public CosmosPushJournalRepositoryImpl(CosmosConfig config, CosmosClientProvider clientProvider) {
+        this.config = config;
+        this.clientProvider = clientProvider;
+    }
+
+    @PostConstruct
+    public void init() {
+        // Get container reference for the push journal from the shared client
+        this.container = clientProvider.getContainer(config.getPushJournalContainerName());
+    }
+
+    @Override
+    public void saveEntry(PushJournalEntryDTO entry) {
+        try {
+            container.createItem(entry, new PartitionKey(entry.getId()), new CosmosItemRequestOptions()).block();
+        } catch (CosmosException e) {
+            // If it is necessary use a RuntimeException for more detailed debug
+            throw new VersionException("Error saving push journal entry in CosmosDB");
+        }
+    }
+
+    @Override
+    public void recordWrittenBlob(String entryId, WrittenBlobDTO writtenBlob) {
+        try {
+            CosmosPatchOperations operations = CosmosPatchOperations.create()
+                    .add("/writtenBlobs/-", writtenBlob)
+                    .set("/updatedAtMillis", System.currentTimeMillis());
+
+            container.patchItem(entryId, new PartitionKey(entryId), operations, PushJournalEntryDTO.class).block();
+        } catch (CosmosException e) {
+            // If it is necessary use a RuntimeException for more detailed debug
+            throw new VersionException("Error updating push journal entry in CosmosDB");
+        }
+    }
+
+    @Override
+    public void refreshEntry(String entryId) {
+        try {
+            CosmosPatchOperations operations = CosmosPatchOperations.create()
+                    .set("/updatedAtMillis", System.currentTimeMillis());
+
+            container.patchItem(entryId, new PartitionKey(entryId), operations, PushJournalEntryDTO.class).block();
+        } catch (CosmosException e) {
+            if (e.getStatusCode() != NOT_FOUND) {
+                // If it is necessary use a RuntimeException for more detailed debug
+                throw new VersionException("Error updating push journal entry in CosmosDB");
+            }
+        }
+    }
+
+    @Override
+    public void markCompensating(String entryId) {
+        try {
+            CosmosPatchOperations operations = CosmosPatchOperations.create()
+                    .set("/status", PushStatus.COMPENSATING.name())
+                    .set("/updatedAtMillis", System.currentTimeMillis());
+
+            container.patchItem(entryId, new PartitionKey(entryId), operations, PushJournalEntryDTO.class).block();
+        } catch (CosmosException e) {
+            if (e.getStatusCode() != NOT_FOUND) {
+                // If it is necessary use a RuntimeException for more detailed debug
+                throw new VersionException("Error updating push journal entry in CosmosDB");
+            }
+        }
+    }
+
+    @Override
+    public void deleteEntry(String entryId) {
+        try {
+            container.deleteItem(entryId, new PartitionKey(entryId), new CosmosItemRequestOptions()).block();
+        } catch (CosmosException e) {
+            if (e.getStatusCode() != NOT_FOUND) {
+                // If it is necessary use a RuntimeException for more detailed debug
+                throw new VersionException("Error deleting push journal entry in CosmosDB");
+            }
+        }
+    }
+
+    @Override
+    public List<PushJournalEntryDTO> findStaleEntries(long updatedBeforeMillis, int maxEntries) {
+        SqlQuerySpec query = new SqlQuerySpec(
+                "SELECT * FROM c WHERE c.updatedAtMillis < @updatedBefore ORDER BY c.updatedAtMillis",
+                List.of(new SqlParameter("@updatedBefore", updatedBeforeMillis)));
+
+        List<PushJournalEntryDTO> entries = new ArrayList<>();
+
+        try {
+            for (FeedResponse<PushJournalEntryDTO> page : container
+                    .queryItems(query, new CosmosQueryRequestOptions(), PushJournalEntryDTO.class)
+                    .byPage(maxEntries).toIterable()) {
+                for (PushJournalEntryDTO entry : page.getResults()) {
+                    entries.add(entry);
+
+                    if (entries.size() >= maxEntries) {
+                        return entries;
+                    }
+                }
+            }
+
+            return entries;
+        } catch (CosmosException e) {
+            // If it is necessary use a RuntimeException for more detailed debug
+            throw new VersionException("Error retrieving push journal entries from CosmosDB");
+        }
+    }
+}
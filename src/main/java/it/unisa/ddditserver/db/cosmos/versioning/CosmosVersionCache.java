@@ -0,0 +1,107 @@
+package it.unisa.ddditserver.db.cosmos.versioning;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import it.unisa.ddditserver.db.cosmos.CosmosConfig;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.CosmosVersionDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.TagsStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-memory cache of the version documents stored in Cosmos DB, keyed by document id and partition key.
+ *
+ * A version document is written once at push time and afterwards only its tags are patched by the
+ * classification, so entries do not expire: they are invalidated when the document is patched or
+ * deleted and the least recently used ones are evicted when the cache is full.
+ * The cache holds the read in flight of every document, an invalidation drops it as well,
+ * so a read that started before a write is never kept after the write.
+ *
+ * @version 1.1
+ * @since 2026-10-18
+ */
+@Component
+public class CosmosVersionCache {
+    private final CosmosConfig config;
+    private final AsyncCache<DocumentKey, CosmosVersionDTO> documents;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private record DocumentKey(String id, String partitionKey) {}
+
+    @Autowired
+    public CosmosVersionCache(CosmosConfig config) {
+        this.config = config;
+        this.documents = Caffeine.newBuilder()
+                .maximumSize(Math.max(0, config.getVersionCacheMaxSize()))
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Returns the cached version document, reading it from Cosmos DB if it is not cached.
+     * Concurrent lookups of the same document share a single read, documents whose tags
+     * are still pending are not kept because the classification is going to patch them.
+     *
+     * @param id the id of the document
+     * @param partitionKey the partition key of the document
+     * @param reader the read of the document from Cosmos DB
+     * @return the {@link CosmosVersionDTO} read from the cache or from Cosmos DB
+     */
+    public CosmosVersionDTO get(String id, String partitionKey, Supplier<CompletableFuture<CosmosVersionDTO>> reader) {
+        DocumentKey key = new DocumentKey(id, partitionKey);
+        CompletableFuture<CosmosVersionDTO> read = documents.get(key, (ignored, executor) -> reader.get());
+
+        try {
+            CosmosVersionDTO document = read.join();
+
+            if (document.getTagsStatus() == TagsStatus.PENDING) {
+                documents.asMap().remove(key, read);
+            }
+
+            return document;
+        } catch (CompletionException e) {
+            // A failed read is dropped by the cache, the error of the read is the one reported
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Drops a cached version document, or its read in flight, after it has been patched or deleted.
+     *
+     * @param id the id of the document
+     * @param partitionKey the partition key of the document
+     */
+    public void invalidate(String id, String partitionKey) {
+        documents.synchronous().invalidate(new DocumentKey(id, partitionKey));
+        invalidations.incrementAndGet();
+    }
+
+    /**
+     * Returns a snapshot of the cache configuration and of its hit and miss counters.
+     *
+     * @return a map containing cache settings and usage counters
+     */
+    public Map<String, Object> getCacheMetrics() {
+        CacheStats stats = documents.synchronous().stats();
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("maxSize", config.getVersionCacheMaxSize());
+        metrics.put("size", documents.synchronous().estimatedSize());
+        metrics.put("hits", stats.hitCount());
+        metrics.put("misses", stats.missCount());
+        metrics.put("hitRatio", stats.requestCount() == 0 ? 0.0 : stats.hitRate());
+        metrics.put("evictions", stats.evictionCount());
+        metrics.put("invalidations", invalidations.get());
+        return metrics;
+    }
+}
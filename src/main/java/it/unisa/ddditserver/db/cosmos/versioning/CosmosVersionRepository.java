@@ -1,23 +1,39 @@
 package it.unisa.ddditserver.db.cosmos.versioning;
 
+import it.unisa.ddditserver.subsystems.versioning.dto.PageDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.TagsStatus;
 import it.unisa.ddditserver.subsystems.versioning.dto.version.VersionDTO;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Repository interface for managing version-related operations
  * in a Cosmos DB.
  *
  * @author Angelo Antonio Prisco
- * @version 1.0
+ * @version 1.4
  * @since 2025-08-25
  */
 public interface CosmosVersionRepository {
 
     /**
-     * Saves a version document in CosmosDB with version metadata.
+     * Saves a version document in CosmosDB with a given id, without waiting for the write.
      *
      * @param versionDTO the VersionDTO containing all version information
+     * @param blobUrl the URL of the mesh or of the material folder in BLOB Storage
+     * @param documentId the id of the document, as passed to {@link #getDocumentUrl}
+     * @return a future completed with the CosmosDB URL of the document once it is written
      */
-    String saveVersion(VersionDTO versionDTO, String versionUrl);
+    CompletableFuture<String> saveVersionAsync(VersionDTO versionDTO, String blobUrl, String documentId);
+
+    /**
+     * Builds the CosmosDB URL of a version document without reading or writing it.
+     *
+     * @param versionDTO the VersionDTO of the version
+     * @param documentId the id of the document
+     * @return the CosmosDB URL that identifies the document
+     */
+    String getDocumentUrl(VersionDTO versionDTO, String documentId);
 
     /**
      * Retrieves a version metadata from CosmosDB based on the provided document URL.
@@ -35,8 +51,29 @@ public interface CosmosVersionRepository {
      */
     String getBlobUrlByUrl(String cosmosDocumentUrl);
 
+    /**
+     * Replaces the tags and the classification status of the CosmosDB document based on the provided document URL,
+     * without reading or rewriting the rest of the document.
+     *
+     * @param cosmosDocumentUrl the CosmosDB URL that identifies the document
+     * @param tags the tags to store in the document
+     * @param tagsStatus the status of the tag classification
+     */
+    void updateTagsByUrl(String cosmosDocumentUrl, List<String> tags, TagsStatus tagsStatus);
+
+    /**
+     * Lists a page of the URLs of the version documents written before the given time.
+     *
+     * @param writtenBeforeMillis the epoch milliseconds before which the documents must have been last written
+     * @param continuationToken the token returned with the previous page, null for the first page
+     * @param pageSize the maximum number of documents of the page
+     * @return a {@link PageDTO} of CosmosDB document URLs, with the token of the next page if any
+     */
+    PageDTO<String> findVersionDocumentUrls(long writtenBeforeMillis, String continuationToken, int pageSize);
+
     /**
      * Deletes the CosmosDB document based on the provided document URL.
+     * Nothing is done if the document has already been deleted.
      *
      * @param cosmosDocumentUrl the CosmosDB URL that identifies the document
      */
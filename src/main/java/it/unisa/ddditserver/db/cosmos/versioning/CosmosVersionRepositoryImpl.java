@@ -2,56 +2,75 @@ package it.unisa.ddditserver.db.cosmos.versioning;
 
 import com.azure.cosmos.*;
 import com.azure.cosmos.models.*;
+import it.unisa.ddditserver.db.cosmos.CosmosClientProvider;
 import it.unisa.ddditserver.db.cosmos.CosmosConfig;
+import it.unisa.ddditserver.subsystems.versioning.dto.PageDTO;
 import it.unisa.ddditserver.subsystems.versioning.dto.version.CosmosVersionDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.TagsStatus;
 import it.unisa.ddditserver.subsystems.versioning.dto.version.VersionDTO;
 import it.unisa.ddditserver.subsystems.versioning.exceptions.version.VersionException;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
-import java.net.URI;
-import java.net.URISyntaxException;
-import java.util.Arrays;
-import java.util.UUID;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Repository
 public class CosmosVersionRepositoryImpl implements CosmosVersionRepository {
+    // Status code of a document that does not exist
+    private static final int NOT_FOUND = 404;
+
     private final CosmosConfig config;
-    private CosmosContainer container;
+    private final CosmosClientProvider clientProvider;
+    private final CosmosVersionCache versionCache;
+    private CosmosAsyncContainer container;
 
     @Autowired
-    public CosmosVersionRepositoryImpl(CosmosConfig config) {
+    public CosmosVersionRepositoryImpl(CosmosConfig config, CosmosClientProvider clientProvider, CosmosVersionCache versionCache) {
         this.config = config;
+        this.clientProvider = clientProvider;
+        this.versionCache = versionCache;
     }
 
-    private String getPartitionKey(String query) {
-        // If it is necessary use a RuntimeException for more detailed debug
-        return Arrays.stream(query.split("&"))
-                .filter(param -> param.startsWith("partitionKey="))
-                .map(param -> param.split("=")[1])
-                .findFirst()
-                .orElseThrow(() -> new VersionException("PartitionKey non found in CosmosDB document URL"));
+    private record DocumentKey(String id, String partitionKey) {}
+
+    // The URLs are built by getDocumentUrl, the id is the last path segment and the partition key a query parameter
+    private static DocumentKey parseDocumentUrl(String cosmosDocumentUrl) {
+        int queryStart = cosmosDocumentUrl.indexOf('?');
+        String path = queryStart >= 0 ? cosmosDocumentUrl.substring(0, queryStart) : cosmosDocumentUrl;
+        String id = path.substring(path.lastIndexOf('/') + 1);
+
+        String partitionKey = null;
+        if (queryStart >= 0) {
+            for (String param : cosmosDocumentUrl.substring(queryStart + 1).split("&")) {
+                if (param.startsWith("partitionKey=")) {
+                    partitionKey = param.substring("partitionKey=".length());
+                    break;
+                }
+            }
+        }
+
+        if (id.isEmpty()) {
+            // If it is necessary use a RuntimeException for more detailed debug
+            throw new VersionException("Document id not found in CosmosDB document URL");
+        }
+        if (partitionKey == null) {
+            // If it is necessary use a RuntimeException for more detailed debug
+            throw new VersionException("PartitionKey non found in CosmosDB document URL");
+        }
+
+        return new DocumentKey(id, partitionKey);
     }
 
     @PostConstruct
     public void init() {
-        // Build client connection to Cosmos server
-        CosmosClient cosmosClient = new CosmosClientBuilder()
-                .endpoint(config.getEndpoint())
-                .key(config.getKey())
-                .buildClient();
-
-        // Get database reference
-        CosmosDatabase database = cosmosClient.getDatabase(config.getDatabaseName());
-
-        // Get container reference for versions metadata
-        this.container = database.getContainer(config.getVersionsContainerName());
+        // Get container reference for versions metadata from the shared client
+        this.container = clientProvider.getContainer(config.getVersionsContainerName());
     }
 
-    @Override
-    public String saveVersion(VersionDTO versionDTO, String blobUrl) {
-        CosmosVersionDTO cosmosVersion = new CosmosVersionDTO(
-                UUID.randomUUID().toString(),
+    private static CosmosVersionDTO toDocument(VersionDTO versionDTO, String blobUrl, String documentId) {
+        return new CosmosVersionDTO(
+                documentId,
                 versionDTO.getResourceName(),
                 versionDTO.getResourceName(),
                 versionDTO.getVersionName(),
@@ -59,41 +78,57 @@ public class CosmosVersionRepositoryImpl implements CosmosVersionRepository {
                 versionDTO.getPushedAt(),
                 versionDTO.getComment(),
                 versionDTO.getTags(),
-                blobUrl
+                blobUrl,
+                versionDTO.getTagsStatus()
+        );
+    }
+
+    @Override
+    public String getDocumentUrl(VersionDTO versionDTO, String documentId) {
+        return documentUrl(documentId, versionDTO.getResourceName());
+    }
+
+    private static String documentUrl(String documentId, String partitionKey) {
+        // Should be added a new env variable with CosmosDB name and an env variable with username both on GitHub and Azure VM
+        return String.format(
+                "https://%s.documents.azure.com/dbs/%s/colls/%s/docs/%s?partitionKey=%s",
+                "se4ai-aap-documents",
+                "metadata",
+                "versions",
+                documentId,
+                partitionKey
         );
+    }
+
+    @Override
+    public CompletableFuture<String> saveVersionAsync(VersionDTO versionDTO, String blobUrl, String documentId) {
+        CosmosVersionDTO cosmosVersion = toDocument(versionDTO, blobUrl, documentId);
 
         try {
-            container.createItem(cosmosVersion, new PartitionKey(cosmosVersion.getResourceName()), new CosmosItemRequestOptions());
-
-            // Should be added a new env variable with CosmosDB name and an env variable with username both on GitHub and Azure VM
-            return String.format(
-                    "https://%s.documents.azure.com/dbs/%s/colls/%s/docs/%s?partitionKey=%s",
-                    "se4ai-aap-documents",
-                    "metadata",
-                    "versions",
-                    cosmosVersion.getId(),
-                    cosmosVersion.getResourceName()
-            );
-        } catch (CosmosException e) {
-            // If it is necessary use a RuntimeException for more detailed debug
-            throw new VersionException("Error saving version document in CosmosDB");
+            return container.createItem(cosmosVersion, new PartitionKey(cosmosVersion.getResourceName()), new CosmosItemRequestOptions())
+                    .toFuture()
+                    .handle((response, throwable) -> {
+                        if (throwable != null) {
+                            // If it is necessary use a RuntimeException for more detailed debug
+                            throw new VersionException("Error saving version document in CosmosDB");
+                        }
+                        return getDocumentUrl(versionDTO, documentId);
+                    });
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
         }
     }
 
     @Override
     public VersionDTO findVersionByUrl(String cosmosDocumentUrl) {
-        try {
-            URI uri = new URI(cosmosDocumentUrl);
-            String[] pathSegments = uri.getPath().split("/");
-            String versionId = pathSegments[pathSegments.length - 1];
+        DocumentKey key = parseDocumentUrl(cosmosDocumentUrl);
 
+        try {
+            // The tags of a version still being classified can change, its document is read again until they are final
+            CosmosVersionDTO cosmosVersion = versionCache.get(key.id(), key.partitionKey(), () -> readVersion(key));
 
-            String query = uri.getQuery();
-            CosmosVersionDTO cosmosVersion = container.readItem(versionId, new PartitionKey(getPartitionKey(query)), CosmosVersionDTO.class).getItem();
-
-            if (cosmosVersion == null) {
-                throw new VersionException("CosmosDB document version not found in CosmosDB");
-            }
+            // Documents written before the asynchronous classification were classified during the push
+            TagsStatus tagsStatus = cosmosVersion.getTagsStatus() != null ? cosmosVersion.getTagsStatus() : TagsStatus.COMPLETE;
 
             // Some fields are null because in this case we are interested only to retrieve metadata
             return new VersionDTO(
@@ -101,9 +136,10 @@ public class CosmosVersionRepositoryImpl implements CosmosVersionRepository {
                     null, cosmosVersion.getVersionName(),
                     cosmosVersion.getUsername(), cosmosVersion.getPushedAt(),
                     cosmosVersion.getComment(), cosmosVersion.getTags(),
-                    null, null
+                    null, null,
+                    tagsStatus
             );
-        } catch (CosmosException | URISyntaxException e) {
+        } catch (CosmosException e) {
             // If it is necessary use a RuntimeException for more detailed debug
             throw new VersionException("Error retrieving version document from CosmosDB via URL");
         }
@@ -111,37 +147,88 @@ public class CosmosVersionRepositoryImpl implements CosmosVersionRepository {
 
     @Override
     public String getBlobUrlByUrl(String cosmosDocumentUrl) {
+        DocumentKey key = parseDocumentUrl(cosmosDocumentUrl);
+
         try {
-            URI uri = new URI(cosmosDocumentUrl);
-            String[] pathSegments = uri.getPath().split("/");
-            String versionId = pathSegments[pathSegments.length - 1];
+            return versionCache.get(key.id(), key.partitionKey(), () -> readVersion(key)).getBlobUrl();
+        } catch (CosmosException e) {
+            // If it is necessary use a RuntimeException for more detailed debug
+            throw new VersionException("Error retrieving version document from CosmosDB via URL");
+        }
+    }
 
-            String query = uri.getQuery();
-            CosmosVersionDTO cosmosVersion = container.readItem(versionId, new PartitionKey(getPartitionKey(query)), CosmosVersionDTO.class).getItem();
+    @Override
+    public void updateTagsByUrl(String cosmosDocumentUrl, List<String> tags, TagsStatus tagsStatus) {
+        DocumentKey key = parseDocumentUrl(cosmosDocumentUrl);
 
-            if (cosmosVersion == null) {
-                throw new VersionException("CosmosDB document version not found in CosmosDB");
-            }
+        try {
+            CosmosPatchOperations operations = CosmosPatchOperations.create()
+                    .set("/tags", tags)
+                    .set("/tagsStatus", tagsStatus.name());
 
-            return cosmosVersion.getBlobUrl();
-        } catch (CosmosException | URISyntaxException e) {
+            container.patchItem(key.id(), new PartitionKey(key.partitionKey()), operations, CosmosVersionDTO.class).block();
+        } catch (CosmosException e) {
             // If it is necessary use a RuntimeException for more detailed debug
-            throw new VersionException("Error retrieving version document from CosmosDB via URL");
+            throw new VersionException("Error updating version tags in CosmosDB");
+        } finally {
+            versionCache.invalidate(key.id(), key.partitionKey());
         }
     }
 
     @Override
-    public void deleteVersionByUrl(String cosmosDocumentUrl) {
+    public PageDTO<String> findVersionDocumentUrls(long writtenBeforeMillis, String continuationToken, int pageSize) {
+        // Only the fields of the document URL are projected, _ts is the last write in epoch seconds
+        SqlQuerySpec query = new SqlQuerySpec(
+                "SELECT c.id, c.resourceName FROM c WHERE c._ts < @writtenBefore",
+                List.of(new SqlParameter("@writtenBefore", writtenBeforeMillis / 1000)));
+
         try {
-            URI uri = new URI(cosmosDocumentUrl);
-            String[] pathSegments = uri.getPath().split("/");
-            String versionId = pathSegments[pathSegments.length - 1];
+            FeedResponse<CosmosVersionDTO> page = container
+                    .queryItems(query, new CosmosQueryRequestOptions(), CosmosVersionDTO.class)
+                    .byPage(continuationToken, pageSize)
+                    .blockFirst();
+
+            if (page == null) {
+                return new PageDTO<>(List.of(), null);
+            }
 
-            String query = uri.getQuery();
-            container.deleteItem(versionId, new PartitionKey(getPartitionKey(query)), new CosmosItemRequestOptions());
-        } catch (CosmosException | URISyntaxException e) {
+            List<String> documentUrls = page.getResults().stream()
+                    .map(cosmosVersion -> documentUrl(cosmosVersion.getId(), cosmosVersion.getResourceName()))
+                    .toList();
+
+            return new PageDTO<>(documentUrls, page.getContinuationToken());
+        } catch (CosmosException e) {
             // If it is necessary use a RuntimeException for more detailed debug
-            throw new VersionException("Error deleting version document in CosmosDB");
+            throw new VersionException("Error listing version documents in CosmosDB");
+        }
+    }
+
+    @Override
+    public void deleteVersionByUrl(String cosmosDocumentUrl) {
+        DocumentKey key = parseDocumentUrl(cosmosDocumentUrl);
+
+        try {
+            container.deleteItem(key.id(), new PartitionKey(key.partitionKey()), new CosmosItemRequestOptions()).block();
+        } catch (CosmosException e) {
+            // A document already deleted is not an error, a rolled back push can be compensated more than once
+            if (e.getStatusCode() != NOT_FOUND) {
+                // If it is necessary use a RuntimeException for more detailed debug
+                throw new VersionException("Error deleting version document in CosmosDB");
+            }
+        } finally {
+            versionCache.invalidate(key.id(), key.partitionKey());
         }
     }
+
+    private CompletableFuture<CosmosVersionDTO> readVersion(DocumentKey key) {
+        return container.readItem(key.id(), new PartitionKey(key.partitionKey()), CosmosVersionDTO.class)
+                .toFuture()
+                .thenApply(response -> {
+                    if (response.getItem() == null) {
+                        throw new VersionException("CosmosDB document version not found in CosmosDB");
+                    }
+
+                    return response.getItem();
+                });
+    }
 }
\ No newline at end of file
@@ -0,0 +1,268 @@
+package it.unisa.ddditserver.db.gremlin;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.tinkerpop.gremlin.driver.Client;
+import org.apache.tinkerpop.gremlin.driver.Cluster;
+import org.apache.tinkerpop.gremlin.driver.Result;
+import org.apache.tinkerpop.gremlin.driver.ResultSet;
+import org.apache.tinkerpop.gremlin.driver.ser.Serializers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared Gremlin client used by every Gremlin repository.
+ *
+ * A single {@link Cluster} is built from {@link GremlinConfig} so that all repositories
+ * share the same Netty event loop and connection pool against the Cosmos Gremlin endpoint.
+ * The number of requests in flight is bounded and pool saturation is tracked so that
+ * the pool can be sized for push bursts. Synchronous requests wait for a free slot,
+ * asynchronous ones are queued and sent when a slot is released, so they never block the caller.
+ *
+ * @version 1.1
+ * @since 2026-10-18
+ */
+@Component
+public class GremlinClient {
+    private final GremlinConfig config;
+    private Cluster cluster;
+    private Client client;
+    private Semaphore inFlightPermits;
+    // Asynchronous requests waiting for a free slot, each one is sent holding the slot it was given
+    private final Queue<Runnable> waitingAsyncRequests = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger inFlightRequests = new AtomicInteger();
+    private final AtomicInteger peakInFlightRequests = new AtomicInteger();
+    private final AtomicLong submittedRequests = new AtomicLong();
+    private final AtomicLong failedRequests = new AtomicLong();
+    private final AtomicLong saturatedRequests = new AtomicLong();
+    private final AtomicLong rejectedRequests = new AtomicLong();
+    private final AtomicLong timedOutRequests = new AtomicLong();
+
+    @Autowired
+    public GremlinClient(GremlinConfig config) {
+        this.config = config;
+    }
+
+    @PostConstruct
+    public void init() {
+        String endpoint = config.getEndpoint();
+        // Remove protocol prefix (wss://)
+        if (endpoint.startsWith("wss://")) {
+            endpoint = endpoint.substring(6);
+        }
+        // Remove port and path after colon
+        int colonIndex = endpoint.indexOf(':');
+        if (colonIndex != -1) {
+            endpoint = endpoint.substring(0, colonIndex);
+        }
+        // Remove trailing slash if present
+        if (endpoint.endsWith("/")) {
+            endpoint = endpoint.substring(0, endpoint.length() - 1);
+        }
+
+        // Build the only cluster connection to Gremlin server
+        this.cluster = Cluster.build()
+                .addContactPoint(endpoint)
+                .port(443)
+                .credentials(config.getUsername(), config.getKey())
+                .enableSsl(true)
+                .serializer(Serializers.GRAPHSON_V2D0)
+                .minConnectionPoolSize(config.getMinConnectionsPerHost())
+                .maxConnectionPoolSize(config.getMaxConnectionsPerHost())
+                .maxInProcessPerConnection(config.getMaxInProcessPerConnection())
+                .maxSimultaneousUsagePerConnection(config.getMaxSimultaneousUsagePerConnection())
+                .maxWaitForConnection(config.getMaxWaitForConnectionMillis())
+                .create();
+
+        this.client = cluster.connect();
+        this.inFlightPermits = new Semaphore(config.getMaxInFlightRequests(), true);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (cluster != null) {
+            cluster.close();
+        }
+    }
+
+    /**
+     * Submits a parametrized Gremlin script through the shared connection pool.
+     * The in-flight slot is released only when all the results have been received,
+     * so fire and forget writes are accounted for as well.
+     *
+     * @param query the Gremlin script to submit
+     * @param parameters the bindings used by the script
+     * @return the {@link ResultSet} of the request
+     */
+    public ResultSet submit(String query, Map<String, Object> parameters) {
+        acquire();
+
+        ResultSet resultSet;
+
+        try {
+            resultSet = client.submit(query, parameters);
+        } catch (RuntimeException e) {
+            failedRequests.incrementAndGet();
+            release();
+            throw e;
+        }
+
+        resultSet.allItemsAvailableAsync().whenComplete((ignored, throwable) -> {
+            if (throwable != null) {
+                failedRequests.incrementAndGet();
+            }
+            release();
+        });
+
+        return resultSet;
+    }
+
+    /**
+     * Submits a parametrized Gremlin script without waiting for a free slot or for its results.
+     * If every slot is taken the request is queued and sent as soon as a slot is released.
+     * The returned future is completed when the server has acknowledged the request with all its results,
+     * or completed exceptionally if the request fails or is not acknowledged within the configured timeout,
+     * the time spent in the queue included.
+     *
+     * @param query the Gremlin script to submit
+     * @param parameters the bindings used by the script
+     * @return a future completed with all the results of the request
+     */
+    public CompletableFuture<List<Result>> submitAsync(String query, Map<String, Object> parameters) {
+        CompletableFuture<List<Result>> results = new CompletableFuture<>();
+
+        Runnable request = () -> {
+            // A request timed out while queued is never sent, its slot goes to the next one
+            if (results.isDone()) {
+                inFlightPermits.release();
+                sendWaitingAsyncRequests();
+                return;
+            }
+
+            track();
+
+            try {
+                client.submitAsync(query, parameters)
+                        .thenCompose(ResultSet::all)
+                        .whenComplete((value, throwable) -> {
+                            if (throwable != null) {
+                                failedRequests.incrementAndGet();
+                                results.completeExceptionally(throwable);
+                            } else {
+                                results.complete(value);
+                            }
+                            release();
+                        });
+            } catch (RuntimeException e) {
+                failedRequests.incrementAndGet();
+                results.completeExceptionally(e);
+                release();
+            }
+        };
+
+        CompletableFuture<List<Result>> acknowledged = results
+                .orTimeout(config.getAsyncRequestTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((ignored, throwable) -> {
+                    if (throwable instanceof TimeoutException) {
+                        timedOutRequests.incrementAndGet();
+                    }
+                });
+
+        if (inFlightPermits.tryAcquire()) {
+            request.run();
+        } else {
+            saturatedRequests.incrementAndGet();
+            waitingAsyncRequests.add(request);
+            // A slot released before the request was queued would otherwise be missed
+            sendWaitingAsyncRequests();
+        }
+
+        return acknowledged;
+    }
+
+    private void sendWaitingAsyncRequests() {
+        while (!waitingAsyncRequests.isEmpty() && inFlightPermits.tryAcquire()) {
+            Runnable request = waitingAsyncRequests.poll();
+
+            if (request == null) {
+                inFlightPermits.release();
+                return;
+            }
+
+            // Slots are released on the driver event loop, which must not be used to send a request
+            ForkJoinPool.commonPool().execute(request);
+        }
+    }
+
+    private void acquire() {
+        if (!inFlightPermits.tryAcquire()) {
+            // Every free slot is taken, the request has to wait for a slot to be released
+            saturatedRequests.incrementAndGet();
+
+            boolean acquired;
+            try {
+                acquired = inFlightPermits.tryAcquire(config.getMaxWaitForConnectionMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            }
+
+            if (!acquired) {
+                rejectedRequests.incrementAndGet();
+                throw new IllegalStateException("Gremlin connection pool saturated, request rejected");
+            }
+        }
+
+        track();
+    }
+
+    private void track() {
+        submittedRequests.incrementAndGet();
+        int current = inFlightRequests.incrementAndGet();
+        peakInFlightRequests.accumulateAndGet(current, Math::max);
+    }
+
+    private void release() {
+        inFlightRequests.decrementAndGet();
+        inFlightPermits.release();
+        sendWaitingAsyncRequests();
+    }
+
+    /**
+     * Returns a snapshot of the pool configuration and of its saturation counters.
+     *
+     * @return a map containing pool settings and usage counters
+     */
+    public Map<String, Object> getPoolMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("minConnectionsPerHost", config.getMinConnectionsPerHost());
+        metrics.put("maxConnectionsPerHost", config.getMaxConnectionsPerHost());
+        metrics.put("maxInProcessPerConnection", config.getMaxInProcessPerConnection());
+        metrics.put("maxSimultaneousUsagePerConnection", config.getMaxSimultaneousUsagePerConnection());
+        metrics.put("maxInFlightRequests", config.getMaxInFlightRequests());
+        metrics.put("inFlightRequests", inFlightRequests.get());
+        metrics.put("peakInFlightRequests", peakInFlightRequests.get());
+        metrics.put("submittedRequests", submittedRequests.get());
+        metrics.put("failedRequests", failedRequests.get());
+        metrics.put("saturatedRequests", saturatedRequests.get());
+        metrics.put("rejectedRequests", rejectedRequests.get());
+        metrics.put("waitingAsyncRequests", waitingAsyncRequests.size());
+        metrics.put("timedOutRequests", timedOutRequests.get());
+        metrics.put("asyncRequestTimeoutMillis", config.getAsyncRequestTimeoutMillis());
+        metrics.put("availableHosts", cluster != null ? cluster.availableHosts().size() : 0);
+        return metrics;
+    }
+}
@@ -16,5 +16,42 @@ public class GremlinConfig {
 
     @Value("${GREMLIN_KEY}")
     private String key;
-}
 
+    // Connection pool tuning, defaults are sized for a single node serving push bursts
+    @Value("${GREMLIN_POOL_MIN_CONNECTIONS:2}")
+    private int minConnectionsPerHost;
+
+    @Value("${GREMLIN_POOL_MAX_CONNECTIONS:8}")
+    private int maxConnectionsPerHost;
+
+    @Value("${GREMLIN_POOL_MAX_IN_PROCESS_PER_CONNECTION:4}")
+    private int maxInProcessPerConnection;
+
+    @Value("${GREMLIN_POOL_MAX_SIMULTANEOUS_USAGE_PER_CONNECTION:16}")
+    private int maxSimultaneousUsagePerConnection;
+
+    @Value("${GREMLIN_POOL_MAX_IN_FLIGHT_REQUESTS:64}")
+    private int maxInFlightRequests;
+
+    @Value("${GREMLIN_POOL_MAX_WAIT_FOR_CONNECTION_MS:3000}")
+    private int maxWaitForConnectionMillis;
+
+    // Upper bound for an asynchronous request, a write not acknowledged in time is reported as failed
+    @Value("${GREMLIN_ASYNC_REQUEST_TIMEOUT_MS:10000}")
+    private long asyncRequestTimeoutMillis;
+
+    // Repository membership cache, a write invalidates the entry of the affected user and repository
+    @Value("${GREMLIN_MEMBERSHIP_CACHE_TTL_MS:60000}")
+    private long membershipCacheTtlMillis;
+
+    @Value("${GREMLIN_MEMBERSHIP_CACHE_MAX_SIZE:10000}")
+    private int membershipCacheMaxSize;
+
+    // Versions saved before the composite key existed are found by walking their branch, until the backfill
+    // has written the key on all of them. Once it has run the fallback can be disabled for good
+    @Value("${GREMLIN_VERSION_CHAIN_FALLBACK_ENABLED:true}")
+    private boolean versionChainFallbackEnabled;
+
+    @Value("${GREMLIN_VERSION_KEY_BACKFILL_BATCH:100}")
+    private int versionKeyBackfillBatch;
+}
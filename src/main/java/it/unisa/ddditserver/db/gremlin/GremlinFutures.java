@@ -0,0 +1,46 @@
+package it.unisa.ddditserver.db.gremlin;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Utility methods to wait for the futures returned by the asynchronous Gremlin repositories.
+ *
+ * The futures are already bounded by the request timeout of {@link GremlinClient},
+ * so waiting for them never parks the calling thread longer than that.
+ *
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public final class GremlinFutures {
+
+    private GremlinFutures() {
+    }
+
+    /**
+     * Waits for the completion of a future and rethrows its failure without the completion wrapper,
+     * so that the domain exceptions raised by the repositories reach the services unchanged.
+     *
+     * @param future the future to wait for
+     * @return the value of the future
+     * @param <T> the type of the value of the future
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+
+            if (cause instanceof TimeoutException) {
+                throw new IllegalStateException("Gremlin request not acknowledged in time", cause);
+            }
+
+            throw new IllegalStateException("Gremlin request failed", cause);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package it.unisa.ddditserver.db.gremlin;
+
+import it.unisa.ddditserver.subsystems.versioning.dto.PageDTO;
+import it.unisa.ddditserver.subsystems.versioning.exceptions.InvalidContinuationTokenException;
+import org.apache.tinkerpop.gremlin.driver.Result;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Helper for the cursor based listings of the Gremlin repositories.
+ *
+ * Listings are sorted by a name that is unique in the listed scope, so a page starts right after
+ * the last name of the previous page. The continuation token is the encoded last name, so that
+ * a page costs the same query whatever its position in the listing.
+ *
+ * @version 1.1
+ * @since 2026-10-18
+ */
+public final class GremlinPage {
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private GremlinPage() {
+    }
+
+    /**
+     * Bounds the requested page size.
+     *
+     * @param pageSize the requested page size, the default page size if not positive
+     * @return the page size to use
+     */
+    public static int pageSize(int pageSize) {
+        if (pageSize <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(pageSize, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Builds the steps that select a page of names, to be appended to a traversal of the listed vertices.
+     * The bindings of the steps are added to the given parameters.
+     *
+     * @param property the name property the listing is sorted by
+     * @param continuationToken the token returned by the previous page, null for the first page
+     * @param pageSize the bounded page size
+     * @param parameters the bindings of the query
+     * @return the steps that filter, sort and limit the names
+     */
+    public static String pageSteps(String property, String continuationToken, int pageSize, Map<String, Object> parameters) {
+        // One more name than the page size tells whether there is a next page
+        String steps = afterSteps(property, continuationToken, parameters) +
+                ".values('" + property + "')" +
+                ".order()" +
+                ".limit(pageLimit)";
+        parameters.put("pageLimit", (long) pageSize + 1);
+
+        return steps;
+    }
+
+    /**
+     * Builds the steps that select a page of vertices sorted by name, to be appended to a traversal of the listed vertices
+     * when the listing projects more than the name of each vertex. The bindings of the steps are added to the given parameters.
+     *
+     * @param property the name property the listing is sorted by
+     * @param continuationToken the token returned by the previous page, null for the first page
+     * @param pageSize the bounded page size
+     * @param parameters the bindings of the query
+     * @return the steps that filter, sort and limit the vertices
+     */
+    public static String vertexPageSteps(String property, String continuationToken, int pageSize, Map<String, Object> parameters) {
+        // One more vertex than the page size tells whether there is a next page
+        String steps = afterSteps(property, continuationToken, parameters) +
+                ".order().by('" + property + "')" +
+                ".limit(pageLimit)";
+        parameters.put("pageLimit", (long) pageSize + 1);
+
+        return steps;
+    }
+
+    private static String afterSteps(String property, String continuationToken, Map<String, Object> parameters) {
+        if (continuationToken == null || continuationToken.isEmpty()) {
+            return "";
+        }
+
+        parameters.put("afterName", decode(continuationToken));
+        return ".has('" + property + "', gt(afterName))";
+    }
+
+    /**
+     * Maps the names returned by the page steps to a page.
+     *
+     * @param results the names returned by the query
+     * @param pageSize the bounded page size
+     * @param mapper the function that builds an item from its name
+     * @return the page containing at most page size items
+     * @param <T> the type of the items of the page
+     */
+    public static <T> PageDTO<T> toPage(List<Result> results, int pageSize, Function<String, T> mapper) {
+        List<T> items = new ArrayList<>();
+        String lastName = null;
+
+        for (Result result : results) {
+            if (items.size() == pageSize) {
+                return new PageDTO<>(items, encode(lastName));
+            }
+            lastName = result.getString();
+            items.add(mapper.apply(lastName));
+        }
+
+        return new PageDTO<>(items, null);
+    }
+
+    /**
+     * Cuts the items read with the vertex page steps to a page.
+     *
+     * @param items the items built from the vertices returned by the query, in the order of the query
+     * @param pageSize the bounded page size
+     * @param nameOf the function that returns the name an item is sorted by
+     * @return the page containing at most page size items
+     * @param <T> the type of the items of the page
+     */
+    public static <T> PageDTO<T> toItemPage(List<T> items, int pageSize, Function<T, String> nameOf) {
+        if (items.size() <= pageSize) {
+            return new PageDTO<>(items, null);
+        }
+
+        List<T> page = new ArrayList<>(items.subList(0, pageSize));
+        return new PageDTO<>(page, encode(nameOf.apply(page.get(pageSize - 1))));
+    }
+
+    private static String encode(String lastName) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(lastName.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String continuationToken) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(continuationToken), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidContinuationTokenException("Invalid continuation token, use the token returned by the previous page");
+        }
+    }
+}
@@ -2,52 +2,18 @@ package it.unisa.ddditserver.db.gremlin.auth;
 
 import it.unisa.ddditserver.subsystems.auth.dto.UserDTO;
 import it.unisa.ddditserver.subsystems.auth.exceptions.AuthException;
-import it.unisa.ddditserver.db.gremlin.GremlinConfig;
-import jakarta.annotation.PostConstruct;
-import org.apache.tinkerpop.gremlin.driver.Client;
-import org.apache.tinkerpop.gremlin.driver.Cluster;
+import it.unisa.ddditserver.db.gremlin.GremlinClient;
 import org.apache.tinkerpop.gremlin.driver.Result;
-import org.apache.tinkerpop.gremlin.driver.ser.Serializers;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Map;
 
 @Repository
 public class GremlinAuthRepositoryImpl implements GremlinAuthRepository {
-    private final GremlinConfig config;
-    private Client client;
+    private final GremlinClient client;
 
-    public GremlinAuthRepositoryImpl(GremlinConfig config) {
-        this.config = config;
-    }
-
-    @PostConstruct
-    public void init() {
-        String endpoint = config.getEndpoint();
-        // Remove protocol prefix (wss://)
-        if (endpoint.startsWith("wss://")) {
-            endpoint = endpoint.substring(6);
-        }
-        // Remove port and path after colon
-        int colonIndex = endpoint.indexOf(':');
-        if (colonIndex != -1) {
-            endpoint = endpoint.substring(0, colonIndex);
-        }
-        // Remove trailing slash if present
-        if (endpoint.endsWith("/")) {
-            endpoint = endpoint.substring(0, endpoint.length() - 1);
-        }
-
-        // Build cluster connection to Gremlin server
-        Cluster cluster = Cluster.build()
-                .addContactPoint(endpoint)
-                .port(443)
-                .credentials(config.getUsername(), config.getKey())
-                .enableSsl(true)
-                .serializer(Serializers.GRAPHSON_V2D0)
-                .create();
-
-        this.client = cluster.connect();
+    public GremlinAuthRepositoryImpl(GremlinClient client) {
+        this.client = client;
     }
 
     @Override
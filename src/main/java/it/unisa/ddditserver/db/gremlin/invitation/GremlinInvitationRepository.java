@@ -4,24 +4,27 @@ import it.unisa.ddditserver.subsystems.auth.dto.UserDTO;
 import it.unisa.ddditserver.subsystems.invitation.dto.InvitationDTO;
 import it.unisa.ddditserver.subsystems.versioning.dto.RepositoryDTO;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Repository interface for managing invitation-related operations
  * in a Gremlin-compatible graph database.
  *
  * @author Angelo Antonio Prisco
- * @version 1.1
+ * @version 1.3
  * @since 2025-08-13
  */
 public interface GremlinInvitationRepository {
     /**
      * Saves a new invitation in the graph database creating an edge between the two users with the repository name used as property of the edge.
+     * The returned future is completed once the graph database has acknowledged the write.
      *
      * @param fromUserDTO the user who want to send the invitation
      * @param toUserDTO the user who will receive the invitation
      * @param repositoryDTO the repository specified in the invitation
+     * @return a future completed when the invitation is saved, or exceptionally with an InvitationException
      */
-    void saveInvitation (UserDTO fromUserDTO, UserDTO toUserDTO, RepositoryDTO repositoryDTO);
+    CompletableFuture<Void> saveInvitationAsync(UserDTO fromUserDTO, UserDTO toUserDTO, RepositoryDTO repositoryDTO);
 
     /**
      * Checks if the user already sent an invitation to another one for the same repository.
@@ -35,12 +38,14 @@ public interface GremlinInvitationRepository {
 
     /**
      * Let a user accept an invitation for a repository from another user.
+     * The returned future is completed once the graph database has acknowledged the write.
      *
      * @param fromUserDTO the user who sent the invitation
      * @param toUserDTO the user who received the invitation
      * @param repositoryDTO the repository specified in the invitation
+     * @return a future completed when the invitation is accepted, or exceptionally with an InvitationException
      */
-    void acceptInvitation(UserDTO fromUserDTO, UserDTO toUserDTO, RepositoryDTO repositoryDTO);
+    CompletableFuture<Void> acceptInvitationAsync(UserDTO fromUserDTO, UserDTO toUserDTO, RepositoryDTO repositoryDTO);
 
     /**
      * Checks if a user accepted an invitation for a repository from another user.
@@ -1,63 +1,33 @@
 package it.unisa.ddditserver.db.gremlin.invitation;
 
-import it.unisa.ddditserver.db.gremlin.GremlinConfig;
+import it.unisa.ddditserver.db.gremlin.GremlinClient;
+import it.unisa.ddditserver.db.gremlin.versioning.repo.RepositoryMembershipCache;
 import it.unisa.ddditserver.subsystems.auth.dto.UserDTO;
 import it.unisa.ddditserver.subsystems.invitation.dto.InvitationDTO;
 import it.unisa.ddditserver.subsystems.invitation.exceptions.InvitationException;
 import it.unisa.ddditserver.subsystems.versioning.dto.RepositoryDTO;
 import it.unisa.ddditserver.subsystems.versioning.exceptions.repo.RepositoryException;
-import jakarta.annotation.PostConstruct;
-import org.apache.tinkerpop.gremlin.driver.Client;
-import org.apache.tinkerpop.gremlin.driver.Cluster;
 import org.apache.tinkerpop.gremlin.driver.Result;
-import org.apache.tinkerpop.gremlin.driver.ser.Serializers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Repository
 public class GremlinInvitationRepositoryImpl implements GremlinInvitationRepository {
-    private final GremlinConfig config;
-    private Client client;
+    private final GremlinClient client;
+    private final RepositoryMembershipCache membershipCache;
 
     @Autowired
-    public GremlinInvitationRepositoryImpl(GremlinConfig config) {
-        this.config = config;
-    }
-
-    @PostConstruct
-    public void init() {
-        String endpoint = config.getEndpoint();
-        // Remove protocol prefix (wss://)
-        if (endpoint.startsWith("wss://")) {
-            endpoint = endpoint.substring(6);
-        }
-        // Remove port and path after colon
-        int colonIndex = endpoint.indexOf(':');
-        if (colonIndex != -1) {
-            endpoint = endpoint.substring(0, colonIndex);
-        }
-        // Remove trailing slash if present
-        if (endpoint.endsWith("/")) {
-            endpoint = endpoint.substring(0, endpoint.length() - 1);
-        }
-
-        // Build cluster connection to Gremlin server
-        Cluster cluster = Cluster.build()
-                .addContactPoint(endpoint)
-                .port(443)
-                .credentials(config.getUsername(), config.getKey())
-                .enableSsl(true)
-                .serializer(Serializers.GRAPHSON_V2D0)
-                .create();
-
-        this.client = cluster.connect();
+    public GremlinInvitationRepositoryImpl(GremlinClient client, RepositoryMembershipCache membershipCache) {
+        this.client = client;
+        this.membershipCache = membershipCache;
     }
 
     @Override
-    public void saveInvitation(UserDTO fromUserDTO, UserDTO toUserDTO, RepositoryDTO repositoryDTO) {
+    public CompletableFuture<Void> saveInvitationAsync(UserDTO fromUserDTO, UserDTO toUserDTO, RepositoryDTO repositoryDTO) {
         String fromUsername = fromUserDTO.getUsername();
         String toUsername = toUserDTO.getUsername();
         String repositoryName = repositoryDTO.getRepositoryName();
@@ -69,15 +39,17 @@ public class GremlinInvitationRepositoryImpl implements GremlinInvitationReposit
                 ".property('status', 'pending')" +
                 ".to(g.V().has('user', 'username', toUsername))";
 
-        try {
-            client.submit(query, Map.of(
-                    "fromUsername", fromUsername,
-                    "toUsername", toUsername,
-                    "repositoryName", repositoryName));
-        } catch (Exception e) {
-            // If it is necessary use a RuntimeException for more detailed debug
-            throw new InvitationException("Error saving invitation to Gremlin DB");
-        }
+        return client.submitAsync(query, Map.of(
+                        "fromUsername", fromUsername,
+                        "toUsername", toUsername,
+                        "repositoryName", repositoryName))
+                .handle((results, throwable) -> {
+                    if (throwable != null) {
+                        // If it is necessary use a RuntimeException for more detailed debug
+                        throw new InvitationException("Error saving invitation to Gremlin DB");
+                    }
+                    return null;
+                });
     }
 
     @Override
@@ -116,32 +88,35 @@ public class GremlinInvitationRepositoryImpl implements GremlinInvitationReposit
     }
 
     @Override
-    public void acceptInvitation(UserDTO fromUserDTO, UserDTO toUserDTO, RepositoryDTO repositoryDTO) {
+    public CompletableFuture<Void> acceptInvitationAsync(UserDTO fromUserDTO, UserDTO toUserDTO, RepositoryDTO repositoryDTO) {
         String fromUsername = fromUserDTO.getUsername();
         String toUsername = toUserDTO.getUsername();
         String repositoryName = repositoryDTO.getRepositoryName();
 
-        try {
-            String query = "g.V()" +
-                    ".hasLabel('user')" +
-                    ".has('username', fromUsername)" +
-                    ".outE('HAS_INVITED')" +
-                    ".as('e')" +
-                    ".inV().has('username', toUsername)" +
-                    ".select('e')" +
-                    ".has('repositoryName', repositoryName)" +
-                    ".property('status', 'accepted')";
-
-            client.submit(query, Map.of(
-                    "fromUsername", fromUsername,
-                    "toUsername", toUsername,
-                    "repositoryName", repositoryName));
-        } catch (InvitationException e) {
-            throw e;
-        } catch (Exception e) {
-            // If it is necessary use a RuntimeException for more detailed debug
-            throw new InvitationException("Error updating invitation status in Gremlin DB");
-        }
+        String query = "g.V()" +
+                ".hasLabel('user')" +
+                ".has('username', fromUsername)" +
+                ".outE('HAS_INVITED')" +
+                ".as('e')" +
+                ".inV().has('username', toUsername)" +
+                ".select('e')" +
+                ".has('repositoryName', repositoryName)" +
+                ".property('status', 'accepted')";
+
+        // The invited user is going to become a contributor of the repository
+        membershipCache.invalidate(toUsername, repositoryName);
+
+        return client.submitAsync(query, Map.of(
+                        "fromUsername", fromUsername,
+                        "toUsername", toUsername,
+                        "repositoryName", repositoryName))
+                .handle((results, throwable) -> {
+                    if (throwable != null) {
+                        // If it is necessary use a RuntimeException for more detailed debug
+                        throw new InvitationException("Error updating invitation status in Gremlin DB");
+                    }
+                    return null;
+                });
     }
 
     @Override
@@ -1,24 +1,27 @@
 package it.unisa.ddditserver.db.gremlin.versioning.branch;
 
 import it.unisa.ddditserver.subsystems.versioning.dto.BranchDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.PageDTO;
 import it.unisa.ddditserver.subsystems.versioning.dto.ResourceDTO;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Repository interface for managing branch-related operations
  * in a Gremlin-compatible graph database.
  *
  * @author Angelo Antonio Prisco
- * @version 1.0
+ * @version 1.3
  * @since 2025-08-13
  */
 public interface GremlinBranchRepository {
     /**
      * Saves a new branch vertex in the graph database.
+     * The returned future is completed once the graph database has acknowledged the write.
      *
      * @param branchDTO the BranchDTO containing branch information
+     * @return a future completed when the branch is saved, or exceptionally with a BranchException
      */
-    void saveBranch(BranchDTO branchDTO);
+    CompletableFuture<Void> saveBranchAsync(BranchDTO branchDTO);
 
     /**
      * Checks whether a branch exists in the database.
@@ -29,10 +32,12 @@ public interface GremlinBranchRepository {
     boolean existsByResource(BranchDTO branchDTO);
 
     /**
-     * Finds all branches for a specified resource.
+     * Finds a page of the branches of a specified resource, ordered by name.
      *
      * @param resourceDTO the resource to search for in a specific repository
-     * @return a list of {@link BranchDTO} representing branches of the resource
+     * @param continuationToken the token returned with the previous page, or null for the first page
+     * @param pageSize the maximum number of items of the page, bounded by the server
+     * @return a {@link PageDTO} of {@link BranchDTO} representing branches of the resource
      */
-    List<BranchDTO> findBranchesByResource(ResourceDTO resourceDTO);
+    PageDTO<BranchDTO> findBranchesByResource(ResourceDTO resourceDTO, String continuationToken, int pageSize);
 }
@@ -1,14 +1,17 @@
 package it.unisa.ddditserver.db.gremlin.versioning.repo;
 import it.unisa.ddditserver.subsystems.auth.dto.UserDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.PageDTO;
 import it.unisa.ddditserver.subsystems.versioning.dto.RepositoryDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.RepositoryRole;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Repository interface for managing repository-related operations
  * in a Gremlin-compatible graph database.
  *
  * @author Angelo Antonio Prisco
- * @version 1.1
+ * @version 1.5
  * @since 2025-08-13
  */
 public interface GremlinRepositoryRepository {
@@ -16,11 +19,13 @@ public interface GremlinRepositoryRepository {
     /**
      * Creates a new repository vertex in the graph database and associates it
      * with an existing user as the owner.
+     * The returned future is completed once the graph database has acknowledged the write.
      *
      * @param repositoryDTO the RepositoryDTO containing repository information
      * @param userDTO the UserDTO containing user who will own the repository
+     * @return a future completed when the repository is saved, or exceptionally with a RepositoryException
      */
-    void saveRepository(RepositoryDTO repositoryDTO, UserDTO userDTO);
+    CompletableFuture<Void> saveRepositoryAsync(RepositoryDTO repositoryDTO, UserDTO userDTO);
 
     /**
      * Checks whether a repository exists in the database.
@@ -56,27 +61,44 @@ public interface GremlinRepositoryRepository {
      */
     boolean isOwner(RepositoryDTO repositoryDTO, UserDTO userDTO);
 
+    /**
+     * Finds the role of the given user in the specified repository with a single traversal,
+     * the owner relationship takes precedence over the contributor one.
+     *
+     * @param repositoryDTO the repository to search for
+     * @param userDTO the user to verify
+     * @return the {@link RepositoryRole} of the user, {@code NONE} if the user is neither
+     *         the owner nor a contributor or if the user does not exist
+     */
+    RepositoryRole findUserRole(RepositoryDTO repositoryDTO, UserDTO userDTO);
+
     /**
      * Adds an existing user as a contributor to an existing repository creating an edge between the two nodes.
+     * The returned future is completed once the graph database has acknowledged the write.
      *
      * @param repositoryDTO the repository to update
      * @param userDTO the user to add as a contributor
+     * @return a future completed when the contributor is added, or exceptionally with a RepositoryException
      */
-    void addContributor(RepositoryDTO repositoryDTO, UserDTO userDTO);
+    CompletableFuture<Void> addContributorAsync(RepositoryDTO repositoryDTO, UserDTO userDTO);
 
     /**
-     * Finds all repositories where the user is the owner.
+     * Finds a page of the repositories where the user is the owner, ordered by name.
      *
      * @param userDTO the user to search owned repositories for
-     * @return a list of {@link RepositoryDTO} representing repositories owned by the user
+     * @param continuationToken the token returned with the previous page, or null for the first page
+     * @param pageSize the maximum number of items of the page, bounded by the server
+     * @return a {@link PageDTO} of {@link RepositoryDTO} representing repositories owned by the user
      */
-    List<RepositoryDTO> findOwnedRepositoriesByUser(UserDTO userDTO);
+    PageDTO<RepositoryDTO> findOwnedRepositoriesByUser(UserDTO userDTO, String continuationToken, int pageSize);
 
     /**
-     * Finds all repositories where the user is a contributor.
+     * Finds a page of the repositories where the user is a contributor, ordered by name.
      *
      * @param userDTO the user to search contributed repositories for
-     * @return a list of {@link RepositoryDTO} representing repositories the user contributes to
+     * @param continuationToken the token returned with the previous page, or null for the first page
+     * @param pageSize the maximum number of items of the page, bounded by the server
+     * @return a {@link PageDTO} of {@link RepositoryDTO} representing repositories the user contributes to
      */
-    List<RepositoryDTO> findContributedRepositoriesByUser(UserDTO userDTO);
+    PageDTO<RepositoryDTO> findContributedRepositoriesByUser(UserDTO userDTO, String continuationToken, int pageSize);
 }
\ No newline at end of file
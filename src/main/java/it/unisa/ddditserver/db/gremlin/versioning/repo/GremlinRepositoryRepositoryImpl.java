@@ -1,62 +1,42 @@
 package it.unisa.ddditserver.db.gremlin.versioning.repo;
 
 import it.unisa.ddditserver.subsystems.auth.dto.UserDTO;
-import it.unisa.ddditserver.db.gremlin.GremlinConfig;
+import it.unisa.ddditserver.db.gremlin.GremlinClient;
+import it.unisa.ddditserver.db.gremlin.GremlinPage;
+import it.unisa.ddditserver.subsystems.versioning.dto.PageDTO;
 import it.unisa.ddditserver.subsystems.versioning.dto.RepositoryDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.RepositoryRole;
 import it.unisa.ddditserver.subsystems.versioning.exceptions.repo.RepositoryException;
 import it.unisa.ddditserver.subsystems.versioning.exceptions.version.VersionException;
-import jakarta.annotation.PostConstruct;
-import org.apache.tinkerpop.gremlin.driver.Client;
-import org.apache.tinkerpop.gremlin.driver.Cluster;
 import org.apache.tinkerpop.gremlin.driver.Result;
-import org.apache.tinkerpop.gremlin.driver.ser.Serializers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Repository
 public class GremlinRepositoryRepositoryImpl implements GremlinRepositoryRepository {
-    private final GremlinConfig config;
-    private Client client;
+    private final GremlinClient client;
+    private final RepositoryMembershipCache membershipCache;
 
     @Autowired
-    public GremlinRepositoryRepositoryImpl(GremlinConfig config) {
-        this.config = config;
+    public GremlinRepositoryRepositoryImpl(GremlinClient client, RepositoryMembershipCache membershipCache) {
+        this.client = client;
+        this.membershipCache = membershipCache;
     }
 
-    @PostConstruct
-    public void init() {
-        String endpoint = config.getEndpoint();
-        // Remove protocol prefix (wss://)
-        if (endpoint.startsWith("wss://")) {
-            endpoint = endpoint.substring(6);
-        }
-        // Remove port and path after colon
-        int colonIndex = endpoint.indexOf(':');
-        if (colonIndex != -1) {
-            endpoint = endpoint.substring(0, colonIndex);
-        }
-        // Remove trailing slash if present
-        if (endpoint.endsWith("/")) {
-            endpoint = endpoint.substring(0, endpoint.length() - 1);
-        }
-
-        // Build cluster connection to Gremlin server
-        Cluster cluster = Cluster.build()
-                .addContactPoint(endpoint)
-                .port(443)
-                .credentials(config.getUsername(), config.getKey())
-                .enableSsl(true)
-                .serializer(Serializers.GRAPHSON_V2D0)
-                .create();
+    private <T> CompletableFuture<T> invalidateMembership(CompletableFuture<T> write, String username, String repositoryName) {
+        membershipCache.invalidate(username, repositoryName);
 
-        this.client = cluster.connect();
+        // The write is still running on the server, a lookup completed meanwhile could cache the old role
+        return write.whenComplete((ignored, throwable) -> membershipCache.invalidate(username, repositoryName));
     }
 
     @Override
-    public void saveRepository(RepositoryDTO repositoryDTO, UserDTO userDTO) {
+    public CompletableFuture<Void> saveRepositoryAsync(RepositoryDTO repositoryDTO, UserDTO userDTO) {
         String username = userDTO.getUsername();
         String repositoryName = repositoryDTO.getRepositoryName();
 
@@ -72,14 +52,17 @@ public class GremlinRepositoryRepositoryImpl implements GremlinRepositoryReposit
                 ".from('u')" +
                 ".to('r')";
 
-        try {
-            client.submit(query, Map.of(
-                    "username", username,
-                    "repositoryName", repositoryName));
-        } catch (Exception e) {
-            // If it is necessary use a RuntimeException for more detailed debug
-            throw new RepositoryException("Error during repository creation in Gremlin DB");
-        }
+        CompletableFuture<List<Result>> write = client.submitAsync(query, Map.of(
+                "username", username,
+                "repositoryName", repositoryName));
+
+        return invalidateMembership(write, username, repositoryName).handle((results, throwable) -> {
+            if (throwable != null) {
+                // If it is necessary use a RuntimeException for more detailed debug
+                throw new RepositoryException("Error during repository creation in Gremlin DB");
+            }
+            return null;
+        });
     }
 
     @Override
@@ -203,7 +186,47 @@ public class GremlinRepositoryRepositoryImpl implements GremlinRepositoryReposit
     }
 
     @Override
-    public void addContributor(RepositoryDTO repositoryDTO, UserDTO userDTO) {
+    public RepositoryRole findUserRole(RepositoryDTO repositoryDTO, UserDTO userDTO) {
+        String username = userDTO.getUsername();
+        String repositoryName = repositoryDTO.getRepositoryName();
+
+        // Owner and contributor edges are checked in the same request, the first matching branch wins
+        String query = "g.V()" +
+                ".hasLabel('user')" +
+                ".has('username', username)" +
+                ".coalesce(" +
+                    "__.out('OWNS')" +
+                    ".hasLabel('repository')" +
+                    ".has('repositoryName', repositoryName)" +
+                    ".constant('OWNER')," +
+                    "__.out('CONTRIBUTES_TO')" +
+                    ".hasLabel('repository')" +
+                    ".has('repositoryName', repositoryName)" +
+                    ".constant('CONTRIBUTOR')," +
+                    "__.constant('NONE')" +
+                ")";
+
+        try {
+            return membershipCache.get(username, repositoryName, () ->
+                    client.submitAsync(query, Map.of("username", username, "repositoryName", repositoryName))
+                            .thenApply(results -> {
+                                if (results.size() > 1) {
+                                    throw new RepositoryException("More than one user with the same username found in Gremlin DB");
+                                }
+
+                                // No result means that the user does not exist
+                                return results.isEmpty() ? RepositoryRole.NONE : RepositoryRole.valueOf(results.get(0).getString());
+                            }));
+        } catch (RepositoryException e) {
+            throw e;
+        } catch (Exception e) {
+            // If it is necessary use a RuntimeException for more detailed debug
+            throw new RepositoryException("Error checking user role in Gremlin DB");
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> addContributorAsync(RepositoryDTO repositoryDTO, UserDTO userDTO) {
         String username = userDTO.getUsername();
         String repositoryName = repositoryDTO.getRepositoryName();
 
@@ -226,37 +249,34 @@ public class GremlinRepositoryRepositoryImpl implements GremlinRepositoryReposit
                     ".to('r')" +
                 ")";
 
-        try {
-            client.submit(query, Map.of("username", username, "repositoryName", repositoryName));
-        } catch (RepositoryException e) {
-            throw e;
-        } catch (Exception e) {
-            // If it is necessary use a RuntimeException for more detailed debug
-            throw new RepositoryException("Error adding contributor in Gremlin DB");
-        }
+        CompletableFuture<List<Result>> write = client.submitAsync(query, Map.of("username", username, "repositoryName", repositoryName));
+
+        return invalidateMembership(write, username, repositoryName).handle((results, throwable) -> {
+            if (throwable != null) {
+                // If it is necessary use a RuntimeException for more detailed debug
+                throw new RepositoryException("Error adding contributor in Gremlin DB");
+            }
+            return null;
+        });
     }
 
     @Override
-    public List<RepositoryDTO> findOwnedRepositoriesByUser(UserDTO userDTO) {
+    public PageDTO<RepositoryDTO> findOwnedRepositoriesByUser(UserDTO userDTO, String continuationToken, int pageSize) {
         String username = userDTO.getUsername();
+        int boundedPageSize = GremlinPage.pageSize(pageSize);
+
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("username", username);
 
         String query = "g.V()" +
                 ".hasLabel('user')" +
                 ".has('username', username)" +
                 ".out('OWNS')" +
-                ".valueMap()";
+                GremlinPage.pageSteps("repositoryName", continuationToken, boundedPageSize, parameters);
         try {
-            List<Result> results = client.submit(query, Map.of("username", username)).all().get();
-            List<RepositoryDTO> repositories = new ArrayList<>();
+            List<Result> results = client.submit(query, parameters).all().get();
 
-            for (Result result : results) {
-                @SuppressWarnings("unchecked")
-                Map<String, List<Object>> props = (Map<String, List<Object>>) result.getObject();
-                String repositoryName = props.get("repositoryName").get(0).toString();
-                repositories.add(new RepositoryDTO(repositoryName));
-            }
-
-            return repositories;
+            return GremlinPage.toPage(results, boundedPageSize, RepositoryDTO::new);
         } catch (RepositoryException e) {
             throw e;
         } catch (Exception e) {
@@ -266,26 +286,22 @@ public class GremlinRepositoryRepositoryImpl implements GremlinRepositoryReposit
     }
 
     @Override
-    public List<RepositoryDTO> findContributedRepositoriesByUser(UserDTO userDTO) {
+    public PageDTO<RepositoryDTO> findContributedRepositoriesByUser(UserDTO userDTO, String continuationToken, int pageSize) {
         String username = userDTO.getUsername();
+        int boundedPageSize = GremlinPage.pageSize(pageSize);
+
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("username", username);
 
         String query = "g.V()" +
                 ".hasLabel('user')" +
                 ".has('username', username)" +
                 ".out('CONTRIBUTES_TO')" +
-                ".valueMap()";
+                GremlinPage.pageSteps("repositoryName", continuationToken, boundedPageSize, parameters);
         try {
-            List<Result> results = client.submit(query, Map.of("username", username)).all().get();
-            List<RepositoryDTO> repositories = new ArrayList<>();
-
-            for (Result result : results) {
-                @SuppressWarnings("unchecked")
-                Map<String, List<Object>> props = (Map<String, List<Object>>) result.getObject();
-                String repositoryName = props.get("repositoryName").get(0).toString();
-                repositories.add(new RepositoryDTO(repositoryName));
-            }
+            List<Result> results = client.submit(query, parameters).all().get();
 
-            return repositories;
+            return GremlinPage.toPage(results, boundedPageSize, RepositoryDTO::new);
         } catch (RepositoryException e) {
             throw e;
         } catch (Exception e) {
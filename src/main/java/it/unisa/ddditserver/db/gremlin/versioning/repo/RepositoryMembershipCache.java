@@ -0,0 +1,98 @@
+package it.unisa.ddditserver.db.gremlin.versioning.repo;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import it.unisa.ddditserver.db.gremlin.GremlinConfig;
+import it.unisa.ddditserver.subsystems.versioning.dto.RepositoryRole;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-memory cache of the role of a user in a repository, keyed by username and repository name.
+ *
+ * Entries expire after a configured time to live and the number of entries is bounded.
+ * The cache holds the lookup in flight of every user and repository, every membership write
+ * invalidates the entry of the affected user and repository together with its lookup,
+ * so a lookup that started before a write can't bring back the role read before the write.
+ *
+ * @version 1.1
+ * @since 2026-10-18
+ */
+@Component
+public class RepositoryMembershipCache {
+    private final GremlinConfig config;
+    private final AsyncCache<MembershipKey, RepositoryRole> roles;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private record MembershipKey(String username, String repositoryName) {}
+
+    @Autowired
+    public RepositoryMembershipCache(GremlinConfig config) {
+        this.config = config;
+        this.roles = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(Math.max(0, config.getMembershipCacheTtlMillis())))
+                .maximumSize(Math.max(0, config.getMembershipCacheMaxSize()))
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Returns the cached role of the user in the repository, looking it up in the graph database if it is not cached.
+     * Concurrent lookups of the same user and repository share a single request.
+     *
+     * @param username the username of the user
+     * @param repositoryName the name of the repository
+     * @param lookup the lookup of the role in the graph database
+     * @return the {@link RepositoryRole} read from the cache or from the graph database
+     */
+    public RepositoryRole get(String username, String repositoryName, Supplier<CompletableFuture<RepositoryRole>> lookup) {
+        try {
+            return roles.get(new MembershipKey(username, repositoryName), (ignored, executor) -> lookup.get()).join();
+        } catch (CompletionException e) {
+            // A failed lookup is dropped by the cache, the error of the lookup is the one reported
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Drops the cached role of the user in the repository, or its lookup in flight, after a membership write.
+     *
+     * @param username the username of the user
+     * @param repositoryName the name of the repository
+     */
+    public void invalidate(String username, String repositoryName) {
+        roles.synchronous().invalidate(new MembershipKey(username, repositoryName));
+        invalidations.incrementAndGet();
+    }
+
+    /**
+     * Returns a snapshot of the cache configuration and of its hit and miss counters.
+     *
+     * @return a map containing cache settings and usage counters
+     */
+    public Map<String, Object> getCacheMetrics() {
+        CacheStats stats = roles.synchronous().stats();
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("ttlMillis", config.getMembershipCacheTtlMillis());
+        metrics.put("maxSize", config.getMembershipCacheMaxSize());
+        metrics.put("size", roles.synchronous().estimatedSize());
+        metrics.put("hits", stats.hitCount());
+        metrics.put("misses", stats.missCount());
+        metrics.put("hitRatio", stats.requestCount() == 0 ? 0.0 : stats.hitRate());
+        metrics.put("evictions", stats.evictionCount());
+        metrics.put("invalidations", invalidations.get());
+        return metrics;
+    }
+}
@@ -1,24 +1,29 @@
 package it.unisa.ddditserver.db.gremlin.versioning.resource;
 
+import it.unisa.ddditserver.subsystems.versioning.dto.PageDTO;
 import it.unisa.ddditserver.subsystems.versioning.dto.RepositoryDTO;
 import it.unisa.ddditserver.subsystems.versioning.dto.ResourceDTO;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Repository interface for managing resource-related operations
  * in a Gremlin-compatible graph database.
  *
  * @author Angelo Antonio Prisco
- * @version 1.0
+ * @version 1.5
  * @since 2025-08-13
  */
 public interface GremlinResourceRepository {
     /**
      * Saves a new resource vertex in the graph database.
+     * The returned future is completed once the graph database has acknowledged the write.
      *
      * @param resourceDTO the ResourceDTO containing resource information
+     * @return a future completed when the resource is saved, or exceptionally with a ResourceException
      */
-    void saveResource(ResourceDTO resourceDTO);
+    CompletableFuture<Void> saveResourceAsync(ResourceDTO resourceDTO);
 
     /**
      * Checks whether a resource exists in the database.
@@ -29,10 +34,23 @@ public interface GremlinResourceRepository {
     boolean existsByRepository(ResourceDTO resourceDTO);
 
     /**
-     * Finds all resources in the specified repository.
+     * Finds a page of the resources in the specified repository, ordered by name.
      *
      * @param repositoryDTO the repository to search for
-     * @return a list of {@link ResourceDTO} representing resources contained in the repository
+     * @param continuationToken the token returned with the previous page, or null for the first page
+     * @param pageSize the maximum number of items of the page, bounded by the server
+     * @return a {@link PageDTO} of {@link ResourceDTO} representing resources contained in the repository
      */
-    List<ResourceDTO> findResourcesByRepository(RepositoryDTO repositoryDTO);
+    PageDTO<ResourceDTO> findResourcesByRepository(RepositoryDTO repositoryDTO, String continuationToken, int pageSize);
+
+    /**
+     * Retrieves a page of the version tree of the specified resource with a single traversal.
+     * Branches are sorted by name and paged with a continuation token, like the other listings.
+     *
+     * @param resourceDTO the resource to search for
+     * @param continuationToken the token returned with the previous page, or null for the first page
+     * @param pageSize the maximum number of branches of the page, the default page size if not positive
+     * @return a {@link PageDTO} of branch names, each with the names of its versions ordered from the first to the last version
+     */
+    PageDTO<Map.Entry<String, List<String>>> findVersionTreeByResource(ResourceDTO resourceDTO, String continuationToken, int pageSize);
 }
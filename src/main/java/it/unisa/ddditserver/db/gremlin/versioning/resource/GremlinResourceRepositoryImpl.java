@@ -1,82 +1,54 @@
 package it.unisa.ddditserver.db.gremlin.versioning.resource;
 
-import it.unisa.ddditserver.db.gremlin.GremlinConfig;
+import it.unisa.ddditserver.db.gremlin.GremlinClient;
+import it.unisa.ddditserver.db.gremlin.GremlinPage;
+import it.unisa.ddditserver.subsystems.versioning.dto.PageDTO;
 import it.unisa.ddditserver.subsystems.versioning.dto.RepositoryDTO;
 import it.unisa.ddditserver.subsystems.versioning.dto.ResourceDTO;
 import it.unisa.ddditserver.subsystems.versioning.exceptions.resource.ResourceException;
-import jakarta.annotation.PostConstruct;
-import org.apache.tinkerpop.gremlin.driver.Client;
-import org.apache.tinkerpop.gremlin.driver.Cluster;
 import org.apache.tinkerpop.gremlin.driver.Result;
-import org.apache.tinkerpop.gremlin.driver.ser.Serializers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Repository
 public class GremlinResourceRepositoryImpl implements GremlinResourceRepository {
-    private final GremlinConfig config;
-    private Client client;
+    private final GremlinClient client;
 
     @Autowired
-    public GremlinResourceRepositoryImpl(GremlinConfig config) {
-        this.config = config;
-    }
-
-    @PostConstruct
-    public void init() {
-        String endpoint = config.getEndpoint();
-        // Remove protocol prefix (wss://)
-        if (endpoint.startsWith("wss://")) {
-            endpoint = endpoint.substring(6);
-        }
-        // Remove port and path after colon
-        int colonIndex = endpoint.indexOf(':');
-        if (colonIndex != -1) {
-            endpoint = endpoint.substring(0, colonIndex);
-        }
-        // Remove trailing slash if present
-        if (endpoint.endsWith("/")) {
-            endpoint = endpoint.substring(0, endpoint.length() - 1);
-        }
-
-        // Build cluster connection to Gremlin server
-        Cluster cluster = Cluster.build()
-                .addContactPoint(endpoint)
-                .port(443)
-                .credentials(config.getUsername(), config.getKey())
-                .enableSsl(true)
-                .serializer(Serializers.GRAPHSON_V2D0)
-                .create();
-
-        this.client = cluster.connect();
+    public GremlinResourceRepositoryImpl(GremlinClient client) {
+        this.client = client;
     }
 
     @Override
-    public void saveResource(ResourceDTO resourceDTO) {
+    public CompletableFuture<Void> saveResourceAsync(ResourceDTO resourceDTO) {
         String repositoryName = resourceDTO.getRepositoryName();
         String resourceName = resourceDTO.getResourceName();
 
-        try {
-            String query = "g.V()" +
-                    ".hasLabel('repository')" +
-                    ".has('repositoryName', repositoryName)" +
-                    ".as('repo')" +
-                    ".addV('resource')" +
-                    ".property('repoId', repositoryName)" +
-                    ".property('resourceName', resourceName)" +
-                    ".as('res')" +
-                    ".addE('CONTAINS')" +
-                    ".from('repo')" +
-                    ".to('res')";
-
-            client.submit(query, Map.of("repositoryName", repositoryName, "resourceName", resourceName));
-        } catch (Exception e) {
-            // If it is necessary use a RuntimeException for more detailed debug
-            throw new ResourceException("Error creating resource in Gremlin DB");
-        }
+        String query = "g.V()" +
+                ".hasLabel('repository')" +
+                ".has('repositoryName', repositoryName)" +
+                ".as('repo')" +
+                ".addV('resource')" +
+                ".property('repoId', repositoryName)" +
+                ".property('resourceName', resourceName)" +
+                ".as('res')" +
+                ".addE('CONTAINS')" +
+                ".from('repo')" +
+                ".to('res')";
+
+        return client.submitAsync(query, Map.of("repositoryName", repositoryName, "resourceName", resourceName))
+                .handle((results, throwable) -> {
+                    if (throwable != null) {
+                        // If it is necessary use a RuntimeException for more detailed debug
+                        throw new ResourceException("Error creating resource in Gremlin DB");
+                    }
+                    return null;
+                });
     }
 
     @Override
@@ -111,33 +83,82 @@ public class GremlinResourceRepositoryImpl implements GremlinResourceRepository
     }
 
     @Override
-    public List<ResourceDTO> findResourcesByRepository(RepositoryDTO repositoryDTO) {
+    public PageDTO<ResourceDTO> findResourcesByRepository(RepositoryDTO repositoryDTO, String continuationToken, int pageSize) {
         String repositoryName = repositoryDTO.getRepositoryName();
+        int boundedPageSize = GremlinPage.pageSize(pageSize);
+
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("repositoryName", repositoryName);
+
+        String query = "g.V()" +
+                ".hasLabel('repository')" +
+                ".has('repositoryName', repositoryName)" +
+                ".out('CONTAINS')" +
+                ".hasLabel('resource')" +
+                GremlinPage.pageSteps("resourceName", continuationToken, boundedPageSize, parameters);
 
         try {
-            String query = "g.V()" +
-                    ".hasLabel('repository')" +
-                    ".has('repositoryName', repositoryName)" +
-                    ".out('CONTAINS')" +
-                    ".hasLabel('resource')" +
-                    ".valueMap()";
+            List<Result> results = client.submit(query, parameters).all().get();
+
+            return GremlinPage.toPage(results, boundedPageSize, resourceName -> new ResourceDTO(repositoryName, resourceName));
+        } catch (ResourceException e) {
+            throw e;
+        } catch (Exception e) {
+            // If it is necessary use a RuntimeException for more detailed debug
+            throw new ResourceException("Error finding resources by repository in Gremlin DB");
+        }
+    }
 
-            List<Result> results = client.submit(query, Map.of("repositoryName", repositoryName)).all().get();
-            List<ResourceDTO> resources = new ArrayList<>();
+    @Override
+    public PageDTO<Map.Entry<String, List<String>>> findVersionTreeByResource(ResourceDTO resourceDTO, String continuationToken, int pageSize) {
+        String repositoryName = resourceDTO.getRepositoryName();
+        String resourceName = resourceDTO.getResourceName();
+        int boundedPageSize = GremlinPage.pageSize(pageSize);
+
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("repositoryName", repositoryName);
+        parameters.put("resourceName", resourceName);
+
+        // Every branch of the page is projected with its versions, emitted in chain order from the first version
+        String query = "g.V()" +
+                ".hasLabel('repository')" +
+                ".has('repositoryName', repositoryName)" +
+                ".out('CONTAINS')" +
+                ".has('resourceName', resourceName)" +
+                ".out('HAS_BRANCH')" +
+                GremlinPage.vertexPageSteps("branchName", continuationToken, boundedPageSize, parameters) +
+                ".project('branchName', 'versionNames')" +
+                ".by('branchName')" +
+                ".by(" +
+                    "__.out('HAS_VERSION')" +
+                    ".union(identity(), repeat(out('HAS_NEXT_VERSION')).emit())" +
+                    ".values('versionName')" +
+                    ".fold()" +
+                ")";
+
+        try {
+            List<Result> results = client.submit(query, parameters).all().get();
+
+            // The project step keeps the order of the branches
+            List<Map.Entry<String, List<String>>> branches = new ArrayList<>();
 
             for (Result result : results) {
                 @SuppressWarnings("unchecked")
-                Map<String, List<Object>> props = (Map<String, List<Object>>) result.getObject();
-                String resourceName = props.get("resourceName").get(0).toString();
-                resources.add(new ResourceDTO(repositoryName, resourceName));
+                Map<String, Object> branch = (Map<String, Object>) result.getObject();
+
+                List<String> versionNames = new ArrayList<>();
+                for (Object versionName : (List<?>) branch.get("versionNames")) {
+                    versionNames.add(versionName.toString());
+                }
+                branches.add(Map.entry(branch.get("branchName").toString(), versionNames));
             }
 
-            return resources;
+            return GremlinPage.toItemPage(branches, boundedPageSize, Map.Entry::getKey);
         } catch (ResourceException e) {
             throw e;
         } catch (Exception e) {
             // If it is necessary use a RuntimeException for more detailed debug
-            throw new ResourceException("Error finding resources by repository in Gremlin DB");
+            throw new ResourceException("Error retrieving version tree in Gremlin DB");
         }
     }
 }
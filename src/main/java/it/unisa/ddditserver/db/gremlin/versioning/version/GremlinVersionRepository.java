@@ -1,22 +1,31 @@
 package it.unisa.ddditserver.db.gremlin.versioning.version;
 
-import it.unisa.ddditserver.subsystems.versioning.dto.BranchDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.VersioningPathDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.VersioningPathLevel;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.BlobFileDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.TagsStatus;
 import it.unisa.ddditserver.subsystems.versioning.dto.version.VersionDTO;
 import it.unisa.ddditserver.subsystems.versioning.service.version.NonClosingInputStreamResource;
 import org.apache.commons.lang3.tuple.Pair;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Repository interface for managing version-related operations
  * in a Gremlin-compatible graph database.
  *
  * @author Angelo Antonio Prisco
- * @version 1.0
+ * @version 1.5
  * @since 2025-08-13
  */
 public interface GremlinVersionRepository {
     /**
      * Creates a new mesh version vertex in the graph database.
+     * The BLOB URL, the size and the content type of the files are stored on the vertex,
+     * so that the files of the version can be located without reading Cosmos DB.
+     * The files are uploaded while the Cosmos DB document is written and the push is recorded in a journal,
+     * so that a failed or interrupted push is rolled back in background.
      *
      * @param versionDTO the VersionDTO containing mesh information
      * @param resourceType indicates a mesh version validation if true or a material version validation if false
@@ -31,6 +40,14 @@ public interface GremlinVersionRepository {
      */
     boolean existsByVersion(VersionDTO versionDTO);
 
+    /**
+     * Resolves a repository, resource, branch and version path with a single traversal.
+     *
+     * @param pathDTO the path to resolve, ending at its last non null name
+     * @return the first {@link VersioningPathLevel} of the path that does not exist, null if the whole path exists
+     */
+    VersioningPathLevel findFirstMissingLevel(VersioningPathDTO pathDTO);
+
     /**
      * Retrieves information about a version vertex from the graph database.
      *
@@ -40,18 +57,45 @@ public interface GremlinVersionRepository {
     VersionDTO findVersionByBranch(VersionDTO versionDTO);
 
     /**
-     * Finds all versions in the specified branch.
+     * Retrieves the mesh file content or material files content associated with a specific version node.
      *
-     * @param branchDTO the branch to search for
-     * @return a list of {@link VersionDTO} representing versions associated to the branch
+     * @param versionDTO containing the criteria to find the mesh file or the material files
+     * @return the mesh file with associated content-type data if found, the material files with associated content-type data if found, or null if not found
      */
-    List<VersionDTO> findVersionsByBranch(BranchDTO branchDTO);
+    List<Pair<NonClosingInputStreamResource, String>> getFile(VersionDTO versionDTO);
 
     /**
-     * Retrieves the mesh file content or material files content associated with a specific version node.
+     * Retrieves the properties of the mesh file or of the material files associated with a specific version node,
+     * without opening their content.
      *
      * @param versionDTO containing the criteria to find the mesh file or the material files
-     * @return the mesh file with associated content-type data if found, the material files with associated content-type data if found, or null if not found
+     * @return the list of {@link BlobFileDTO} describing the files of the version
      */
-    List<Pair<NonClosingInputStreamResource, String>> getFile(VersionDTO versionDTO);
-}
\ No newline at end of file
+    List<BlobFileDTO> findFilesByVersion(VersionDTO versionDTO);
+
+    /**
+     * Replaces the tags and the classification status stored in the metadata of a specific version.
+     *
+     * @param versionDTO containing the criteria to find the version
+     * @param tags the tags of the version
+     * @param tagsStatus the status of the tag classification
+     */
+    void updateVersionTags(VersionDTO versionDTO, List<String> tags, TagsStatus tagsStatus);
+
+    /**
+     * Retrieves the BLOB URLs of the versions identified by the given composite keys, repoName/resourceName/branchName/versionName.
+     * Only versions carrying the key are found, so the results are complete once the versionKey backfill has run.
+     *
+     * @param versionKeys the composite keys of the versions to search for
+     * @return a map from the key of each version found to its BLOB URL, empty if the BLOB URL is not stored on its vertex
+     */
+    Map<String, String> findBlobUrlsByVersionKeys(List<String> versionKeys);
+
+    /**
+     * Retrieves which of the given Cosmos DB document URLs are referenced by a version vertex.
+     *
+     * @param cosmosDocumentUrls the Cosmos DB document URLs to search for
+     * @return the set of the document URLs referenced by a version vertex
+     */
+    Set<String> findReferencedDocumentUrls(List<String> cosmosDocumentUrls);
+}
@@ -1,69 +1,171 @@
 package it.unisa.ddditserver.db.gremlin.versioning.version;
 
-import it.unisa.ddditserver.subsystems.versioning.dto.BranchDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.VersioningPathDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.VersioningPathLevel;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.BlobFileDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.PushJournalEntryDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.TagsStatus;
 import it.unisa.ddditserver.subsystems.versioning.dto.version.VersionDTO;
 import it.unisa.ddditserver.db.blobstorage.versioning.BlobStorageVersionRepository;
 import it.unisa.ddditserver.db.cosmos.versioning.CosmosVersionRepository;
-import it.unisa.ddditserver.db.gremlin.GremlinConfig;
+import it.unisa.ddditserver.db.gremlin.GremlinClient;
+import it.unisa.ddditserver.db.gremlin.GremlinFutures;
+import it.unisa.ddditserver.subsystems.versioning.exceptions.VersionControlSystemException;
 import it.unisa.ddditserver.subsystems.versioning.exceptions.version.VersionException;
 import it.unisa.ddditserver.subsystems.versioning.service.version.NonClosingInputStreamResource;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.commons.lang3.tuple.Triple;
-import org.apache.tinkerpop.gremlin.driver.Cluster;
-import org.apache.tinkerpop.gremlin.driver.Client;
 import org.apache.tinkerpop.gremlin.driver.Result;
-import org.apache.tinkerpop.gremlin.driver.ser.Serializers;
-import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
+import org.springframework.web.multipart.MultipartFile;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Repository
 public class GremlinVersionRepositoryImpl implements GremlinVersionRepository {
-    private final GremlinConfig config;
     private final CosmosVersionRepository cosmosService;
     private final BlobStorageVersionRepository blobStorageService;
-    private Client client;
+    private final GremlinClient client;
+    private final VersionPushSaga pushSaga;
+    private final VersionKeyBackfill versionKeyBackfill;
 
     @Autowired
-    public GremlinVersionRepositoryImpl(GremlinConfig config,
+    public GremlinVersionRepositoryImpl(GremlinClient client,
                                         CosmosVersionRepository cosmosService,
-                                        BlobStorageVersionRepository blobStorageService) {
-        this.config = config;
+                                        BlobStorageVersionRepository blobStorageService,
+                                        VersionPushSaga pushSaga,
+                                        VersionKeyBackfill versionKeyBackfill) {
+        this.client = client;
         this.cosmosService = cosmosService;
         this.blobStorageService = blobStorageService;
+        this.pushSaga = pushSaga;
+        this.versionKeyBackfill = versionKeyBackfill;
     }
 
-    @PostConstruct
-    public void init() {
-        String endpoint = config.getEndpoint();
-        // Remove protocol prefix (wss://)
-        if (endpoint.startsWith("wss://")) {
-            endpoint = endpoint.substring(6);
+    // Versions are looked up through the composite versionKey property, served by the index of the repoId partition,
+    // so a lookup costs the same whatever the position of the version in its branch
+    private static final String INDEXED_VERSION_LOOKUP_QUERY = "g.V().has('version', 'repoId', repositoryName).has('versionKey', versionKey)";
+
+    // Until the backfill has written the key on every version, the ones saved before it existed
+    // are found by walking the HAS_NEXT_VERSION chain of their branch
+    private static final String CHAIN_FALLBACK_VERSION_LOOKUP_QUERY = "g.inject(0)" +
+            ".coalesce(" +
+                "__.V().has('version', 'repoId', repositoryName).has('versionKey', versionKey)," +
+                "__.V()" +
+                ".hasLabel('repository')" +
+                ".has('repositoryName', repositoryName)" +
+                ".out('CONTAINS')" +
+                ".has('resourceName', resourceName)" +
+                ".out('HAS_BRANCH')" +
+                ".has('branchName', branchName)" +
+                ".out('HAS_VERSION')" +
+                ".union(identity(), repeat(out('HAS_NEXT_VERSION')).emit())" +
+                ".has('versionName', versionName)" +
+            ")";
+
+    // Every level of the path is matched only below the vertices matched by the outer level, the traversal
+    // emits the number of levels found and the constant of the outermost level that could be matched
+    private static String pathLookupQuery(VersioningPathLevel leafLevel, boolean chainFallback) {
+        String versionStep = "__.out('HAS_VERSION')" +
+                ".union(identity(), repeat(out('HAS_NEXT_VERSION')).emit())" +
+                ".has('versionName', versionName)" +
+                ".constant(4)";
+        String branchStep = "__.out('HAS_BRANCH')" +
+                ".has('branchName', branchName)" +
+                (leafLevel == VersioningPathLevel.VERSION && chainFallback ? ".coalesce(" + versionStep + ", __.constant(3))" : ".constant(3)");
+        String resourceStep = "__.out('CONTAINS')" +
+                ".has('resourceName', resourceName)" +
+                (leafLevel.compareTo(VersioningPathLevel.BRANCH) >= 0 ? ".coalesce(" + branchStep + ", __.constant(2))" : ".constant(2)");
+        String repositoryStep = "__.V()" +
+                ".hasLabel('repository')" +
+                ".has('repositoryName', repositoryName)" +
+                (leafLevel.compareTo(VersioningPathLevel.RESOURCE) >= 0 ? ".coalesce(" + resourceStep + ", __.constant(1))" : ".constant(1)");
+
+        // A version saved with its composite key is matched by the index without walking the chain,
+        // without the fallback a version missed by the index doesn't exist and the walk stops at its branch
+        String indexedVersionStep = leafLevel == VersioningPathLevel.VERSION
+                ? "__.V().has('version', 'repoId', repositoryName).has('versionKey', versionKey).constant(4),"
+                : "";
+
+        return "g.inject(0)" +
+                ".coalesce(" +
+                    indexedVersionStep +
+                    repositoryStep + "," +
+                    "__.constant(0)" +
+                ")" +
+                ".max()";
+    }
+
+    private static final Map<VersioningPathLevel, String> INDEXED_PATH_LOOKUP_QUERIES = new EnumMap<>(VersioningPathLevel.class);
+    private static final Map<VersioningPathLevel, String> CHAIN_FALLBACK_PATH_LOOKUP_QUERIES = new EnumMap<>(VersioningPathLevel.class);
+
+    static {
+        for (VersioningPathLevel level : VersioningPathLevel.values()) {
+            INDEXED_PATH_LOOKUP_QUERIES.put(level, pathLookupQuery(level, false));
+            CHAIN_FALLBACK_PATH_LOOKUP_QUERIES.put(level, pathLookupQuery(level, true));
+        }
+    }
+
+    private String versionLookupQuery() {
+        return versionKeyBackfill.isChainFallbackActive() ? CHAIN_FALLBACK_VERSION_LOOKUP_QUERY : INDEXED_VERSION_LOOKUP_QUERY;
+    }
+
+    private String pathLookupQuery(VersioningPathLevel leafLevel) {
+        return versionKeyBackfill.isChainFallbackActive()
+                ? CHAIN_FALLBACK_PATH_LOOKUP_QUERIES.get(leafLevel)
+                : INDEXED_PATH_LOOKUP_QUERIES.get(leafLevel);
+    }
+
+    static String versionKey(String repositoryName, String resourceName, String branchName, String versionName) {
+        // Names can contain only letters, digits and underscores, so the separator can't be ambiguous
+        return repositoryName + "/" + resourceName + "/" + branchName + "/" + versionName;
+    }
+
+    private static Map<String, Object> versionLookupParameters(String repositoryName, String resourceName,
+                                                               String branchName, String versionName) {
+        return Map.of(
+                "repositoryName", repositoryName,
+                "resourceName", resourceName,
+                "branchName", branchName,
+                "versionName", versionName,
+                "versionKey", versionKey(repositoryName, resourceName, branchName, versionName));
+    }
+
+    // Storage coordinates of a version, read from its vertex. The BLOB URL is missing on versions
+    // saved before it was denormalized onto the vertex, their coordinates are completed from Cosmos DB
+    private record VersionLocation(String cosmosDocumentUrl, String resourceType, String blobUrl) {}
+
+    // Total size in bytes of the files of the version, the textures of a material are summed
+    private static long filesSize(VersionDTO versionDTO, boolean resourceType) {
+        if (resourceType) {
+            return versionDTO.getMesh() != null ? versionDTO.getMesh().getSize() : 0L;
         }
-        // Remove port and path after colon
-        int colonIndex = endpoint.indexOf(':');
-        if (colonIndex != -1) {
-            endpoint = endpoint.substring(0, colonIndex);
+
+        if (versionDTO.getMaterial() == null) {
+            return 0L;
         }
-        // Remove trailing slash if present
-        if (endpoint.endsWith("/")) {
-            endpoint = endpoint.substring(0, endpoint.length() - 1);
+
+        return versionDTO.getMaterial().stream().mapToLong(MultipartFile::getSize).sum();
+    }
+
+    // Content type of the mesh, a material has one content type per texture so none is stored for it
+    private static String filesContentType(VersionDTO versionDTO, boolean resourceType) {
+        if (!resourceType) {
+            return "";
         }
 
-        // Build cluster connection to Gremlin server
-        Cluster cluster = Cluster.build()
-                .addContactPoint(endpoint)
-                .port(443)
-                .credentials(config.getUsername(), config.getKey())
-                .enableSsl(true)
-                .serializer(Serializers.GRAPHSON_V2D0)
-                .create();
+        MultipartFile mesh = versionDTO.getMesh();
 
-        this.client = cluster.connect();
+        return mesh != null && mesh.getContentType() != null ? mesh.getContentType() : "application/octet-stream";
     }
 
     @Override
@@ -73,114 +175,92 @@ public class GremlinVersionRepositoryImpl implements GremlinVersionRepository {
         String branchName = versionDTO.getBranchName();
         String versionName = versionDTO.getVersionName();
 
-        String url = "";
-        String cosmosDocumentUrl = "";
+        // The locations of the artifacts are known in advance, so the push is journaled before any of them is written
+        String url = resourceType ? blobStorageService.getMeshUrl(versionDTO) : blobStorageService.getMaterialUrl(versionDTO);
+        String documentId = UUID.randomUUID().toString();
+        String cosmosDocumentUrl = cosmosService.getDocumentUrl(versionDTO, documentId);
+
+        PushJournalEntryDTO pushEntry = pushSaga.start(repositoryName,
+                versionKey(repositoryName, resourceName, branchName, versionName),
+                resourceType ? "mesh" : "material", url, cosmosDocumentUrl);
+
+        // The document is written while the files are uploaded, the version vertex is written last
+        // because it makes the version visible, so it must point to artifacts that already exist
+        CompletableFuture<String> metadataWrite = cosmosService.saveVersionAsync(versionDTO, url, documentId);
 
         try {
             if (resourceType) {
-                url = blobStorageService.saveMesh(versionDTO);
+                blobStorageService.saveMesh(versionDTO, (blobUrl, eTag) -> pushSaga.recordWrittenBlob(pushEntry, blobUrl, eTag));
             } else {
-                url = blobStorageService.saveMaterial(versionDTO);
+                blobStorageService.saveMaterial(versionDTO, (blobUrl, eTag) -> pushSaga.recordWrittenBlob(pushEntry, blobUrl, eTag));
             }
 
-            cosmosDocumentUrl = cosmosService.saveVersion(versionDTO, url);
+            GremlinFutures.join(metadataWrite);
 
-            String query = "g.V().hasLabel('branch')" +
+            // The new version is appended in a single round trip: the tail of the branch is resolved
+            // through the HAS_LAST_VERSION pointer edge, branches created before the pointer existed
+            // fall back once to a walk of the HAS_NEXT_VERSION chain, then the pointer is moved to the new version
+            String query = "g.V()" +
+                    ".hasLabel('repository')" +
+                    ".has('repositoryName', repositoryName)" +
+                    ".out('CONTAINS')" +
+                    ".has('resourceName', resourceName)" +
+                    ".out('HAS_BRANCH')" +
                     ".has('branchName', branchName)" +
                     ".as('branch')" +
-                    ".in('HAS_BRANCH')" +
-                    ".has('resourceName', resourceName)" +
-                    ".in('CONTAINS')" +
-                    ".has('repositoryName', repositoryName)" +
-                    ".project('branchId', 'branchProps', 'repositoryId', 'repositoryProps')" +
-                        ".by(select('branch').id())" +
-                        ".by(select('branch').valueMap())" +
-                        ".by(id())" +
-                        ".by(valueMap())";
-
-            List<Result> branchResults = client.submit(query, Map.of(
-                    "branchName", branchName,
-                    "resourceName", resourceName,
-                    "repositoryName", repositoryName)).all().get();
-
-            if (branchResults.isEmpty()) {
-                // Roll back operations
-                if (resourceType) {
-                    blobStorageService.deleteMeshByUrl(url);
-                } else {
-                    blobStorageService.deleteMaterialByUrl(url);
-                }
-
-                cosmosService.deleteVersionByUrl(cosmosDocumentUrl);
-
-                throw new VersionException("No branch found for " + resourceName + " resource in " + repositoryName +" repository");
-            }
-
-            @SuppressWarnings("unchecked")
-            Map<String, Object> branchNodeMap = (Map<String, Object>) branchResults.get(0).getObject();
-            Object branchId = branchNodeMap.get("branchId");
-
-            query = "g.V(branchId)" +
-                    ".out('HAS_VERSION')" +
-                    ".union(" +
-                    "identity()," +
-                    "repeat(out('HAS_NEXT_VERSION')).emit())";
-
-            List<Result> versionResults = client.submit(query, Map.of("branchId", branchId)).all().get();
-
-            query = "g.addV('version')" +
+                    ".addV('version')" +
                     ".property('repoId', repositoryName)" +
                     ".property('versionName', versionName)" +
-                    ".property('cosmosDocumentUrl', cosmosDocumentUrl)";
-
-            if (resourceType) {
-                query += ".property('resourceType', 'mesh')";
-            } else {
-                query += ".property('resourceType', 'material')";
-            }
-
-            Result versionResult = client.submit(query,
-                    Map.of(
-                    "repositoryName", repositoryName,
-                    "versionName", versionName,
-                    "cosmosDocumentUrl", cosmosDocumentUrl)
-            ).one();
-
-            @SuppressWarnings("unchecked")
-            Map<String, Object> versionNodeMap = (Map<String, Object>) versionResult.getObject();
-            Object versionId = versionNodeMap.get("id");
+                    ".property('cosmosDocumentUrl', cosmosDocumentUrl)" +
+                    ".property('resourceType', resourceType)" +
+                    ".property('resourceName', resourceName)" +
+                    ".property('branchName', branchName)" +
+                    ".property('versionKey', versionKey)" +
+                    ".property('blobUrl', blobUrl)" +
+                    ".property('size', size)" +
+                    ".property('contentType', contentType)" +
+                    ".as('version')" +
+                    ".select('branch')" +
+                    ".choose(" +
+                        "__.out('HAS_VERSION')," +
+                        "__.coalesce(" +
+                            "__.out('HAS_LAST_VERSION')," +
+                            "__.out('HAS_VERSION').until(__.not(__.out('HAS_NEXT_VERSION'))).repeat(__.out('HAS_NEXT_VERSION'))" +
+                        ")" +
+                        ".addE('HAS_NEXT_VERSION').to('version')," +
+                        "__.addE('HAS_VERSION').to('version')" +
+                    ")" +
+                    ".select('branch')" +
+                    ".sideEffect(__.outE('HAS_LAST_VERSION').drop())" +
+                    ".addE('HAS_LAST_VERSION').to('version')" +
+                    ".select('version')" +
+                    ".id()";
+
+            Map<String, Object> parameters = new HashMap<>();
+            parameters.put("repositoryName", repositoryName);
+            parameters.put("resourceName", resourceName);
+            parameters.put("branchName", branchName);
+            parameters.put("versionName", versionName);
+            parameters.put("versionKey", versionKey(repositoryName, resourceName, branchName, versionName));
+            parameters.put("cosmosDocumentUrl", cosmosDocumentUrl);
+            parameters.put("resourceType", resourceType ? "mesh" : "material");
+            parameters.put("blobUrl", url);
+            parameters.put("size", filesSize(versionDTO, resourceType));
+            parameters.put("contentType", filesContentType(versionDTO, resourceType));
+
+            List<Result> versionResults = client.submit(query, parameters).all().get();
 
             if (versionResults.isEmpty()) {
-                query = "g.V(branchId)" +
-                        ".addE('HAS_VERSION')" +
-                        ".to(g.V(versionId))";
-
-                client.submit(query, Map.of("branchId", branchId, "versionId", versionId)).all().get();
-            } else {
-                Result lastVersionResult = versionResults.get(versionResults.size() - 1);
-                @SuppressWarnings("unchecked")
-                Map<String, Object> lastVersionMap = (Map<String, Object>) lastVersionResult.getObject();
-                Object lastVersionId = lastVersionMap.get("id");
-
-                query= "g.V(lastVersionId)" +
-                        ".addE('HAS_NEXT_VERSION')" +
-                        ".to(g.V(versionId))";
-
-                client.submit(query, Map.of("lastVersionId", lastVersionId, "versionId", versionId)).all().get();
+                throw new VersionException("No branch found for " + resourceName + " resource in " + repositoryName +" repository");
             }
-
         } catch (Exception e) {
-            // Roll back operations
-            if (resourceType) {
-                blobStorageService.deleteMeshByUrl(url);
-            } else {
-                blobStorageService.deleteMaterialByUrl(url);
-            }
-
-            cosmosService.deleteVersionByUrl(cosmosDocumentUrl);
+            // Roll back operations in background, the push stays in the journal until they succeed
+            pushSaga.compensate(pushEntry, metadataWrite);
 
             throw new VersionException("Error saving new version in Gremlin DB");
         }
+
+        pushSaga.commit(pushEntry);
     }
 
     @Override
@@ -191,23 +271,10 @@ public class GremlinVersionRepositoryImpl implements GremlinVersionRepository {
         String versionName = versionDTO.getVersionName();
 
         try {
-            String query = "g.V()" +
-                    ".hasLabel('repository')" +
-                    ".has('repositoryName', repositoryName)" +
-                    ".out('CONTAINS')" +
-                    ".has('resourceName', resourceName)" +
-                    ".out('HAS_BRANCH')" +
-                    ".has('branchName', branchName)" +
-                    ".out('HAS_VERSION')" +
-                    ".union(identity(), repeat(out('HAS_NEXT_VERSION')).emit())" +
-                    ".has('versionName', versionName)" +
-                    ".valueMap()";
+            String query = versionLookupQuery() + ".valueMap()";
 
-            List<Result> results = client.submit(query, Map.of(
-                    "repositoryName", repositoryName,
-                    "resourceName", resourceName,
-                    "branchName", branchName,
-                    "versionName", versionName)).all().get();
+            List<Result> results = client.submit(query, versionLookupParameters(
+                    repositoryName, resourceName, branchName, versionName)).all().get();
 
             if (results.isEmpty()) {
                 return false;
@@ -227,130 +294,56 @@ public class GremlinVersionRepositoryImpl implements GremlinVersionRepository {
     }
 
     @Override
-    public VersionDTO findVersionByBranch(VersionDTO versionDTO) {
-        String repositoryName = versionDTO.getRepositoryName();
-        String resourceName = versionDTO.getResourceName();
-        String branchName = versionDTO.getBranchName();
-        String versionName = versionDTO.getVersionName();
-
-        try {
-            String query = "g.V()" +
-                    ".hasLabel('repository')" +
-                    ".has('repositoryName', repositoryName)" +
-                    ".out('CONTAINS')" +
-                    ".has('resourceName', resourceName)" +
-                    ".out('HAS_BRANCH')" +
-                    ".has('branchName', branchName)" +
-                    ".out('HAS_VERSION')" +
-                    ".union(identity(), repeat(out('HAS_NEXT_VERSION')).emit())" +
-                    ".has('versionName', versionName)" +
-                    ".valueMap()";
-
-            List<Result> results = client.submit(query, Map.of(
-                    "repositoryName", repositoryName,
-                    "resourceName", resourceName,
-                    "branchName", branchName,
-                    "versionName", versionName)).all().get();
-
-            if (results.isEmpty()) {
-                throw new VersionException("Version node not found in Gremlin DB");
-            }
+    public VersioningPathLevel findFirstMissingLevel(VersioningPathDTO pathDTO) {
+        VersioningPathLevel leafLevel = pathDTO.getLeafLevel();
 
-            if (results.size() > 1) {
-                throw new VersionException("More than one version found in Gremlin DB");
-            }
-
-            @SuppressWarnings("unchecked")
-            Map<String, List<Object>> props = (Map<String, List<Object>>) results.get(0).getObject();
-            String cosmosDocumentUrl = props.get("cosmosDocumentUrl").get(0).toString();
-
-            if (cosmosDocumentUrl == null || cosmosDocumentUrl.isEmpty()) {
-                throw new VersionException("Cosmos DB document not found in the version node of Gremlin DB");
-            }
-
-            return cosmosService.findVersionByUrl(cosmosDocumentUrl);
-        } catch (VersionException e) {
-            throw e;
-        } catch (Exception e) {
-            // If it is necessary use a RuntimeException for more detailed debug
-            throw new VersionException("Error retrieving version from Gremlin graph");
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("repositoryName", pathDTO.getRepositoryName());
+        if (leafLevel.compareTo(VersioningPathLevel.RESOURCE) >= 0) {
+            parameters.put("resourceName", pathDTO.getResourceName());
+        }
+        if (leafLevel.compareTo(VersioningPathLevel.BRANCH) >= 0) {
+            parameters.put("branchName", pathDTO.getBranchName());
+        }
+        if (leafLevel == VersioningPathLevel.VERSION) {
+            parameters.put("versionName", pathDTO.getVersionName());
+            parameters.put("versionKey", versionKey(pathDTO.getRepositoryName(), pathDTO.getResourceName(),
+                    pathDTO.getBranchName(), pathDTO.getVersionName()));
         }
-    }
-
-    @Override
-    public List<VersionDTO> findVersionsByBranch(BranchDTO branchDTO) {
-        String repositoryName = branchDTO.getRepositoryName();
-        String resourceName = branchDTO.getResourceName();
-        String branchName = branchDTO.getBranchName();
 
         try {
-            String query = "g.V()" +
-                    ".hasLabel('repository')" +
-                    ".has('repositoryName', repositoryName)" +
-                    ".out('CONTAINS')" +
-                    ".has('resourceName', resourceName)" +
-                    ".out('HAS_BRANCH')" +
-                    ".has('branchName', branchName)" +
-                    ".out('HAS_VERSION')" +
-                    ".union(identity(), repeat(out('HAS_NEXT_VERSION')).emit())" +
-                    ".valueMap()";
-
-            List<Result> results = client.submit(query, Map.of(
-                            "repositoryName", repositoryName,
-                            "resourceName", resourceName,
-                            "branchName", branchName)).all().get();
+            List<Result> results = client.submit(pathLookupQuery(leafLevel), parameters).all().get();
 
-            List<VersionDTO> versions = new ArrayList<>();
+            int foundLevels = results.isEmpty() ? 0 : results.get(0).getInt();
 
-            for (Result result : results) {
-                @SuppressWarnings("unchecked")
-                Map<String, List<Object>> props = (Map<String, List<Object>>) result.getObject();
-                String versionName = props.get("versionName").get(0).toString();
-                versions.add(new VersionDTO(
-                        null, null,
-                        null, versionName,
-                        null, null,
-                        null, null,
-                        null, null));
+            if (foundLevels > leafLevel.ordinal()) {
+                return null;
             }
 
-            return versions;
-        } catch (VersionException e) {
-            throw e;
+            return VersioningPathLevel.values()[foundLevels];
         } catch (Exception e) {
-            throw new VersionException(e.getMessage());
+            // If it is necessary use a RuntimeException for more detailed debug
+            throw new VersionControlSystemException("Error resolving versioning path in Gremlin DB");
         }
     }
 
     @Override
-    public List<Pair<NonClosingInputStreamResource, String>> getFile(VersionDTO versionDTO) {
+    public VersionDTO findVersionByBranch(VersionDTO versionDTO) {
         String repositoryName = versionDTO.getRepositoryName();
         String resourceName = versionDTO.getResourceName();
         String branchName = versionDTO.getBranchName();
         String versionName = versionDTO.getVersionName();
 
         try {
-            String query = "g.V()" +
-                    ".hasLabel('repository')" +
-                    ".has('repositoryName', repositoryName)" +
-                    ".out('CONTAINS')" +
-                    ".has('resourceName', resourceName)" +
-                    ".out('HAS_BRANCH')" +
-                    ".has('branchName', branchName)" +
-                    ".out('HAS_VERSION')" +
-                    ".union(identity(), repeat(out('HAS_NEXT_VERSION')).emit())" +
-                    ".has('versionName', versionName)" +
-                    ".valueMap()";
+            String query = versionLookupQuery() + ".valueMap()";
 
-            List<Result> results = client.submit(query, Map.of(
-                    "repositoryName", repositoryName,
-                    "resourceName", resourceName,
-                    "branchName", branchName,
-                    "versionName", versionName)).all().get();
+            List<Result> results = client.submit(query, versionLookupParameters(
+                    repositoryName, resourceName, branchName, versionName)).all().get();
 
             if (results.isEmpty()) {
                 throw new VersionException("Version node not found in Gremlin DB");
             }
+
             if (results.size() > 1) {
                 throw new VersionException("More than one version found in Gremlin DB");
             }
@@ -358,17 +351,26 @@ public class GremlinVersionRepositoryImpl implements GremlinVersionRepository {
             @SuppressWarnings("unchecked")
             Map<String, List<Object>> props = (Map<String, List<Object>>) results.get(0).getObject();
             String cosmosDocumentUrl = props.get("cosmosDocumentUrl").get(0).toString();
-            String resourceType = props.get("resourceType").get(0).toString();
 
             if (cosmosDocumentUrl == null || cosmosDocumentUrl.isEmpty()) {
                 throw new VersionException("Cosmos DB document not found in the version node of Gremlin DB");
             }
 
-            String blobUrl = cosmosService.getBlobUrlByUrl(cosmosDocumentUrl);
+            return cosmosService.findVersionByUrl(cosmosDocumentUrl);
+        } catch (VersionException e) {
+            throw e;
+        } catch (Exception e) {
+            // If it is necessary use a RuntimeException for more detailed debug
+            throw new VersionException("Error retrieving version from Gremlin graph");
+        }
+    }
 
-            if (blobUrl == null || blobUrl.isEmpty()) {
-                throw new VersionException("BLOB URL not found in the Cosmos DB document");
-            }
+    @Override
+    public List<Pair<NonClosingInputStreamResource, String>> getFile(VersionDTO versionDTO) {
+        try {
+            VersionLocation location = findBlobLocation(versionDTO);
+            String blobUrl = location.blobUrl();
+            String resourceType = location.resourceType();
 
             List<Pair<NonClosingInputStreamResource, String>> stream;
 
@@ -395,4 +397,159 @@ public class GremlinVersionRepositoryImpl implements GremlinVersionRepository {
             throw new VersionException("Error retrieving mesh file");
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public List<BlobFileDTO> findFilesByVersion(VersionDTO versionDTO) {
+        try {
+            VersionLocation location = findBlobLocation(versionDTO);
+            String blobUrl = location.blobUrl();
+            String resourceType = location.resourceType();
+
+            if (resourceType.equalsIgnoreCase("mesh")) {
+                return List.of(blobStorageService.findMeshFileByUrl(blobUrl));
+            }
+
+            return blobStorageService.findMaterialFilesByUrl(blobUrl);
+        } catch (VersionException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new VersionException("Error retrieving version files");
+        }
+    }
+
+    @Override
+    public void updateVersionTags(VersionDTO versionDTO, List<String> tags, TagsStatus tagsStatus) {
+        try {
+            String cosmosDocumentUrl = findVersionDocument(versionDTO).cosmosDocumentUrl();
+
+            cosmosService.updateTagsByUrl(cosmosDocumentUrl, tags, tagsStatus);
+        } catch (VersionException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new VersionException("Error updating version tags");
+        }
+    }
+
+    @Override
+    public Map<String, String> findBlobUrlsByVersionKeys(List<String> versionKeys) {
+        Map<String, String> blobUrls = new HashMap<>();
+
+        if (versionKeys.isEmpty()) {
+            return blobUrls;
+        }
+
+        // The keys of a repository are looked up by a single request scoped to its partition
+        Map<String, List<String>> versionKeysByRepository = new HashMap<>();
+
+        for (String versionKey : versionKeys) {
+            versionKeysByRepository.computeIfAbsent(versionKey.substring(0, versionKey.indexOf('/')), k -> new ArrayList<>())
+                    .add(versionKey);
+        }
+
+        try {
+            String query = "g.V()" +
+                    ".has('version', 'repoId', repositoryName)" +
+                    ".has('versionKey', within(versionKeys))" +
+                    ".valueMap('versionKey', 'blobUrl')";
+
+            for (Map.Entry<String, List<String>> repositoryKeys : versionKeysByRepository.entrySet()) {
+                List<Result> results = client.submit(query, Map.of(
+                        "repositoryName", repositoryKeys.getKey(),
+                        "versionKeys", repositoryKeys.getValue())).all().get();
+
+                for (Result result : results) {
+                    @SuppressWarnings("unchecked")
+                    Map<String, List<Object>> props = (Map<String, List<Object>>) result.getObject();
+                    blobUrls.put(props.get("versionKey").get(0).toString(), firstValue(props.get("blobUrl")));
+                }
+            }
+
+            return blobUrls;
+        } catch (Exception e) {
+            // If it is necessary use a RuntimeException for more detailed debug
+            throw new VersionException("Error retrieving versions by key from Gremlin DB");
+        }
+    }
+
+    @Override
+    public Set<String> findReferencedDocumentUrls(List<String> cosmosDocumentUrls) {
+        Set<String> referencedUrls = new HashSet<>();
+
+        if (cosmosDocumentUrls.isEmpty()) {
+            return referencedUrls;
+        }
+
+        try {
+            String query = "g.V()" +
+                    ".hasLabel('version')" +
+                    ".has('cosmosDocumentUrl', within(cosmosDocumentUrls))" +
+                    ".values('cosmosDocumentUrl')";
+
+            List<Result> results = client.submit(query, Map.of("cosmosDocumentUrls", cosmosDocumentUrls)).all().get();
+
+            for (Result result : results) {
+                referencedUrls.add(result.getString());
+            }
+
+            return referencedUrls;
+        } catch (Exception e) {
+            // If it is necessary use a RuntimeException for more detailed debug
+            throw new VersionException("Error retrieving version documents from Gremlin DB");
+        }
+    }
+
+    private static String firstValue(List<Object> values) {
+        return values == null || values.isEmpty() ? "" : values.get(0).toString();
+    }
+
+    // Returns the storage coordinates of the version, Cosmos DB is read only for versions without the BLOB URL on their vertex
+    private VersionLocation findBlobLocation(VersionDTO versionDTO) throws Exception {
+        VersionLocation location = findVersionDocument(versionDTO);
+
+        if (location.blobUrl() != null && !location.blobUrl().isEmpty()) {
+            return location;
+        }
+
+        String blobUrl = cosmosService.getBlobUrlByUrl(location.cosmosDocumentUrl());
+
+        if (blobUrl == null || blobUrl.isEmpty()) {
+            throw new VersionException("BLOB URL not found in the Cosmos DB document");
+        }
+
+        return new VersionLocation(location.cosmosDocumentUrl(), location.resourceType(), blobUrl);
+    }
+
+    // Returns the Cosmos DB document URL of the version, its resource type and its BLOB URL when stored on the vertex
+    private VersionLocation findVersionDocument(VersionDTO versionDTO) throws Exception {
+        String repositoryName = versionDTO.getRepositoryName();
+        String resourceName = versionDTO.getResourceName();
+        String branchName = versionDTO.getBranchName();
+        String versionName = versionDTO.getVersionName();
+
+        // Only the storage coordinates are projected, the rest of the vertex is not sent back
+        String query = versionLookupQuery() + ".valueMap('cosmosDocumentUrl', 'resourceType', 'blobUrl')";
+
+        List<Result> results = client.submit(query, versionLookupParameters(
+                repositoryName, resourceName, branchName, versionName)).all().get();
+
+        if (results.isEmpty()) {
+            throw new VersionException("Version node not found in Gremlin DB");
+        }
+        if (results.size() > 1) {
+            throw new VersionException("More than one version found in Gremlin DB");
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, List<Object>> props = (Map<String, List<Object>>) results.get(0).getObject();
+        String cosmosDocumentUrl = props.get("cosmosDocumentUrl").get(0).toString();
+        String resourceType = props.get("resourceType").get(0).toString();
+        List<Object> blobUrl = props.get("blobUrl");
+
+        if (cosmosDocumentUrl == null || cosmosDocumentUrl.isEmpty()) {
+            throw new VersionException("Cosmos DB document not found in the version node of Gremlin DB");
+        }
+
+        return new VersionLocation(cosmosDocumentUrl, resourceType,
+                blobUrl == null || blobUrl.isEmpty() ? null : blobUrl.get(0).toString());
+    }
+}
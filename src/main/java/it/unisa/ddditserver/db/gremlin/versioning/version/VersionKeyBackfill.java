@@ -0,0 +1,137 @@
+package it.unisa.ddditserver.db.gremlin.versioning.version;
+
+import it.unisa.ddditserver.db.gremlin.GremlinClient;
+import it.unisa.ddditserver.db.gremlin.GremlinConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.tinkerpop.gremlin.driver.Result;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * One-off backfill of the composite versionKey property on the version vertices saved before it existed.
+ *
+ * While the fallback is enabled, version lookups also walk the HAS_NEXT_VERSION chain of the branch,
+ * so that the versions without the key are still found. At startup the backfill writes the key on those versions
+ * in batches and, once none is left, the lookups stop walking the chain. After a successful run the fallback
+ * can be disabled with {@code GREMLIN_VERSION_CHAIN_FALLBACK_ENABLED=false}, so that the backfill doesn't run again.
+ *
+ * @version 1.0
+ * @since 2026-10-18
+ */
+@Component
+public class VersionKeyBackfill {
+    private final GremlinClient client;
+    private final GremlinConfig config;
+    private volatile boolean chainFallbackActive;
+    private ExecutorService backfiller;
+
+    // Every version vertex without the key, together with the names of the vertices on its path
+    private static final String MISSING_KEY_QUERY = "g.V()" +
+            ".hasLabel('repository').as('repository')" +
+            ".out('CONTAINS').as('resource')" +
+            ".out('HAS_BRANCH').as('branch')" +
+            ".out('HAS_VERSION')" +
+            ".union(identity(), repeat(out('HAS_NEXT_VERSION')).emit())" +
+            ".hasNot('versionKey')" +
+            ".limit(batchSize)" +
+            ".project('id', 'repositoryName', 'resourceName', 'branchName', 'versionName')" +
+                ".by(id())" +
+                ".by(select('repository').values('repositoryName'))" +
+                ".by(select('resource').values('resourceName'))" +
+                ".by(select('branch').values('branchName'))" +
+                ".by(values('versionName'))";
+
+    private static final String WRITE_KEY_QUERY = "g.V(versionId)" +
+            ".has('repoId', repositoryName)" +
+            ".property('versionKey', versionKey)" +
+            ".property('resourceName', resourceName)" +
+            ".property('branchName', branchName)" +
+            ".id()";
+
+    @Autowired
+    public VersionKeyBackfill(GremlinClient client, GremlinConfig config) {
+        this.client = client;
+        this.config = config;
+        this.chainFallbackActive = config.isVersionChainFallbackEnabled();
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!chainFallbackActive) {
+            return;
+        }
+
+        this.backfiller = Executors.newSingleThreadExecutor();
+        backfiller.execute(this::runBackfill);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (backfiller != null) {
+            backfiller.shutdownNow();
+        }
+    }
+
+    /**
+     * Tells whether the version lookups still have to walk the chain of the branch.
+     *
+     * @return true until the backfill has written the key on every version, false after or if the fallback is disabled
+     */
+    public boolean isChainFallbackActive() {
+        return chainFallbackActive;
+    }
+
+    /**
+     * Writes the key on the versions without it, one batch at a time, and turns the fallback off once none is left.
+     * If a batch fails the fallback stays active and the backfill runs again at the next start.
+     */
+    public void runBackfill() {
+        try {
+            int written;
+
+            do {
+                written = backfillBatch();
+            } while (written > 0 && !Thread.currentThread().isInterrupted());
+
+            if (written == 0) {
+                chainFallbackActive = false;
+            }
+        } catch (Exception e) {
+            // The fallback stays active, the lookups keep finding the versions without the key
+        }
+    }
+
+    // Returns the number of keys written, -1 if versions without the key were found but none could be written
+    private int backfillBatch() throws Exception {
+        List<Result> missing = client.submit(MISSING_KEY_QUERY, Map.of("batchSize", config.getVersionKeyBackfillBatch())).all().get();
+
+        int written = 0;
+
+        for (Result result : missing) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> version = (Map<String, Object>) result.getObject();
+            String repositoryName = version.get("repositoryName").toString();
+            String resourceName = version.get("resourceName").toString();
+            String branchName = version.get("branchName").toString();
+            String versionName = version.get("versionName").toString();
+
+            List<Result> writeResults = client.submit(WRITE_KEY_QUERY, Map.of(
+                    "versionId", version.get("id"),
+                    "repositoryName", repositoryName,
+                    "resourceName", resourceName,
+                    "branchName", branchName,
+                    "versionKey", GremlinVersionRepositoryImpl.versionKey(repositoryName, resourceName, branchName, versionName)
+            )).all().get();
+
+            written += writeResults.size();
+        }
+
+        // A batch that writes nothing would be read again forever
+        return !missing.isEmpty() && written == 0 ? -1 : written;
+    }
+}
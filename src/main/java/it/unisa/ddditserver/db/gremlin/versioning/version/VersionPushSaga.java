@@ -0,0 +1,278 @@
+package it.unisa.ddditserver.db.gremlin.versioning.version;
+
+import it.unisa.ddditserver.db.blobstorage.versioning.BlobStorageVersionRepository;
+import it.unisa.ddditserver.db.cosmos.CosmosConfig;
+import it.unisa.ddditserver.db.cosmos.versioning.CosmosPushJournalRepository;
+import it.unisa.ddditserver.db.cosmos.versioning.CosmosVersionRepository;
+import it.unisa.ddditserver.db.gremlin.GremlinClient;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.PushJournalEntryDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.PushStatus;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.WrittenBlobDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.tinkerpop.gremlin.driver.Result;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coordinator of the push of a version across BLOB Storage, Cosmos DB and the Gremlin graph.
+ *
+ * Every push is recorded in the push journal before any of its artifacts is written, with the locations
+ * the artifacts are going to have, and every BLOB it writes is added to its entry with the ETag of its content.
+ * A committed push is removed from the journal, a failed push is rolled back in background.
+ * The entries of the pushes in progress are refreshed periodically, so pushes left in the journal by a crash
+ * are the only ones found by the recovery, which rolls them back as well.
+ *
+ * The version vertex, found by its versionKey, is the commit point. A push whose document it refers to was committed
+ * and only its entry is removed. If it refers to the document of another push, the files of the version belong
+ * to that push and only the document of the rolled back push is deleted. Otherwise the BLOBs written by the push
+ * are deleted only if they still hold its content. Every step of the roll back is idempotent,
+ * so a push can be compensated more than once.
+ *
+ * @version 1.1
+ * @since 2026-10-18
+ */
+@Component
+public class VersionPushSaga {
+    private final GremlinClient client;
+    private final CosmosVersionRepository cosmosService;
+    private final BlobStorageVersionRepository blobStorageService;
+    private final CosmosPushJournalRepository pushJournal;
+    private final CosmosConfig config;
+    private ScheduledExecutorService compensator;
+    // Pushes in progress on this instance, their entries are refreshed and never recovered
+    private final Set<String> livePushes = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong startedPushes = new AtomicLong();
+    private final AtomicLong committedPushes = new AtomicLong();
+    private final AtomicLong compensatedPushes = new AtomicLong();
+    private final AtomicLong failedCompensations = new AtomicLong();
+    private final AtomicLong recoveredPushes = new AtomicLong();
+    private final AtomicLong failedJournalUpdates = new AtomicLong();
+    private final AtomicLong failedJournalDeletions = new AtomicLong();
+
+    @Autowired
+    public VersionPushSaga(GremlinClient client,
+                           CosmosVersionRepository cosmosService,
+                           BlobStorageVersionRepository blobStorageService,
+                           CosmosPushJournalRepository pushJournal,
+                           CosmosConfig config) {
+        this.client = client;
+        this.cosmosService = cosmosService;
+        this.blobStorageService = blobStorageService;
+        this.pushJournal = pushJournal;
+        this.config = config;
+    }
+
+    @PostConstruct
+    public void init() {
+        // A single thread runs the roll backs and the recovery, so a push is never compensated twice at the same time
+        this.compensator = Executors.newSingleThreadScheduledExecutor();
+        compensator.scheduleWithFixedDelay(this::recoverStalePushes,
+                config.getPushJournalRecoveryMillis(), config.getPushJournalRecoveryMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (compensator != null) {
+            compensator.shutdownNow();
+        }
+    }
+
+    /**
+     * Records a new push in the journal, before any of its artifacts is written.
+     *
+     * @param repositoryName the name of the repository receiving the version
+     * @param versionKey the composite key of the version vertex
+     * @param resourceType the type of the resource, mesh or material
+     * @param blobUrl the URL the mesh or the material folder is going to have in BLOB Storage
+     * @param cosmosDocumentUrl the URL the version document is going to have in Cosmos DB
+     * @return the journal entry of the push
+     */
+    public PushJournalEntryDTO start(String repositoryName, String versionKey, String resourceType,
+                                     String blobUrl, String cosmosDocumentUrl) {
+        PushJournalEntryDTO entry = new PushJournalEntryDTO(
+                UUID.randomUUID().toString(),
+                repositoryName,
+                versionKey,
+                resourceType,
+                blobUrl,
+                cosmosDocumentUrl,
+                PushStatus.STARTED,
+                System.currentTimeMillis(),
+                Collections.synchronizedList(new ArrayList<>()));
+
+        pushJournal.saveEntry(entry);
+        livePushes.add(entry.getId());
+        startedPushes.incrementAndGet();
+
+        return entry;
+    }
+
+    /**
+     * Records a BLOB written by a push, so that a roll back deletes it only while it holds the content of the push.
+     * If the record fails the BLOB is not deleted by the roll back and is left to the orphan reconciler.
+     *
+     * @param entry the journal entry of the push
+     * @param blobUrl the URL of the mesh or of the texture written
+     * @param eTag the ETag of the content written
+     */
+    public void recordWrittenBlob(PushJournalEntryDTO entry, String blobUrl, String eTag) {
+        WrittenBlobDTO writtenBlob = new WrittenBlobDTO(blobUrl, eTag);
+
+        try {
+            pushJournal.recordWrittenBlob(entry.getId(), writtenBlob);
+            entry.getWrittenBlobs().add(writtenBlob);
+        } catch (Exception e) {
+            failedJournalUpdates.incrementAndGet();
+        }
+    }
+
+    /**
+     * Removes a committed push from the journal in background.
+     * If the removal fails the recovery finds the version vertex and removes the entry later.
+     *
+     * @param entry the journal entry of the push
+     */
+    public void commit(PushJournalEntryDTO entry) {
+        livePushes.remove(entry.getId());
+        committedPushes.incrementAndGet();
+
+        compensator.execute(() -> {
+            try {
+                pushJournal.deleteEntry(entry.getId());
+            } catch (Exception e) {
+                // The entry is removed by the recovery
+                failedJournalDeletions.incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Rolls back a failed push in background, once the writes still in flight have completed.
+     *
+     * @param entry the journal entry of the push
+     * @param pendingWrites the writes of the push that may still be in flight
+     */
+    public void compensate(PushJournalEntryDTO entry, CompletableFuture<?> pendingWrites) {
+        livePushes.remove(entry.getId());
+
+        // A document written after its deletion would be left behind, so the roll back waits for the write
+        pendingWrites.handle((ignored, throwable) -> null)
+                .thenRunAsync(() -> rollBack(entry), compensator);
+    }
+
+    private void recoverStalePushes() {
+        // A long upload keeps its entry fresh, so neither this instance nor another one takes it for a crashed push
+        for (String entryId : livePushes) {
+            try {
+                pushJournal.refreshEntry(entryId);
+            } catch (Exception e) {
+                failedJournalUpdates.incrementAndGet();
+            }
+        }
+
+        try {
+            long staleBefore = System.currentTimeMillis() - config.getPushJournalStaleMillis();
+
+            for (PushJournalEntryDTO entry : pushJournal.findStaleEntries(staleBefore, config.getPushJournalRecoveryBatch())) {
+                if (livePushes.contains(entry.getId())) {
+                    continue;
+                }
+
+                recoveredPushes.incrementAndGet();
+                rollBack(entry);
+            }
+        } catch (Exception e) {
+            // The journal is read again at the next run
+        }
+    }
+
+    private void rollBack(PushJournalEntryDTO entry) {
+        try {
+            pushJournal.markCompensating(entry.getId());
+
+            // The version vertex is the commit point, an acknowledgement lost after it was written doesn't undo the push
+            String committedDocumentUrl = findCommittedDocumentUrl(entry);
+
+            if (entry.getCosmosDocumentUrl().equals(committedDocumentUrl)) {
+                pushJournal.deleteEntry(entry.getId());
+                return;
+            }
+
+            // The files of a version committed by another push share the paths of this push, they are never deleted
+            if (committedDocumentUrl == null && entry.getWrittenBlobs() != null) {
+                List<WrittenBlobDTO> writtenBlobs;
+
+                synchronized (entry.getWrittenBlobs()) {
+                    writtenBlobs = new ArrayList<>(entry.getWrittenBlobs());
+                }
+
+                for (WrittenBlobDTO writtenBlob : writtenBlobs) {
+                    if ("mesh".equalsIgnoreCase(entry.getResourceType())) {
+                        blobStorageService.deleteMeshByUrlIfMatch(writtenBlob.getBlobUrl(), writtenBlob.getETag());
+                    } else {
+                        blobStorageService.deleteTextureByUrlIfMatch(writtenBlob.getBlobUrl(), writtenBlob.getETag());
+                    }
+                }
+            }
+
+            // The document id is unique to the push, so its document is always deleted
+            cosmosService.deleteVersionByUrl(entry.getCosmosDocumentUrl());
+            pushJournal.deleteEntry(entry.getId());
+
+            compensatedPushes.incrementAndGet();
+        } catch (Exception e) {
+            // The entry stays in the journal and the roll back is retried by the recovery
+            failedCompensations.incrementAndGet();
+        }
+    }
+
+    // Document URL of the committed version of the push, null if the version vertex doesn't exist
+    private String findCommittedDocumentUrl(PushJournalEntryDTO entry) throws Exception {
+        String query = "g.V()" +
+                ".has('version', 'repoId', repositoryName)" +
+                ".has('versionKey', versionKey)" +
+                ".values('cosmosDocumentUrl')";
+
+        List<Result> results = client.submit(query, Map.of(
+                "repositoryName", entry.getRepositoryName(),
+                "versionKey", entry.getVersionKey())).all().get();
+
+        return results.isEmpty() ? null : results.get(0).getString();
+    }
+
+    /**
+     * Returns a snapshot of the push counters and of the recovery settings.
+     *
+     * @return a map containing recovery settings and push counters
+     */
+    public Map<String, Object> getSagaMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("recoveryIntervalMillis", config.getPushJournalRecoveryMillis());
+        metrics.put("staleAfterMillis", config.getPushJournalStaleMillis());
+        metrics.put("recoveryBatch", config.getPushJournalRecoveryBatch());
+        metrics.put("startedPushes", startedPushes.get());
+        metrics.put("committedPushes", committedPushes.get());
+        metrics.put("compensatedPushes", compensatedPushes.get());
+        metrics.put("failedCompensations", failedCompensations.get());
+        metrics.put("recoveredPushes", recoveredPushes.get());
+        metrics.put("livePushes", livePushes.size());
+        metrics.put("failedJournalUpdates", failedJournalUpdates.get());
+        metrics.put("failedJournalDeletions", failedJournalDeletions.get());
+        return metrics;
+    }
+}
@@ -18,4 +18,19 @@ public class TagClassificationModelConfig {
 
     @Value("${APP_PASSWORD}")
     private String appPassword;
+
+    // Models evaluated at the same time for a single mesh, 0 means one per available processor
+    @Value("${AI_INFERENCE_THREADS:0}")
+    private int inferenceThreads;
+
+    // Threads used by a single model, the models already run in parallel
+    @Value("${AI_SESSION_INTRA_OP_THREADS:1}")
+    private int sessionIntraOpThreads;
+
+    // Background classifications, a push is never blocked by them
+    @Value("${AI_CLASSIFICATION_WORKERS:2}")
+    private int classificationWorkers;
+
+    @Value("${AI_CLASSIFICATION_QUEUE_CAPACITY:100}")
+    private int classificationQueueCapacity;
 }
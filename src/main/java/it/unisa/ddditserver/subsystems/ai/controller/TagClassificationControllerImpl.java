@@ -1,7 +1,9 @@
 package it.unisa.ddditserver.subsystems.ai.controller;
 
+import it.unisa.ddditserver.subsystems.ai.exceptions.TagClassificationException;
 import it.unisa.ddditserver.subsystems.ai.service.TagClassificationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,7 +20,13 @@ public class TagClassificationControllerImpl implements TagClassificationControl
     @Override
     @GetMapping("/reload")
     public ResponseEntity<?> reloadModel() {
-        tagClassificationService.getOnnxModelsInFolder();
+        try {
+            tagClassificationService.getOnnxModelsInFolder();
+        } catch (TagClassificationException e) {
+            // The models loaded before the reload are still in use
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
 
         Map<String, Object> response = new HashMap<>();
         response.put("message", "Successfully reloaded model");
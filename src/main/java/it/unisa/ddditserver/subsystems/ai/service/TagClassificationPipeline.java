@@ -0,0 +1,31 @@
+package it.unisa.ddditserver.subsystems.ai.service;
+
+import it.unisa.ddditserver.subsystems.versioning.dto.version.VersionDTO;
+import java.util.Map;
+
+/**
+ * Service interface for the background tag classification of pushed meshes.
+ * Classifications run on a bounded work queue after the version has been committed,
+ * so that the push latency only depends on the storage writes.
+ *
+ * @version 1.2
+ * @since 2026-10-18
+ */
+public interface TagClassificationPipeline {
+    /**
+     * Queues the classification of a committed mesh version.
+     * The classification reads the mesh from the stream of the upload, opened before the request ends and closed
+     * once done, so the mesh is neither copied nor read back from BLOB storage. The resulting tags are stored in the version metadata,
+     * whose tags status moves from pending to complete, or to failed if the classification can't be run.
+     *
+     * @param versionDTO the data transfer object of the committed version, holding the uploaded mesh
+     */
+    void submit(VersionDTO versionDTO);
+
+    /**
+     * Returns a snapshot of the work queue and of its counters.
+     *
+     * @return a map containing queue settings and usage counters
+     */
+    Map<String, Object> getQueueMetrics();
+}
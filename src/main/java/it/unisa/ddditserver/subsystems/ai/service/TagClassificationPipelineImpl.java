@@ -0,0 +1,138 @@
+package it.unisa.ddditserver.subsystems.ai.service;
+
+import it.unisa.ddditserver.db.gremlin.versioning.version.GremlinVersionRepository;
+import it.unisa.ddditserver.subsystems.ai.TagClassificationModelConfig;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.TagsStatus;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.VersionDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class TagClassificationPipelineImpl implements TagClassificationPipeline {
+    private final TagClassificationModelConfig config;
+    private final TagClassificationService tagClassificationService;
+    private final GremlinVersionRepository gremlinVersionRepository;
+    private ThreadPoolExecutor executor;
+
+    private final AtomicLong submittedClassifications = new AtomicLong();
+    private final AtomicLong completedClassifications = new AtomicLong();
+    private final AtomicLong failedClassifications = new AtomicLong();
+    private final AtomicLong rejectedClassifications = new AtomicLong();
+
+    @Autowired
+    public TagClassificationPipelineImpl(TagClassificationModelConfig config,
+                                         TagClassificationService tagClassificationService,
+                                         GremlinVersionRepository gremlinVersionRepository) {
+        this.config = config;
+        this.tagClassificationService = tagClassificationService;
+        this.gremlinVersionRepository = gremlinVersionRepository;
+    }
+
+    @PostConstruct
+    public void init() {
+        // Bounded queue, when it is full the classification is marked as failed instead of piling up
+        this.executor = new ThreadPoolExecutor(
+                config.getClassificationWorkers(), config.getClassificationWorkers(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.getClassificationQueueCapacity()),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    @PreDestroy
+    public void close() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Override
+    public void submit(VersionDTO versionDTO) {
+        // Only the identifiers are kept, the multipart of the push is released with the request
+        VersionDTO version = new VersionDTO(
+                versionDTO.getRepositoryName(), versionDTO.getResourceName(),
+                versionDTO.getBranchName(), versionDTO.getVersionName(),
+                null, null, null, null, null, null
+        );
+
+        InputStream meshStream;
+        long meshSize;
+
+        try {
+            // The stream of the upload is opened while the request is running and is handed to the worker, so the mesh
+            // is neither copied nor downloaded again. The open stream keeps the spooled upload readable after the request
+            // has ended and deleted it, the upload is released when the worker closes the stream
+            meshStream = versionDTO.getMesh().getInputStream();
+            meshSize = versionDTO.getMesh().getSize();
+        } catch (IOException | RuntimeException e) {
+            failedClassifications.incrementAndGet();
+            markFailed(version);
+            return;
+        }
+
+        try {
+            executor.execute(() -> classify(version, meshStream, meshSize));
+            submittedClassifications.incrementAndGet();
+        } catch (RejectedExecutionException e) {
+            closeMeshStream(meshStream);
+            rejectedClassifications.incrementAndGet();
+            markFailed(version);
+        }
+    }
+
+    private void classify(VersionDTO version, InputStream meshStream, long meshSize) {
+        try {
+            List<String> tags = tagClassificationService.classify(meshStream, meshSize);
+
+            gremlinVersionRepository.updateVersionTags(version, tags, TagsStatus.COMPLETE);
+            completedClassifications.incrementAndGet();
+        } catch (Exception e) {
+            failedClassifications.incrementAndGet();
+            markFailed(version);
+        } finally {
+            closeMeshStream(meshStream);
+        }
+    }
+
+    private static void closeMeshStream(InputStream meshStream) {
+        try {
+            meshStream.close();
+        } catch (IOException ignored) {
+            // The spooled upload is deleted by the container at the end of the request
+        }
+    }
+
+    private void markFailed(VersionDTO version) {
+        try {
+            gremlinVersionRepository.updateVersionTags(version, List.of(), TagsStatus.FAILED);
+        } catch (Exception ignored) {
+            // The version stays pending, the push itself has already succeeded
+        }
+    }
+
+    @Override
+    public Map<String, Object> getQueueMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("workers", config.getClassificationWorkers());
+        metrics.put("queueCapacity", config.getClassificationQueueCapacity());
+        metrics.put("queuedClassifications", executor != null ? executor.getQueue().size() : 0);
+        metrics.put("runningClassifications", executor != null ? executor.getActiveCount() : 0);
+        metrics.put("submittedClassifications", submittedClassifications.get());
+        metrics.put("completedClassifications", completedClassifications.get());
+        metrics.put("failedClassifications", failedClassifications.get());
+        metrics.put("rejectedClassifications", rejectedClassifications.get());
+        return metrics;
+    }
+}
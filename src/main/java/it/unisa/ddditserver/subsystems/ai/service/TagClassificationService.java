@@ -1,7 +1,7 @@
 package it.unisa.ddditserver.subsystems.ai.service;
 
 import it.unisa.ddditserver.subsystems.versioning.dto.BranchDTO;
-import it.unisa.ddditserver.subsystems.versioning.dto.version.VersionDTO;
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -9,17 +9,25 @@ import java.util.List;
  * Provides methods to associate tags to a mesh.
  *
  * @author Angelo Antonio Prisco
- * @version 1.0
+ * @version 1.3
  * @since 2025-08-30
  */
 public interface TagClassificationService {
     /**
-     * Associate a list of the to a version.
+     * Associate a list of tags to a mesh read from a stream, such as the stream of an uploaded mesh.
+     * A mesh read from a {@link java.io.FileInputStream} is mapped in memory and any other mesh is read into native memory,
+     * so no heap copy or temporary file is made. The stream is not closed.
      *
-     * @param versionDTO the data transfer object containing the mesh version information
-     * @return a list of tags representing te result of classification
+     * @param meshStream the stream of the fbx mesh
+     * @param size the size in bytes of the mesh
+     * @return a list of tags representing the result of classification
      */
-    List<String> classify(VersionDTO versionDTO);
+    List<String> classify(InputStream meshStream, long size);
 
+    /**
+     * Loads every ONNX model in the models folder and replaces the models in use.
+     * The swap is atomic: classifications already running keep the previous models,
+     * which are released when the last of them ends.
+     */
     void getOnnxModelsInFolder();
 }
@@ -5,41 +5,123 @@ import ai.onnxruntime.OrtEnvironment;
 import ai.onnxruntime.OrtSession;
 import it.unisa.ddditserver.subsystems.ai.TagClassificationModelConfig;
 import it.unisa.ddditserver.subsystems.ai.exceptions.TagClassificationException;
-import it.unisa.ddditserver.subsystems.versioning.dto.version.VersionDTO;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.mail.*;
 import jakarta.mail.internet.*;
-import java.io.FileOutputStream;
 import java.util.Properties;
 import org.lwjgl.PointerBuffer;
 import org.lwjgl.assimp.AIMaterial;
 import org.lwjgl.assimp.AIMesh;
 import org.lwjgl.assimp.AIScene;
 import org.lwjgl.assimp.Assimp;
+import org.lwjgl.system.MemoryUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class TagClassificationServiceImpl implements TagClassificationService {
     private final TagClassificationModelConfig config;
-    private final List<File> models;
+    private final AtomicReference<ModelSet> models;
+    private OrtEnvironment environment;
+    private ExecutorService inferenceExecutor;
 
     @Autowired
     public TagClassificationServiceImpl(TagClassificationModelConfig config) {
-        this.models = new ArrayList<>();
+        this.models = new AtomicReference<>(new ModelSet(List.of()));
         this.config = config;
     }
 
     @PostConstruct
     public void init() {
+        // The environment is a process wide singleton shared by every session, so it is never closed here
+        this.environment = OrtEnvironment.getEnvironment();
+
+        int inferenceThreads = config.getInferenceThreads() > 0
+                ? config.getInferenceThreads()
+                : Runtime.getRuntime().availableProcessors();
+        this.inferenceExecutor = Executors.newFixedThreadPool(inferenceThreads);
+
         getOnnxModelsInFolder();
     }
 
+    @PreDestroy
+    public void close() {
+        if (inferenceExecutor != null) {
+            inferenceExecutor.shutdown();
+        }
+        models.getAndSet(new ModelSet(List.of())).release();
+    }
+
+    // A loaded model, the session is thread safe and is shared by all the classifications
+    private record OnnxModel(String fileName, String tag, OrtSession session, String inputName) {
+    }
+
+    // An immutable set of models, its sessions are closed once it has been replaced and no classification is using it
+    private static final class ModelSet {
+        private final List<OnnxModel> models;
+        // Starts from 1, the reference held by the service until the set is replaced
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        private ModelSet(List<OnnxModel> models) {
+            this.models = models;
+        }
+
+        private boolean retain() {
+            int current;
+            do {
+                current = references.get();
+                if (current == 0) {
+                    return false;
+                }
+            } while (!references.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        private void release() {
+            if (references.decrementAndGet() == 0) {
+                closeSessions(models);
+            }
+        }
+    }
+
+    private static void closeSessions(List<OnnxModel> models) {
+        for (OnnxModel model : models) {
+            try {
+                model.session().close();
+            } catch (Exception ignored) {
+                // The session is discarded anyway
+            }
+        }
+    }
+
+    private ModelSet acquireModels() {
+        while (true) {
+            ModelSet current = models.get();
+            if (current.retain()) {
+                return current;
+            }
+            // The set has just been replaced and closed, the new one is read again
+        }
+    }
+
     private static void sendEmail(String from, String appPassword, String to, String subject, String body) {
         Properties props = new Properties();
         props.put("mail.smtp.auth", "true");
@@ -70,56 +152,121 @@ public class TagClassificationServiceImpl implements TagClassificationService {
     }
 
     public void getOnnxModelsInFolder() {
-        models.clear();
-
         String folderPath = config.getModelsFolderPath();
 
         File folder = new File(folderPath);
         File[] files = folder.listFiles((dir, name) -> name.toLowerCase().endsWith(".onnx"));
 
+        List<OnnxModel> loadedModels = new ArrayList<>();
+
         if (files != null) {
-            models.addAll(Arrays.asList(files));
+            // Every model is loaded before the swap, so a failed reload leaves the current models in use
+            for (File modelFile : files) {
+                try {
+                    OrtSession.SessionOptions options = new OrtSession.SessionOptions();
+                    if (config.getSessionIntraOpThreads() > 0) {
+                        options.setIntraOpNumThreads(config.getSessionIntraOpThreads());
+                    }
+
+                    OrtSession session = environment.createSession(modelFile.getAbsolutePath(), options);
+                    String inputName = session.getInputNames().iterator().next();
+                    String tag = modelFile.getName().split("_")[2].split("\\.")[0];
+
+                    loadedModels.add(new OnnxModel(modelFile.getName(), tag, session, inputName));
+                } catch (Exception e) {
+                    closeSessions(loadedModels);
+                    throw new TagClassificationException("Error loading " + modelFile.getName() + " model");
+                }
+            }
         }
+
+        // In-flight classifications keep using the previous set, which is closed when the last one ends
+        models.getAndSet(new ModelSet(List.copyOf(loadedModels))).release();
     }
 
     private ArrayList<String> predictAllModels(float[] inputFeatures) {
         ArrayList<String> results = new ArrayList<>();
 
-        for (File modelFile : models) {
-            long[] output;
+        ModelSet modelSet = acquireModels();
 
-            try {
-                output = runOnnxModel(inputFeatures, modelFile);
-            } catch (TagClassificationException e) {
-                throw e;
-            } catch (Exception e) {
-                throw new TagClassificationException("Error predicting for " + modelFile + " model");
+        // A single input tensor is shared by all the models, which are evaluated concurrently
+        try (OnnxTensor inputTensor = OnnxTensor.createTensor(environment, new float[][] { inputFeatures })) {
+            List<Future<long[]>> predictions = new ArrayList<>();
+
+            for (OnnxModel model : modelSet.models) {
+                predictions.add(inferenceExecutor.submit(() -> runOnnxModel(inputTensor, model)));
             }
 
-            if (output[0] == 1) {
-                results.add(modelFile.getName().split("_")[2].split("\\.")[0]);
+            TagClassificationException failure = null;
+
+            // Every prediction is awaited before the tensor is closed, tags keep the order of the models
+            for (int i = 0; i < predictions.size(); i++) {
+                OnnxModel model = modelSet.models.get(i);
+                long[] output;
+
+                try {
+                    output = awaitPrediction(predictions.get(i));
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause() instanceof TagClassificationException cause
+                                ? cause
+                                : new TagClassificationException("Error predicting for " + model.fileName() + " model");
+                    }
+                    continue;
+                }
+
+                if (output[0] == 1) {
+                    results.add(model.tag());
+                }
             }
+
+            if (failure != null) {
+                throw failure;
+            }
+        } catch (TagClassificationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new TagClassificationException("Error during ONNX input creation");
+        } finally {
+            modelSet.release();
         }
 
         return results;
     }
 
-    private long[] runOnnxModel(float[] inputFeatures, File modelFile) {
-        try (OrtEnvironment env = OrtEnvironment.getEnvironment();
-             OrtSession session = env.createSession(modelFile.getAbsolutePath(), new OrtSession.SessionOptions())) {
+    // The shared tensor can't be closed while a model is still reading it, so interrupts only are recorded
+    private static long[] awaitPrediction(Future<long[]> prediction) throws ExecutionException {
+        boolean interrupted = false;
+
+        try {
+            while (true) {
+                try {
+                    return prediction.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private long[] runOnnxModel(OnnxTensor inputTensor, OnnxModel model) {
+        OrtSession session = model.session();
+        String inputName = model.inputName();
 
-            OnnxTensor inputTensor = OnnxTensor.createTensor(env, new float[][] { inputFeatures });
-            String inputName = session.getInputNames().iterator().next();
+        // CPU & RAM start
+        Runtime runtime = Runtime.getRuntime();
+        long usedMemoryBefore = runtime.totalMemory() - runtime.freeMemory();
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        long cpuTimeBefore = threadBean.getCurrentThreadCpuTime();
 
-            // CPU & RAM start
-            Runtime runtime = Runtime.getRuntime();
-            long usedMemoryBefore = runtime.totalMemory() - runtime.freeMemory();
-            ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
-            long cpuTimeBefore = threadBean.getCurrentThreadCpuTime();
+        // Predictions time start
+        long startTime = System.nanoTime();
 
-            // Predictions time start
-            long startTime = System.nanoTime();
-            OrtSession.Result result = session.run(Collections.singletonMap(inputName, inputTensor));
+        try (OrtSession.Result result = session.run(Collections.singletonMap(inputName, inputTensor))) {
             long endTime = System.nanoTime();
 
             // CPU & RAM end
@@ -165,16 +312,25 @@ public class TagClassificationServiceImpl implements TagClassificationService {
         }
     }
 
-    private Map<String, Double> extractFbxFeatures(File fbxFile) {
-        AIScene scene = Assimp.aiImportFile(
-                fbxFile.getAbsolutePath(),
-                Assimp.aiProcess_Triangulate | Assimp.aiProcess_JoinIdenticalVertices
+    private Map<String, Double> extractFbxFeatures(ByteBuffer fbxData) {
+        AIScene scene = Assimp.aiImportFileFromMemory(
+                fbxData,
+                Assimp.aiProcess_Triangulate | Assimp.aiProcess_JoinIdenticalVertices,
+                "fbx"
         );
 
         if (scene == null) {
             throw new TagClassificationException("Error during fbx file reading");
         }
 
+        try {
+            return extractSceneFeatures(scene);
+        } finally {
+            Assimp.aiReleaseImport(scene);
+        }
+    }
+
+    private Map<String, Double> extractSceneFeatures(AIScene scene) {
         int vertexCount = 0;
         int faceCount = 0;
         int materialCount = scene.mNumMaterials();
@@ -210,43 +366,56 @@ public class TagClassificationServiceImpl implements TagClassificationService {
         return features;
     }
 
-    public ArrayList<String> classify(VersionDTO versionDTO) {
-        MultipartFile mesh = versionDTO.getMesh();
-
-        byte[] bytes = null;
-
-        try {
-            // A copy of the file is necessary because Tomcat can throw an exception
-            bytes = mesh.getBytes();
-            File tempFile = null;
-            tempFile = File.createTempFile("mesh_", ".fbx");
+    private static void readFully(InputStream dataStream, ByteBuffer buffer) throws IOException {
+        ReadableByteChannel channel = Channels.newChannel(dataStream);
 
-            try (FileOutputStream fos = new FileOutputStream(tempFile)) {
-                fos.write(bytes);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) == -1) {
+                throw new TagClassificationException("Mesh file shorter than its declared size");
             }
+        }
+    }
 
-            Map<String, Double> features = extractFbxFeatures(tempFile);
+    @Override
+    public ArrayList<String> classify(InputStream dataStream, long size) {
+        // The mesh is read by Assimp straight from native memory, no heap copy or temporary file is made
+        try {
+            Map<String, Double> features;
 
-            if (!tempFile.delete()) {
-                throw new TagClassificationException("Error during deletion of multipart copy");
+            if (dataStream instanceof FileInputStream fileStream) {
+                // A mesh stored on disk is mapped read-only
+                FileChannel channel = fileStream.getChannel();
+                features = extractFbxFeatures(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            } else {
+                ByteBuffer fbxData = MemoryUtil.memAlloc(Math.toIntExact(size));
+                try {
+                    readFully(dataStream, fbxData);
+                    features = extractFbxFeatures(fbxData.flip());
+                } finally {
+                    MemoryUtil.memFree(fbxData);
+                }
             }
 
-            float[] inputFeatures = new float[] {
-                    features.get("vertex_count").floatValue(),
-                    features.get("face_count").floatValue(),
-                    features.get("material_count").floatValue(),
-                    features.get("texture_count").floatValue(),
-                    features.get("animation_count").floatValue(),
-                    features.get("texture_richness").floatValue(),
-                    features.get("vertex_count_scaled").floatValue(),
-                    features.get("material_count_scaled").floatValue()
-            };
-
-            return predictAllModels(inputFeatures);
+            return predictFeatures(features);
         } catch (TagClassificationException e) {
             throw e;
         } catch (Exception e) {
             throw new TagClassificationException("Error during classification");
         }
     }
+
+    private ArrayList<String> predictFeatures(Map<String, Double> features) {
+        float[] inputFeatures = new float[] {
+                features.get("vertex_count").floatValue(),
+                features.get("face_count").floatValue(),
+                features.get("material_count").floatValue(),
+                features.get("texture_count").floatValue(),
+                features.get("animation_count").floatValue(),
+                features.get("texture_richness").floatValue(),
+                features.get("vertex_count_scaled").floatValue(),
+                features.get("material_count_scaled").floatValue()
+        };
+
+        return predictAllModels(inputFeatures);
+    }
 }
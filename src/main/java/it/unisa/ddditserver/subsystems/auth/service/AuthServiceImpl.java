@@ -6,7 +6,6 @@ import it.unisa.ddditserver.subsystems.auth.dto.UserDTO;
 import it.unisa.ddditserver.db.cosmos.auth.CosmosAuthRepository;
 import it.unisa.ddditserver.db.gremlin.auth.GremlinAuthRepository;
 import it.unisa.ddditserver.subsystems.auth.exceptions.*;
-import it.unisa.ddditserver.validators.auth.JWT.JWTokenValidator;
 import it.unisa.ddditserver.validators.auth.user.UserValidationDTO;
 import it.unisa.ddditserver.validators.auth.user.UserValidator;
 import jakarta.annotation.PostConstruct;
@@ -28,7 +27,7 @@ public class AuthServiceImpl implements AuthService {
     @Autowired
     private CosmosAuthRepository cosmosAuthRepository;
     @Autowired
-    private JWTokenValidator jwtTokenValidator;
+    private PrincipalResolver principalResolver;
     @Autowired
     private UserValidator userValidator;
 
@@ -56,7 +55,7 @@ public class AuthServiceImpl implements AuthService {
     @Override
     public ResponseEntity<Map<String, String>> signup(UserDTO userDTO, String token) {
         // Check if the token is valid, if it is valid the user is already logged in
-        String retrievedUsername = jwtTokenValidator.isTokenValid(token);
+        String retrievedUsername = principalResolver.resolveUsername(token);
 
         if (retrievedUsername != null) {
             throw new LoggedUserException(retrievedUsername + " is already logged");
@@ -101,7 +100,7 @@ public class AuthServiceImpl implements AuthService {
     @Override
     public ResponseEntity<Map<String, String>> login(UserDTO userDTO, String token) {
         // Check if the token is valid, if it is valid the user is already logged in
-        String retrievedUsername = jwtTokenValidator.isTokenValid(token);
+        String retrievedUsername = principalResolver.resolveUsername(token);
 
         if (retrievedUsername != null) {
             throw new LoggedUserException(retrievedUsername + " is already logged");
@@ -139,7 +138,7 @@ public class AuthServiceImpl implements AuthService {
     @Override
     public ResponseEntity<Map<String, String>> logout(String token) {
         // Check if the token is valid, if it is invalid the user is not logged
-        String retrievedUsername = jwtTokenValidator.isTokenValid(token);
+        String retrievedUsername = principalResolver.resolveUsername(token);
 
         if (retrievedUsername == null) {
             throw new NotLoggedUserException("Missing, invalid, or expired Authorization token");
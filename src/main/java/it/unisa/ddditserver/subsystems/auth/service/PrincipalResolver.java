@@ -0,0 +1,42 @@
+package it.unisa.ddditserver.subsystems.auth.service;
+
+import it.unisa.ddditserver.subsystems.versioning.dto.RepositoryRole;
+
+/**
+ * Service interface for resolving the authenticated principal of the current request.
+ * The token and the role of the principal in a repository are resolved at most once per request,
+ * later calls within the same request are answered from the request attributes.
+ * Outside a request every call is resolved again.
+ *
+ * @version 1.1
+ * @since 2026-10-18
+ */
+public interface PrincipalResolver {
+    /**
+     * Validates the token of the current request.
+     *
+     * @param token the token to validate
+     * @return a string containing the username of the user that sent it, null if the token is not valid
+     */
+    String resolveUsername(String token);
+
+    /**
+     * Finds the role of the user in the repository.
+     *
+     * @param repositoryName the name of the repository
+     * @param username the username of the authenticated user
+     * @return the {@link RepositoryRole} of the user in the repository
+     */
+    RepositoryRole resolveRole(String repositoryName, String username);
+
+    /**
+     * Validates the token of the current request and checks that its user is the owner or a contributor of the repository.
+     *
+     * @param repositoryName the name of the repository
+     * @param token the token to validate
+     * @return a string containing the username of the user that sent the token
+     * @throws it.unisa.ddditserver.subsystems.auth.exceptions.NotLoggedUserException if the token is not valid
+     * @throws it.unisa.ddditserver.subsystems.versioning.exceptions.repo.RepositoryException if the user is not a member of the repository
+     */
+    String requireMember(String repositoryName, String token);
+}
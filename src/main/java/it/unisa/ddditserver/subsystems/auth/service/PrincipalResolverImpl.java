@@ -0,0 +1,97 @@
+package it.unisa.ddditserver.subsystems.auth.service;
+
+import it.unisa.ddditserver.db.gremlin.versioning.repo.GremlinRepositoryRepository;
+import it.unisa.ddditserver.subsystems.auth.dto.UserDTO;
+import it.unisa.ddditserver.subsystems.auth.exceptions.NotLoggedUserException;
+import it.unisa.ddditserver.subsystems.versioning.dto.RepositoryDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.RepositoryRole;
+import it.unisa.ddditserver.subsystems.versioning.exceptions.repo.RepositoryException;
+import it.unisa.ddditserver.validators.auth.JWT.JWTokenValidator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+@Service
+public class PrincipalResolverImpl implements PrincipalResolver {
+    private static final String PRINCIPAL_ATTRIBUTE = PrincipalResolverImpl.class.getName() + ".principal";
+    private static final String ROLES_ATTRIBUTE = PrincipalResolverImpl.class.getName() + ".roles";
+
+    @Autowired
+    private JWTokenValidator jwTokenValidator;
+    @Autowired
+    private GremlinRepositoryRepository gremlinRepositoryRepository;
+
+    // The username is null when the token is not valid, a rejected token is not validated again either
+    private record ResolvedPrincipal(String token, String username) {}
+
+    @Override
+    public String resolveUsername(String token) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+
+        if (attributes == null) {
+            return jwTokenValidator.isTokenValid(token);
+        }
+
+        if (attributes.getAttribute(PRINCIPAL_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof ResolvedPrincipal principal
+                && Objects.equals(principal.token(), token)) {
+            return principal.username();
+        }
+
+        String username = jwTokenValidator.isTokenValid(token);
+        attributes.setAttribute(PRINCIPAL_ATTRIBUTE, new ResolvedPrincipal(token, username), RequestAttributes.SCOPE_REQUEST);
+
+        return username;
+    }
+
+    @Override
+    public RepositoryRole resolveRole(String repositoryName, String username) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+
+        if (attributes == null) {
+            return findUserRole(repositoryName, username);
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, RepositoryRole> roles = (Map<String, RepositoryRole>) attributes.getAttribute(ROLES_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+
+        if (roles == null) {
+            roles = new HashMap<>();
+            attributes.setAttribute(ROLES_ATTRIBUTE, roles, RequestAttributes.SCOPE_REQUEST);
+        }
+
+        // Usernames and repository names can't contain a line feed, so the key can't be ambiguous
+        String key = username + "\n" + repositoryName;
+        RepositoryRole role = roles.get(key);
+
+        if (role == null) {
+            role = findUserRole(repositoryName, username);
+            roles.put(key, role);
+        }
+
+        return role;
+    }
+
+    @Override
+    public String requireMember(String repositoryName, String token) {
+        String username = resolveUsername(token);
+
+        if (username == null) {
+            throw new NotLoggedUserException("Missing, invalid, or expired Authorization token");
+        }
+
+        // Membership also implies that the user exists in graph database
+        if (!resolveRole(repositoryName, username).isMember()) {
+            throw new RepositoryException("Permission denied because " + username + " is not a contributor or the owner of " + repositoryName + " repository");
+        }
+
+        return username;
+    }
+
+    private RepositoryRole findUserRole(String repositoryName, String username) {
+        return gremlinRepositoryRepository.findUserRole(new RepositoryDTO(repositoryName), new UserDTO(username, null));
+    }
+}
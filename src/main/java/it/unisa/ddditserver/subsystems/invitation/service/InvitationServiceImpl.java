@@ -1,14 +1,15 @@
 package it.unisa.ddditserver.subsystems.invitation.service;
 
+import it.unisa.ddditserver.db.gremlin.GremlinFutures;
 import it.unisa.ddditserver.db.gremlin.invitation.GremlinInvitationRepository;
 import it.unisa.ddditserver.db.gremlin.versioning.repo.GremlinRepositoryRepository;
 import it.unisa.ddditserver.subsystems.auth.dto.UserDTO;
 import it.unisa.ddditserver.subsystems.auth.exceptions.NotLoggedUserException;
+import it.unisa.ddditserver.subsystems.auth.service.PrincipalResolver;
 import it.unisa.ddditserver.subsystems.invitation.dto.InvitationDTO;
 import it.unisa.ddditserver.subsystems.invitation.exceptions.InvitationException;
 import it.unisa.ddditserver.subsystems.versioning.dto.RepositoryDTO;
 import it.unisa.ddditserver.subsystems.versioning.exceptions.repo.RepositoryException;
-import it.unisa.ddditserver.validators.auth.JWT.JWTokenValidator;
 import it.unisa.ddditserver.validators.auth.user.UserValidationDTO;
 import it.unisa.ddditserver.validators.auth.user.UserValidator;
 import it.unisa.ddditserver.validators.invitation.InvitationValidationDTO;
@@ -19,6 +20,7 @@ import org.springframework.stereotype.Service;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class InvitationServiceImpl implements  InvitationService {
@@ -27,38 +29,22 @@ public class InvitationServiceImpl implements  InvitationService {
     @Autowired
     private GremlinRepositoryRepository gremlinRepositoryRepository;
     @Autowired
-    private JWTokenValidator jwTokenValidator;
+    private PrincipalResolver principalResolver;
     @Autowired
     private UserValidator userValidator;
     @Autowired
     private InvitationValidator invitationValidator;
 
-    private void checkUserStatus(String repositoryName, String username) {
-        RepositoryDTO repositoryDTO = new RepositoryDTO(repositoryName);
-        UserDTO userDTO = new UserDTO(username, null);
-
-        if (!gremlinRepositoryRepository.isContributor(repositoryDTO, userDTO) && !gremlinRepositoryRepository.isOwner(repositoryDTO, userDTO)) {
-            throw new RepositoryException("Permission denied because " + username + " is not a contributor or the owner of " + repositoryName + " repository");
-        }
-    }
-
     @Override
     public ResponseEntity<Map<String, String>> sendInvitation(InvitationDTO invitationDTO, String token) {
-        String retrievedUsername = jwTokenValidator.isTokenValid(token);
         String repositoryName = invitationDTO.getRepositoryName();
         String toUsername = invitationDTO.getToUsername();
 
-        if (retrievedUsername == null) {
-            throw new NotLoggedUserException("Missing, invalid, or expired Authorization token");
-        }
-
-        checkUserStatus(repositoryName, retrievedUsername);
+        String retrievedUsername = principalResolver.requireMember(repositoryName, token);
 
-        UserValidationDTO fromUserValidationDTO = new UserValidationDTO(retrievedUsername, null);
         UserValidationDTO toUserValidationDTO = new UserValidationDTO(toUsername, null);
 
-        // Check if users exist in graph database
-        userValidator.validateExistence(fromUserValidationDTO, true);
+        // Check if the invited user exists in graph database
         userValidator.validateExistence(toUserValidationDTO, true);
 
         InvitationValidationDTO invitationValidationDTO = new InvitationValidationDTO(retrievedUsername, toUsername, repositoryName);
@@ -70,10 +56,10 @@ public class InvitationServiceImpl implements  InvitationService {
         invitationValidator.validatePendingInvitation(invitationValidationDTO, false);
 
         try {
-            gremlinInvitationRepository.saveInvitation(
+            GremlinFutures.join(gremlinInvitationRepository.saveInvitationAsync(
                     new UserDTO(retrievedUsername, null),
                     new UserDTO(toUsername, null),
-                    new RepositoryDTO(repositoryName));
+                    new RepositoryDTO(repositoryName)));
         } catch (Exception e) {
             throw new InvitationException(e.getMessage());
         }
@@ -86,7 +72,7 @@ public class InvitationServiceImpl implements  InvitationService {
 
     @Override
     public ResponseEntity<Map<String, String>> acceptInvitation(InvitationDTO invitationDTO, String token) {
-        String retrievedUsername = jwTokenValidator.isTokenValid(token);
+        String retrievedUsername = principalResolver.resolveUsername(token);
         String repositoryName = invitationDTO.getRepositoryName();
         String fromUsername = invitationDTO.getToUsername(); // Also if it is called toUsername it refers to the original user who sent the invitation
 
@@ -110,11 +96,16 @@ public class InvitationServiceImpl implements  InvitationService {
         invitationValidator.validatePendingInvitation(invitationValidationDTO, true);
 
         try {
-            gremlinInvitationRepository.acceptInvitation(
-                    new UserDTO(fromUsername, null),
-                    new UserDTO(retrievedUsername, null),
-                    new RepositoryDTO(repositoryName));
-            gremlinRepositoryRepository.addContributor(new RepositoryDTO(repositoryName), new UserDTO(retrievedUsername, null));
+            // The user becomes a contributor only once the invitation is accepted, a failed acceptance adds no edge
+            CompletableFuture<Void> contributed = gremlinInvitationRepository.acceptInvitationAsync(
+                            new UserDTO(fromUsername, null),
+                            new UserDTO(retrievedUsername, null),
+                            new RepositoryDTO(repositoryName))
+                    .thenCompose(accepted -> gremlinRepositoryRepository.addContributorAsync(
+                            new RepositoryDTO(repositoryName),
+                            new UserDTO(retrievedUsername, null)));
+
+            GremlinFutures.join(contributed);
         } catch (Exception e) {
             throw new RepositoryException(e.getMessage());
         }
@@ -127,7 +118,7 @@ public class InvitationServiceImpl implements  InvitationService {
 
     @Override
     public ResponseEntity<Map<String, Object>> listPendingInvitations(String token) {
-        String retrievedUsername = jwTokenValidator.isTokenValid(token);
+        String retrievedUsername = principalResolver.resolveUsername(token);
 
         if (retrievedUsername == null) {
             throw new NotLoggedUserException("Missing, invalid, or expired Authorization token");
@@ -0,0 +1,70 @@
+package it.unisa.ddditserver.subsystems.metrics.controller;
+
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Controller interface for metrics endpoints.
+ *
+ * Provides operations for inspecting the usage of shared server resources
+ * in order to size them for production load.
+ *
+ * @version 1.4
+ * @since 2026-10-18
+ */
+public interface MetricsController {
+    /**
+     * Handles the request to show the saturation metrics of the Gremlin connection pool.
+     *
+     * @return a ResponseEntity containing the pool settings and usage counters
+     */
+    ResponseEntity<?> showGremlinPoolMetrics();
+
+    /**
+     * Handles the request to show the metrics of the background tag classification queue.
+     *
+     * @return a ResponseEntity containing the queue settings and usage counters
+     */
+    ResponseEntity<?> showClassificationQueueMetrics();
+
+    /**
+     * Handles the request to show the counters of the JWT validation stages.
+     *
+     * @return a ResponseEntity containing the accepted tokens and the rejections of each stage
+     */
+    ResponseEntity<?> showTokenValidationMetrics();
+
+    /**
+     * Handles the request to show the hit and miss counters of the repository membership cache.
+     *
+     * @return a ResponseEntity containing the cache settings and usage counters
+     */
+    ResponseEntity<?> showMembershipCacheMetrics();
+
+    /**
+     * Handles the request to show the request execution mode and the platform thread counters.
+     *
+     * @return a ResponseEntity containing the execution mode and thread counters
+     */
+    ResponseEntity<?> showThreadMetrics();
+
+    /**
+     * Handles the request to show the hit and miss counters of the Cosmos version document cache.
+     *
+     * @return a ResponseEntity containing the cache settings and usage counters
+     */
+    ResponseEntity<?> showVersionCacheMetrics();
+
+    /**
+     * Handles the request to show the counters of the pushes recorded in the push journal.
+     *
+     * @return a ResponseEntity containing the recovery settings and push counters
+     */
+    ResponseEntity<?> showPushSagaMetrics();
+
+    /**
+     * Handles the request to show the progress counters of the orphan reconciler.
+     *
+     * @return a ResponseEntity containing the reconciler settings and progress counters
+     */
+    ResponseEntity<?> showReconcilerMetrics();
+}
@@ -0,0 +1,73 @@
+package it.unisa.ddditserver.subsystems.metrics.controller;
+
+import it.unisa.ddditserver.subsystems.metrics.service.MetricsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/metrics")
+public class MetricsControllerImpl implements MetricsController {
+    @Autowired
+    private MetricsService metricsService;
+
+    @Override
+    @GetMapping("/gremlin")
+    public ResponseEntity<Map<String, Object>> showGremlinPoolMetrics() {
+        return metricsService.showGremlinPoolMetrics();
+    }
+
+    @Override
+    @GetMapping("/classification")
+    public ResponseEntity<Map<String, Object>> showClassificationQueueMetrics() {
+        return metricsService.showClassificationQueueMetrics();
+    }
+
+    @Override
+    @GetMapping("/auth")
+    public ResponseEntity<Map<String, Object>> showTokenValidationMetrics() {
+        return metricsService.showTokenValidationMetrics();
+    }
+
+    @Override
+    @GetMapping("/membership")
+    public ResponseEntity<Map<String, Object>> showMembershipCacheMetrics() {
+        return metricsService.showMembershipCacheMetrics();
+    }
+
+    @Override
+    @GetMapping("/threads")
+    public ResponseEntity<Map<String, Object>> showThreadMetrics() {
+        return metricsService.showThreadMetrics();
+    }
+
+    @Override
+    @GetMapping("/versions")
+    public ResponseEntity<Map<String, Object>> showVersionCacheMetrics() {
+        return metricsService.showVersionCacheMetrics();
+    }
+
+    @Override
+    @GetMapping("/pushes")
+    public ResponseEntity<Map<String, Object>> showPushSagaMetrics() {
+        return metricsService.showPushSagaMetrics();
+    }
+
+    @Override
+    @GetMapping("/reconciler")
+    public ResponseEntity<Map<String, Object>> showReconcilerMetrics() {
+        return metricsService.showReconcilerMetrics();
+    }
+
+    // Every endpoint only reads in-memory counters, a failure of any of them is reported the same way
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<Map<String, Object>> handleMetricsError(Exception e) {
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Unexpected error during metrics retrieve", "details", String.valueOf(e.getMessage())));
+    }
+}
@@ -0,0 +1,69 @@
+package it.unisa.ddditserver.subsystems.metrics.service;
+
+import org.springframework.http.ResponseEntity;
+import java.util.Map;
+
+/**
+ * Service interface for metrics-related operations.
+ * Provides methods to collect usage counters of shared server resources.
+ *
+ * @version 1.5
+ * @since 2026-10-18
+ */
+public interface MetricsService {
+    /**
+     * Retrieves the saturation metrics of the shared Gremlin connection pool.
+     *
+     * @return a ResponseEntity containing a map with pool settings and usage counters
+     */
+    ResponseEntity<Map<String, Object>> showGremlinPoolMetrics();
+
+    /**
+     * Retrieves the metrics of the background tag classification queue.
+     *
+     * @return a ResponseEntity containing a map with queue settings and usage counters
+     */
+    ResponseEntity<Map<String, Object>> showClassificationQueueMetrics();
+
+    /**
+     * Retrieves the counters of the JWT validation stages and of the in-memory blacklist mirror.
+     *
+     * @return a ResponseEntity containing a map with the accepted tokens, the rejections of each stage and the blacklist mirror counters
+     */
+    ResponseEntity<Map<String, Object>> showTokenValidationMetrics();
+
+    /**
+     * Retrieves the hit and miss counters of the repository membership cache.
+     *
+     * @return a ResponseEntity containing a map with cache settings and usage counters
+     */
+    ResponseEntity<Map<String, Object>> showMembershipCacheMetrics();
+
+    /**
+     * Retrieves the request execution mode and the platform thread counters of the JVM.
+     *
+     * @return a ResponseEntity containing a map with the execution mode and thread counters
+     */
+    ResponseEntity<Map<String, Object>> showThreadMetrics();
+
+    /**
+     * Retrieves the hit and miss counters of the Cosmos version document cache.
+     *
+     * @return a ResponseEntity containing a map with cache settings and usage counters
+     */
+    ResponseEntity<Map<String, Object>> showVersionCacheMetrics();
+
+    /**
+     * Retrieves the counters of the pushes recorded in the push journal.
+     *
+     * @return a ResponseEntity containing a map with recovery settings and push counters
+     */
+    ResponseEntity<Map<String, Object>> showPushSagaMetrics();
+
+    /**
+     * Retrieves the progress counters of the orphan reconciler.
+     *
+     * @return a ResponseEntity containing a map with reconciler settings and progress counters
+     */
+    ResponseEntity<Map<String, Object>> showReconcilerMetrics();
+}
@@ -0,0 +1,106 @@
+package it.unisa.ddditserver.subsystems.metrics.service;
+
+import it.unisa.ddditserver.db.cosmos.auth.CosmosAuthRepository;
+import it.unisa.ddditserver.db.cosmos.versioning.CosmosVersionCache;
+import it.unisa.ddditserver.db.gremlin.GremlinClient;
+import it.unisa.ddditserver.db.gremlin.versioning.repo.RepositoryMembershipCache;
+import it.unisa.ddditserver.db.gremlin.versioning.version.VersionPushSaga;
+import it.unisa.ddditserver.subsystems.ai.service.TagClassificationPipeline;
+import it.unisa.ddditserver.validators.auth.JWT.JWTokenValidator;
+import it.unisa.ddditserver.subsystems.versioning.service.version.VersionOrphanReconciler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Service
+public class MetricsServiceImpl implements MetricsService {
+    @Autowired
+    private GremlinClient gremlinClient;
+    @Autowired
+    private TagClassificationPipeline tagClassificationPipeline;
+    @Autowired
+    private JWTokenValidator jwTokenValidator;
+    @Autowired
+    private CosmosAuthRepository cosmosAuthRepository;
+    @Autowired
+    private RepositoryMembershipCache repositoryMembershipCache;
+    @Autowired
+    private Environment environment;
+    @Autowired
+    private CosmosVersionCache cosmosVersionCache;
+    @Autowired
+    private VersionPushSaga versionPushSaga;
+    @Autowired
+    private VersionOrphanReconciler versionOrphanReconciler;
+
+    @Override
+    public ResponseEntity<Map<String, Object>> showGremlinPoolMetrics() {
+        return metricsResponse("Gremlin pool metrics retrieved successfully", "gremlinPool", gremlinClient.getPoolMetrics());
+    }
+
+    @Override
+    public ResponseEntity<Map<String, Object>> showClassificationQueueMetrics() {
+        return metricsResponse("Classification queue metrics retrieved successfully", "classificationQueue", tagClassificationPipeline.getQueueMetrics());
+    }
+
+    @Override
+    public ResponseEntity<Map<String, Object>> showTokenValidationMetrics() {
+        Map<String, Object> tokenValidation = new LinkedHashMap<>(jwTokenValidator.getValidationMetrics());
+        tokenValidation.put("blacklistCache", cosmosAuthRepository.getBlacklistCacheMetrics());
+
+        return metricsResponse("Token validation metrics retrieved successfully", "tokenValidation", tokenValidation);
+    }
+
+    @Override
+    public ResponseEntity<Map<String, Object>> showMembershipCacheMetrics() {
+        return metricsResponse("Membership cache metrics retrieved successfully", "membershipCache", repositoryMembershipCache.getCacheMetrics());
+    }
+
+    @Override
+    public ResponseEntity<Map<String, Object>> showThreadMetrics() {
+        int javaVersion = Runtime.version().feature();
+        boolean virtualThreadsEnabled = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+        Map<String, Object> threads = new LinkedHashMap<>();
+        threads.put("javaVersion", javaVersion);
+        threads.put("virtualThreadsEnabled", virtualThreadsEnabled);
+        // Spring Boot ignores the property below Java 21 and keeps the platform thread pool
+        threads.put("virtualThreadsActive", virtualThreadsEnabled && javaVersion >= 21);
+        // The thread counters cover the platform threads only, virtual threads are not counted
+        threads.put("platformThreads", threadMXBean.getThreadCount());
+        threads.put("peakPlatformThreads", threadMXBean.getPeakThreadCount());
+        threads.put("daemonPlatformThreads", threadMXBean.getDaemonThreadCount());
+
+        return metricsResponse("Thread metrics retrieved successfully", "threads", threads);
+    }
+
+    @Override
+    public ResponseEntity<Map<String, Object>> showVersionCacheMetrics() {
+        return metricsResponse("Version cache metrics retrieved successfully", "versionCache", cosmosVersionCache.getCacheMetrics());
+    }
+
+    @Override
+    public ResponseEntity<Map<String, Object>> showPushSagaMetrics() {
+        return metricsResponse("Push metrics retrieved successfully", "pushSaga", versionPushSaga.getSagaMetrics());
+    }
+
+    @Override
+    public ResponseEntity<Map<String, Object>> showReconcilerMetrics() {
+        return metricsResponse("Reconciler metrics retrieved successfully", "reconciler", versionOrphanReconciler.getReconcilerMetrics());
+    }
+
+    private static ResponseEntity<Map<String, Object>> metricsResponse(String message, String key, Map<String, ?> metrics) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", message);
+        response.put(key, metrics);
+
+        return ResponseEntity.ok(response);
+    }
+}
@@ -14,7 +14,7 @@ import org.springframework.web.bind.annotation.RequestBody;
  * within the versioning subsystem.
  *
  * @author Angelo Antonio Prisco
- * @version 1.0
+ * @version 1.1
  * @since 2025-08-11
  */
 public interface BranchController {
@@ -29,11 +29,13 @@ public interface BranchController {
     ResponseEntity<?> createResource(@RequestBody BranchDTO branchDTO, HttpServletRequest request);
 
     /**
-     * Handles the request to list all branches of a given resource.
+     * Handles the request to list a page of the branches of a given resource.
      *
      * @param resourceDTO the resource data transfer object identifying the resource
+     * @param continuationToken the token returned with the previous page, or null for the first page
+     * @param pageSize the maximum number of items of the page, the default page size if not positive
      * @param request the HTTP servlet request object
-     * @return a ResponseEntity containing the list of branches for the specified resource
+     * @return a ResponseEntity containing the page of branches for the specified resource
      */
-    ResponseEntity<?> listBranchesByResource(@RequestBody ResourceDTO resourceDTO, HttpServletRequest request);
+    ResponseEntity<?> listBranchesByResource(@RequestBody ResourceDTO resourceDTO, String continuationToken, int pageSize, HttpServletRequest request);
 }
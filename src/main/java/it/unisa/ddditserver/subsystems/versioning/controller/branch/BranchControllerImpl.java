@@ -3,6 +3,7 @@ package it.unisa.ddditserver.subsystems.versioning.controller.branch;
 import it.unisa.ddditserver.subsystems.auth.exceptions.NotLoggedUserException;
 import it.unisa.ddditserver.subsystems.versioning.dto.BranchDTO;
 import it.unisa.ddditserver.subsystems.versioning.dto.ResourceDTO;
+import it.unisa.ddditserver.subsystems.versioning.exceptions.InvalidContinuationTokenException;
 import it.unisa.ddditserver.subsystems.versioning.exceptions.branch.BranchException;
 import it.unisa.ddditserver.subsystems.versioning.exceptions.branch.ExistingBranchException;
 import it.unisa.ddditserver.subsystems.versioning.exceptions.branch.InvalidBranchNameException;
@@ -58,12 +59,15 @@ public class BranchControllerImpl implements BranchController {
 
     @Override
     @PostMapping("/list")
-    public ResponseEntity<Map<String, Object>> listBranchesByResource(@RequestBody ResourceDTO resourceDTO, HttpServletRequest request) {
+    public ResponseEntity<Map<String, Object>> listBranchesByResource(@RequestBody ResourceDTO resourceDTO,
+                                                                      @RequestParam(value = "continuationToken", required = false) String continuationToken,
+                                                                      @RequestParam(value = "pageSize", defaultValue = "0") int pageSize,
+                                                                      HttpServletRequest request) {
         String token = extractToken(request);
 
         try {
-            return branchService.listBranchesByResource(resourceDTO, token);
-        } catch (RepositoryException | ResourceException | NotLoggedUserException e) {
+            return branchService.listBranchesByResource(resourceDTO, continuationToken, pageSize, token);
+        } catch (RepositoryException | ResourceException | InvalidContinuationTokenException | NotLoggedUserException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(Map.of("error", e.getMessage()));
         } catch (BranchException e) {
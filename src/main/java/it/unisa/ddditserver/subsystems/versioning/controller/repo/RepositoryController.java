@@ -13,7 +13,7 @@ import org.springframework.web.bind.annotation.RequestBody;
  * by the authenticated user within the versioning subsystem.
  *
  * @author Angelo Antonio Prisco
- * @version 1.0
+ * @version 1.1
  * @since 2025-08-12
  */
 public interface RepositoryController {
@@ -28,18 +28,22 @@ public interface RepositoryController {
     ResponseEntity<?> createRepository(@RequestBody RepositoryDTO repositoryDTO, HttpServletRequest request);
 
     /**
-     * Handles the request to list all repositories owned by the authenticated user.
+     * Handles the request to list a page of the repositories owned by the authenticated user.
      *
+     * @param continuationToken the token returned with the previous page, or null for the first page
+     * @param pageSize the maximum number of items of the page, the default page size if not positive
      * @param request the HTTP servlet request object
-     * @return a ResponseEntity containing the list of repositories owned by the user
+     * @return a ResponseEntity containing the page of repositories owned by the user
      */
-    ResponseEntity<?> listOwnedRepositories(HttpServletRequest request);
+    ResponseEntity<?> listOwnedRepositories(String continuationToken, int pageSize, HttpServletRequest request);
 
     /**
-     * Handles the request to list all repositories where the authenticated user is a contributor.
+     * Handles the request to list a page of the repositories where the authenticated user is a contributor.
      *
+     * @param continuationToken the token returned with the previous page, or null for the first page
+     * @param pageSize the maximum number of items of the page, the default page size if not positive
      * @param request the HTTP servlet request object
-     * @return a ResponseEntity containing the list of repositories the user contributes to
+     * @return a ResponseEntity containing the page of repositories the user contributes to
      */
-    ResponseEntity<?> listContributedRepositories(HttpServletRequest request);
+    ResponseEntity<?> listContributedRepositories(String continuationToken, int pageSize, HttpServletRequest request);
 }
@@ -2,6 +2,7 @@ package it.unisa.ddditserver.subsystems.versioning.controller.repo;
 
 import it.unisa.ddditserver.subsystems.auth.exceptions.NotLoggedUserException;
 import it.unisa.ddditserver.subsystems.versioning.dto.RepositoryDTO;
+import it.unisa.ddditserver.subsystems.versioning.exceptions.InvalidContinuationTokenException;
 import it.unisa.ddditserver.subsystems.versioning.exceptions.repo.ExistingRepositoryException;
 import it.unisa.ddditserver.subsystems.versioning.exceptions.repo.InvalidRepositoryNameException;
 import it.unisa.ddditserver.subsystems.versioning.exceptions.repo.RepositoryException;
@@ -46,12 +47,14 @@ public class RepositoryControllerImpl implements RepositoryController {
     }
 
     @GetMapping("/owned")
-    public ResponseEntity<Map<String, Object>> listOwnedRepositories(HttpServletRequest request) {
+    public ResponseEntity<Map<String, Object>> listOwnedRepositories(@RequestParam(value = "continuationToken", required = false) String continuationToken,
+                                                                      @RequestParam(value = "pageSize", defaultValue = "0") int pageSize,
+                                                                      HttpServletRequest request) {
         String token = extractToken(request);
 
         try {
-            return repositoryService.listRepositoriesOwned(token);
-        } catch (NotLoggedUserException e) {
+            return repositoryService.listRepositoriesOwned(continuationToken, pageSize, token);
+        } catch (InvalidContinuationTokenException | NotLoggedUserException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(Map.of("error", e.getMessage()));
         } catch (RepositoryException e) {
@@ -64,12 +67,14 @@ public class RepositoryControllerImpl implements RepositoryController {
     }
 
     @GetMapping("/contributed")
-    public ResponseEntity<Map<String, Object>> listContributedRepositories(HttpServletRequest request) {
+    public ResponseEntity<Map<String, Object>> listContributedRepositories(@RequestParam(value = "continuationToken", required = false) String continuationToken,
+                                                                            @RequestParam(value = "pageSize", defaultValue = "0") int pageSize,
+                                                                            HttpServletRequest request) {
         String token = extractToken(request);
 
         try {
-            return repositoryService.listRepositoriesContributed(token);
-        } catch (NotLoggedUserException e) {
+            return repositoryService.listRepositoriesContributed(continuationToken, pageSize, token);
+        } catch (InvalidContinuationTokenException | NotLoggedUserException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(Map.of("error", e.getMessage()));
         } catch (RepositoryException e) {
@@ -14,7 +14,7 @@ import org.springframework.web.bind.annotation.RequestBody;
  * in the versioning subsystem.
  *
  * @author Angelo Antonio Prisco
- * @version 1.0
+ * @version 1.3
  * @since 2025-08-14
  */
 public interface ResourceController {
@@ -29,20 +29,24 @@ public interface ResourceController {
     ResponseEntity<?> createResource(@RequestBody ResourceDTO resourceDTO, HttpServletRequest request);
 
     /**
-     * Handles the request to list all resources contained in a repository.
+     * Handles the request to list a page of the resources contained in a repository.
      *
      * @param repositoryDTO the repository data transfer object identifying the repository
+     * @param continuationToken the token returned with the previous page, or null for the first page
+     * @param pageSize the maximum number of items of the page, the default page size if not positive
      * @param request the HTTP servlet request object
-     * @return a ResponseEntity containing the list of resources in the specified repository
+     * @return a ResponseEntity containing the page of resources in the specified repository
      */
-    ResponseEntity<?> listResourcesByRepository(@RequestBody RepositoryDTO repositoryDTO, HttpServletRequest request);
+    ResponseEntity<?> listResourcesByRepository(@RequestBody RepositoryDTO repositoryDTO, String continuationToken, int pageSize, HttpServletRequest request);
 
     /**
      * Handles the request to display the version tree of a resource.
      *
      * @param resourceDTO the resource data transfer object identifying the resource
+     * @param continuationToken the token returned with the previous page, or null for the first page
+     * @param pageSize the maximum number of branches of the page, the default page size if not positive
      * @param request the HTTP servlet request object
-     * @return a ResponseEntity containing the version tree of the specified resource
+     * @return a ResponseEntity containing a page of the version tree of the specified resource
      */
-    ResponseEntity<?> showVersionTree(@RequestBody ResourceDTO resourceDTO, HttpServletRequest request);
+    ResponseEntity<?> showVersionTree(@RequestBody ResourceDTO resourceDTO, String continuationToken, int pageSize, HttpServletRequest request);
 }
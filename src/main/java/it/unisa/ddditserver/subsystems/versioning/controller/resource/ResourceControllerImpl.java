@@ -3,6 +3,7 @@ package it.unisa.ddditserver.subsystems.versioning.controller.resource;
 import it.unisa.ddditserver.subsystems.auth.exceptions.NotLoggedUserException;
 import it.unisa.ddditserver.subsystems.versioning.dto.RepositoryDTO;
 import it.unisa.ddditserver.subsystems.versioning.dto.ResourceDTO;
+import it.unisa.ddditserver.subsystems.versioning.exceptions.InvalidContinuationTokenException;
 import it.unisa.ddditserver.subsystems.versioning.exceptions.repo.InvalidRepositoryNameException;
 import it.unisa.ddditserver.subsystems.versioning.exceptions.repo.RepositoryException;
 import it.unisa.ddditserver.subsystems.versioning.exceptions.repo.RepositoryNotFoundException;
@@ -53,12 +54,15 @@ public class ResourceControllerImpl implements ResourceController {
 
     @Override
     @PostMapping("/list")
-    public ResponseEntity<Map<String, Object>> listResourcesByRepository(@RequestBody RepositoryDTO repositoryDTO, HttpServletRequest request) {
+    public ResponseEntity<Map<String, Object>> listResourcesByRepository(@RequestBody RepositoryDTO repositoryDTO,
+                                                                          @RequestParam(value = "continuationToken", required = false) String continuationToken,
+                                                                          @RequestParam(value = "pageSize", defaultValue = "0") int pageSize,
+                                                                          HttpServletRequest request) {
         String token = extractToken(request);
 
         try {
-            return resourceService.listResourcesByRepository(repositoryDTO, token);
-        } catch (RepositoryException | NotLoggedUserException e) {
+            return resourceService.listResourcesByRepository(repositoryDTO, continuationToken, pageSize, token);
+        } catch (RepositoryException | InvalidContinuationTokenException | NotLoggedUserException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(Map.of("error", e.getMessage()));
         } catch (ResourceException e) {
@@ -72,13 +76,16 @@ public class ResourceControllerImpl implements ResourceController {
 
     @Override
     @PostMapping("/tree")
-    public ResponseEntity<Map<String, Object>> showVersionTree(@RequestBody ResourceDTO resourceDTO, HttpServletRequest request) {
+    public ResponseEntity<Map<String, Object>> showVersionTree(@RequestBody ResourceDTO resourceDTO,
+                                                               @RequestParam(value = "continuationToken", required = false) String continuationToken,
+                                                               @RequestParam(value = "pageSize", defaultValue = "0") int pageSize,
+                                                               HttpServletRequest request) {
         String token = extractToken(request);
 
         try {
-            return resourceService.showVersionTree(resourceDTO, token);
-        } catch (RepositoryException | InvalidResourceNameException |
-                 ExistingResourceException | NotLoggedUserException e) {
+            return resourceService.showVersionTree(resourceDTO, continuationToken, pageSize, token);
+        } catch (RepositoryException | InvalidResourceNameException | ExistingResourceException |
+                 InvalidContinuationTokenException | NotLoggedUserException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(Map.of("error", e.getMessage()));
         } catch (ResourceException e) {
@@ -36,6 +36,16 @@ public interface VersionController {
      */
     ResponseEntity<?> pullVersion(@ModelAttribute VersionDTO versionDTO, HttpServletRequest request);
 
+    /**
+     * Handles the request to stream a single file of a specific version, supporting HTTP ranges.
+     *
+     * @param versionDTO the version data transfer object identifying the version to retrieve
+     * @param fileName the name of the texture to stream, required only for materials with more than one texture
+     * @param request the HTTP servlet request object
+     * @return a ResponseEntity streaming the requested bytes of the file or an error status
+     */
+    ResponseEntity<?> streamVersion(@ModelAttribute VersionDTO versionDTO, String fileName, HttpServletRequest request);
+
     /**
      * Handles the request to display metadata for a specific version.
      *
@@ -10,6 +10,7 @@ import it.unisa.ddditserver.subsystems.versioning.service.version.VersionService
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServletServerHttpRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.Map;
@@ -72,6 +73,30 @@ public class VersionControllerImpl implements VersionController {
         }
     }
 
+    @Override
+    @GetMapping("/pull/stream")
+    public ResponseEntity<?> streamVersion(@ModelAttribute VersionDTO versionDTO,
+                                           @RequestParam(value = "fileName", required = false) String fileName,
+                                           HttpServletRequest request) {
+        String token = extractToken(request);
+
+        try {
+            return versionService.streamVersion(versionDTO, fileName, new ServletServerHttpRequest(request).getHeaders(), token);
+        } catch (RepositoryException | ResourceException |
+                 BranchException | InvalidVersionNameException |
+                 InvalidCommentException | InvalidMeshException |
+                 InvalidMaterialException | NotLoggedUserException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (VersionException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Unexpected error during version stream", "details", e.getMessage()));
+        }
+    }
+
     @Override
     @PostMapping("/metadata")
     public ResponseEntity<Map<String, Object>> showVersionMetadata(@RequestBody VersionDTO versionDTO, HttpServletRequest request) {
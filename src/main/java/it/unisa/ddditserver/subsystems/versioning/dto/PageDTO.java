@@ -0,0 +1,24 @@
+package it.unisa.ddditserver.subsystems.versioning.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) representing a page of a listing sorted by name.
+ *
+ * <ul>
+ *     <li>{@code items} - the items of the page.</li>
+ *     <li>{@code continuationToken} - the opaque token to request the next page, null if this is the last page.</li>
+ * </ul>
+ *
+ * @param <T> the type of the items of the page
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageDTO<T> {
+    private List<T> items;
+    private String continuationToken;
+}
@@ -0,0 +1,25 @@
+package it.unisa.ddditserver.subsystems.versioning.dto;
+
+/**
+ * Role of a user in a repository.
+ *
+ * <ul>
+ *     <li>{@code OWNER} - the user owns the repository.</li>
+ *     <li>{@code CONTRIBUTOR} - the user contributes to the repository.</li>
+ *     <li>{@code NONE} - the user has no role in the repository, or one of the two does not exist.</li>
+ * </ul>
+ */
+public enum RepositoryRole {
+    OWNER,
+    CONTRIBUTOR,
+    NONE;
+
+    /**
+     * Checks whether the role allows to work on the repository.
+     *
+     * @return true if the role is {@code OWNER} or {@code CONTRIBUTOR}, false otherwise
+     */
+    public boolean isMember() {
+        return this != NONE;
+    }
+}
@@ -0,0 +1,44 @@
+package it.unisa.ddditserver.subsystems.versioning.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) representing a path in the versioning hierarchy.
+ * The path ends at the last non null name, the names of the inner levels are left null.
+ *
+ * <ul>
+ *     <li>{@code repositoryName} - the name of the repository.</li>
+ *     <li>{@code resourceName} - the name of the resource, null if the path ends at the repository.</li>
+ *     <li>{@code branchName} - the name of the branch, null if the path ends at the resource.</li>
+ *     <li>{@code versionName} - the name of the version, null if the path ends at the branch.</li>
+ * </ul>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VersioningPathDTO {
+    private String repositoryName;
+    private String resourceName;
+    private String branchName;
+    private String versionName;
+
+    /**
+     * Returns the innermost level of the path.
+     *
+     * @return the {@link VersioningPathLevel} of the last non null name
+     */
+    public VersioningPathLevel getLeafLevel() {
+        if (resourceName == null) {
+            return VersioningPathLevel.REPOSITORY;
+        }
+        if (branchName == null) {
+            return VersioningPathLevel.RESOURCE;
+        }
+        if (versionName == null) {
+            return VersioningPathLevel.BRANCH;
+        }
+        return VersioningPathLevel.VERSION;
+    }
+}
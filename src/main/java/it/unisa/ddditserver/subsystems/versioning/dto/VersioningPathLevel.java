@@ -0,0 +1,18 @@
+package it.unisa.ddditserver.subsystems.versioning.dto;
+
+/**
+ * Level of a path in the versioning hierarchy, from the outermost to the innermost.
+ *
+ * <ul>
+ *     <li>{@code REPOSITORY} - the repository of the path.</li>
+ *     <li>{@code RESOURCE} - a resource contained in the repository.</li>
+ *     <li>{@code BRANCH} - a branch of the resource.</li>
+ *     <li>{@code VERSION} - a version of the branch.</li>
+ * </ul>
+ */
+public enum VersioningPathLevel {
+    REPOSITORY,
+    RESOURCE,
+    BRANCH,
+    VERSION
+}
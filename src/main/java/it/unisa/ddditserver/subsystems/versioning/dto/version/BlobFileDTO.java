@@ -0,0 +1,28 @@
+package it.unisa.ddditserver.subsystems.versioning.dto.version;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) representing a file of a version stored in BLOB Storage,
+ * without its content.
+ *
+ * <ul>
+ *     <li>{@code blobUrl} - the URL pointing to the file stored in BLOB Storage.</li>
+ *     <li>{@code fileName} - the name of the file, without the folders of its path.</li>
+ *     <li>{@code contentType} - the content-type of the file.</li>
+ *     <li>{@code size} - the size of the file in bytes.</li>
+ *     <li>{@code eTag} - the ETag of the BLOB, changed by BLOB Storage at every write.</li>
+ * </ul>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BlobFileDTO {
+    private String blobUrl;
+    private String fileName;
+    private String contentType;
+    private long size;
+    private String eTag;
+}
@@ -18,6 +18,7 @@ import java.util.List;
  *     <li>{@code comment} - an optional comment describing the version.</li>
  *     <li>{@code tags} - a list of tags associated with the version.</li>
  *     <li>{@code blobUrl} - the URL pointing to the version stored in BLOB Storage.</li>
+ *     <li>{@code tagsStatus} - the status of the tag classification, missing in documents written before it was introduced.</li>
  * </ul>
  */
 @Data
@@ -33,4 +34,10 @@ public class CosmosVersionDTO {
     private String comment;
     private List<String> tags;
     private String blobUrl;
+    private TagsStatus tagsStatus;
+
+    public CosmosVersionDTO(String id, String resourceId, String resourceName, String versionName, String username,
+                            LocalDateTime pushedAt, String comment, List<String> tags, String blobUrl) {
+        this(id, resourceId, resourceName, versionName, username, pushedAt, comment, tags, blobUrl, null);
+    }
 }
@@ -0,0 +1,37 @@
+package it.unisa.ddditserver.subsystems.versioning.dto.version;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) representing a push recorded in the push journal of CosmosDB.
+ * The locations of the artifacts are known before they are written, so a push interrupted at any step can be rolled back.
+ *
+ * <ul>
+ *     <li>{@code id} - the unique id of the push, used as the Partition Key in CosmosDB.</li>
+ *     <li>{@code repositoryName} - the name of the repository receiving the version.</li>
+ *     <li>{@code versionKey} - the composite key of the version vertex.</li>
+ *     <li>{@code resourceType} - the type of the resource, mesh or material.</li>
+ *     <li>{@code blobUrl} - the URL of the mesh or of the material folder in BLOB Storage.</li>
+ *     <li>{@code cosmosDocumentUrl} - the URL of the version document in CosmosDB.</li>
+ *     <li>{@code status} - the status of the push.</li>
+ *     <li>{@code updatedAtMillis} - the epoch milliseconds of the last update of the entry, refreshed while the push is alive.</li>
+ *     <li>{@code writtenBlobs} - the BLOBs written by the push, each with the ETag of the content it wrote.</li>
+ * </ul>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PushJournalEntryDTO {
+    private String id;
+    private String repositoryName;
+    private String versionKey;
+    private String resourceType;
+    private String blobUrl;
+    private String cosmosDocumentUrl;
+    private PushStatus status;
+    private long updatedAtMillis;
+    private List<WrittenBlobDTO> writtenBlobs;
+}
@@ -0,0 +1,15 @@
+package it.unisa.ddditserver.subsystems.versioning.dto.version;
+
+/**
+ * Status of a push recorded in the push journal.
+ * Committed pushes are removed from the journal, so only pushes in progress or being rolled back are found in it.
+ *
+ * <ul>
+ *     <li>{@code STARTED} - the BLOB upload and the Cosmos DB document may have been written, the version vertex may not.</li>
+ *     <li>{@code COMPENSATING} - the push failed and the written artifacts are being removed.</li>
+ * </ul>
+ */
+public enum PushStatus {
+    STARTED,
+    COMPENSATING
+}
@@ -0,0 +1,23 @@
+package it.unisa.ddditserver.subsystems.versioning.dto.version;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) representing a BLOB found by a listing of a BLOB Storage container.
+ *
+ * <ul>
+ *     <li>{@code blobUrl} - the URL pointing to the BLOB in BLOB Storage.</li>
+ *     <li>{@code blobPath} - the path of the BLOB in its container, repoName/resourceName/branchName/versionName/fileName.</li>
+ *     <li>{@code lastModifiedMillis} - the epoch milliseconds of the last write of the BLOB.</li>
+ * </ul>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredBlobDTO {
+    private String blobUrl;
+    private String blobPath;
+    private long lastModifiedMillis;
+}
@@ -0,0 +1,16 @@
+package it.unisa.ddditserver.subsystems.versioning.dto.version;
+
+/**
+ * Status of the tag classification of a version.
+ *
+ * <ul>
+ *     <li>{@code PENDING} - the version has been pushed and its tags are still being classified.</li>
+ *     <li>{@code COMPLETE} - the tags of the version are final.</li>
+ *     <li>{@code FAILED} - the classification could not be completed, the version has no tags.</li>
+ * </ul>
+ */
+public enum TagsStatus {
+    PENDING,
+    COMPLETE,
+    FAILED
+}
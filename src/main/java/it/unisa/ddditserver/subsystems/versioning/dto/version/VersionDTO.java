@@ -22,6 +22,7 @@ import java.util.List;
  *     <li>{@code tags} - a list of tags associated with the version.</li>
  *     <li>{@code mesh} - the uploaded mesh file for the version.</li>
  *     <li>{@code material} - a list of uploaded textures files for the version.</li>
+ *     <li>{@code tagsStatus} - the status of the tag classification of the version.</li>
  * </ul>
  */
 @Data
@@ -38,6 +39,13 @@ public class VersionDTO {
     private List<String> tags;
     private MultipartFile mesh;
     private List<MultipartFile> material;
+    private TagsStatus tagsStatus;
+
+    public VersionDTO(String repositoryName, String resourceName, String branchName, String versionName,
+                      String username, LocalDateTime pushedAt, String comment, List<String> tags,
+                      MultipartFile mesh, List<MultipartFile> material) {
+        this(repositoryName, resourceName, branchName, versionName, username, pushedAt, comment, tags, mesh, material, null);
+    }
 
     public String getTagsAsString() {
         StringBuilder tagsAsString = new StringBuilder();
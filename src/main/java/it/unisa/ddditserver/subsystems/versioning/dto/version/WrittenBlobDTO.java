@@ -0,0 +1,22 @@
+package it.unisa.ddditserver.subsystems.versioning.dto.version;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) representing a BLOB written by a push, as recorded in the push journal.
+ * The ETag identifies the content written by the push, so a roll back never deletes a BLOB rewritten by another push.
+ *
+ * <ul>
+ *     <li>{@code blobUrl} - the URL of the mesh or of the texture in BLOB Storage.</li>
+ *     <li>{@code eTag} - the ETag returned by BLOB Storage when the push wrote the BLOB.</li>
+ * </ul>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WrittenBlobDTO {
+    private String blobUrl;
+    private String eTag;
+}
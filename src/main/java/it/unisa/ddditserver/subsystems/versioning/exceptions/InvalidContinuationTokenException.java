@@ -0,0 +1,16 @@
+package it.unisa.ddditserver.subsystems.versioning.exceptions;
+
+/**
+ * Exception thrown when the continuation token of a paged listing can't be decoded.
+ *
+ * This subclass of {@link VersionControlSystemException} indicates that the token was not
+ * returned by a previous page of the listing.
+ *
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public class InvalidContinuationTokenException extends VersionControlSystemException {
+    public InvalidContinuationTokenException(String message) {
+        super(message);
+    }
+}
@@ -11,7 +11,7 @@ import java.util.Map;
  * for authenticated users.
  *
  * @author Angelo Antonio Prisco
- * @version 1.0
+ * @version 1.1
  * @since 2025-08-12
  */
 public interface BranchService {
@@ -27,11 +27,14 @@ public interface BranchService {
     ResponseEntity<Map<String, String>> createBranch(BranchDTO branchDTO, String token);
 
     /**
-     * Retrieves all branches associated with a given resource and owned by the authenticated user.
+     * Retrieves a page of the branches associated with a given resource and owned by the authenticated user.
+     * Branches are sorted by name, the response contains the continuation token of the next page if there is one.
      *
      * @param resourceDTO the data transfer object representing the resource to search branches for
+     * @param continuationToken the token returned with the previous page, or null for the first page
+     * @param pageSize the maximum number of items of the page, the default page size if not positive
      * @param token the JWT token representing the authenticated user
-     * @return a ResponseEntity containing a map with the list of branches related to the resource
+     * @return a ResponseEntity containing a map with the page of branches related to the resource
      */
-    ResponseEntity<Map<String, Object>> listBranchesByResource(ResourceDTO resourceDTO, String token);
+    ResponseEntity<Map<String, Object>> listBranchesByResource(ResourceDTO resourceDTO, String continuationToken, int pageSize, String token);
 }
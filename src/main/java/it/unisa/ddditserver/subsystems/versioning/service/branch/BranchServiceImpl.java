@@ -1,17 +1,14 @@
 package it.unisa.ddditserver.subsystems.versioning.service.branch;
 
+import it.unisa.ddditserver.db.gremlin.GremlinFutures;
+import it.unisa.ddditserver.db.gremlin.GremlinPage;
 import it.unisa.ddditserver.db.gremlin.versioning.branch.GremlinBranchRepository;
-import it.unisa.ddditserver.db.gremlin.versioning.repo.GremlinRepositoryRepository;
-import it.unisa.ddditserver.subsystems.auth.dto.UserDTO;
-import it.unisa.ddditserver.subsystems.auth.exceptions.NotLoggedUserException;
+import it.unisa.ddditserver.subsystems.auth.service.PrincipalResolver;
+import it.unisa.ddditserver.subsystems.versioning.dto.PageDTO;
 import it.unisa.ddditserver.subsystems.versioning.dto.BranchDTO;
-import it.unisa.ddditserver.subsystems.versioning.dto.RepositoryDTO;
 import it.unisa.ddditserver.subsystems.versioning.dto.ResourceDTO;
+import it.unisa.ddditserver.subsystems.versioning.exceptions.InvalidContinuationTokenException;
 import it.unisa.ddditserver.subsystems.versioning.exceptions.branch.BranchException;
-import it.unisa.ddditserver.subsystems.versioning.exceptions.repo.RepositoryException;
-import it.unisa.ddditserver.validators.auth.JWT.JWTokenValidator;
-import it.unisa.ddditserver.validators.auth.user.UserValidationDTO;
-import it.unisa.ddditserver.validators.auth.user.UserValidator;
 import it.unisa.ddditserver.validators.versioning.branch.BranchValidationDTO;
 import it.unisa.ddditserver.validators.versioning.branch.BranchValidator;
 import it.unisa.ddditserver.validators.versioning.resource.ResourceValidationDTO;
@@ -20,7 +17,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @Service
@@ -28,42 +24,19 @@ public class BranchServiceImpl implements BranchService {
     @Autowired
     private GremlinBranchRepository gremlinService;
     @Autowired
-    private GremlinRepositoryRepository gremlinRepositoryRepository;
-    @Autowired
-    private JWTokenValidator jwTokenValidator;
-    @Autowired
-    private UserValidator userValidator;
+    private PrincipalResolver principalResolver;
     @Autowired
     private ResourceValidator resourceValidator;
     @Autowired
     private BranchValidator branchValidator;
 
-    private void checkUserStatus(String repositoryName, String username) {
-        RepositoryDTO repositoryDTO = new RepositoryDTO(repositoryName);
-        UserDTO userDTO = new UserDTO(username, null);
-
-        if (!gremlinRepositoryRepository.isContributor(repositoryDTO, userDTO) && !gremlinRepositoryRepository.isOwner(repositoryDTO, userDTO)) {
-            throw new RepositoryException("Permission denied because " + username + " is not a contributor or the owner of " + repositoryName + " repository");
-        }
-    }
-
     @Override
     public ResponseEntity<Map<String, String>> createBranch(BranchDTO branchDTO, String token) {
-        String retrievedUsername = jwTokenValidator.isTokenValid(token);
         String repositoryName = branchDTO.getRepositoryName();
         String resourceName = branchDTO.getResourceName();
         String branchName = branchDTO.getBranchName();
 
-        if (retrievedUsername == null) {
-            throw new NotLoggedUserException("Missing, invalid, or expired Authorization token");
-        }
-
-        checkUserStatus(repositoryName, retrievedUsername);
-
-        UserValidationDTO userValidationDTO = new UserValidationDTO(retrievedUsername, null);
-
-        // Check if user exists in graph database
-        userValidator.validateExistence(userValidationDTO, true);
+        principalResolver.requireMember(repositoryName, token);
 
         BranchValidationDTO branchValidationDTO = new BranchValidationDTO(repositoryName, resourceName, branchName);
 
@@ -75,7 +48,7 @@ public class BranchServiceImpl implements BranchService {
         branchValidator.validateExistence(branchValidationDTO, false);
 
         try {
-            gremlinService.saveBranch(branchDTO);
+            GremlinFutures.join(gremlinService.saveBranchAsync(branchDTO));
         } catch (Exception e) {
             throw new BranchException(e.getMessage());
         }
@@ -87,21 +60,11 @@ public class BranchServiceImpl implements BranchService {
     }
 
     @Override
-    public ResponseEntity<Map<String, Object>> listBranchesByResource(ResourceDTO resourceDTO, String token) {
-        String retrievedUsername = jwTokenValidator.isTokenValid(token);
+    public ResponseEntity<Map<String, Object>> listBranchesByResource(ResourceDTO resourceDTO, String continuationToken, int pageSize, String token) {
         String repositoryName = resourceDTO.getRepositoryName();
         String resourceName = resourceDTO.getResourceName();
 
-        if (retrievedUsername == null) {
-            throw new NotLoggedUserException("Missing, invalid, or expired Authorization token");
-        }
-
-        checkUserStatus(repositoryName, retrievedUsername);
-
-        UserValidationDTO userValidationDTO = new UserValidationDTO(retrievedUsername, null);
-
-        // Check if user exists in graph database
-        userValidator.validateExistence(userValidationDTO, true);
+        principalResolver.requireMember(repositoryName, token);
 
         ResourceValidationDTO resourceValidationDTO = new ResourceValidationDTO(repositoryName, resourceName);
 
@@ -112,17 +75,23 @@ public class BranchServiceImpl implements BranchService {
         // Check BranchValidator interface for more information about the exists flag
         resourceValidator.validateExistence(resourceValidationDTO, true);
 
-        List<BranchDTO> branches;
+        PageDTO<BranchDTO> branches;
 
         try {
-            branches = gremlinService.findBranchesByResource(resourceDTO);
+            branches = gremlinService.findBranchesByResource(resourceDTO, continuationToken, GremlinPage.pageSize(pageSize));
+        } catch (InvalidContinuationTokenException e) {
+            throw e;
         } catch (Exception e) {
             throw new BranchException(e.getMessage());
         }
 
         Map<String, Object> response = new HashMap<>();
         response.put("message", "Branches found successfully for " + resourceName + " resource in " + repositoryName + " repository");
-        response.put("branches", branches);
+        response.put("branches", branches.getItems());
+
+        if (branches.getContinuationToken() != null) {
+            response.put("continuationToken", branches.getContinuationToken());
+        }
 
         return ResponseEntity.ok(response);
     }
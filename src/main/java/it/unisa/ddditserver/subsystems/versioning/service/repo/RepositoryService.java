@@ -10,7 +10,7 @@ import java.util.Map;
  * by authenticated users.
  *
  * @author Angelo Antonio Prisco
- * @version 1.0
+ * @version 1.1
  * @since 2025-08-12
  */
 public interface RepositoryService {
@@ -26,18 +26,24 @@ public interface RepositoryService {
     ResponseEntity<Map<String, String>> createRepository(RepositoryDTO repositoryDTO, String token);
 
     /**
-     * Retrieves all repositories owned by the authenticated user identified by the provided token.
+     * Retrieves a page of the repositories owned by the authenticated user identified by the provided token.
+     * Repositories are sorted by name, the response contains the continuation token of the next page if there is one.
      *
+     * @param continuationToken the token returned with the previous page, or null for the first page
+     * @param pageSize the maximum number of items of the page, the default page size if not positive
      * @param token the JWT token representing the authenticated user
-     * @return a ResponseEntity containing a map with the list of repositories owned by the user
+     * @return a ResponseEntity containing a map with the page of repositories owned by the user
      */
-    ResponseEntity<Map<String, Object>> listRepositoriesOwned(String token);
+    ResponseEntity<Map<String, Object>> listRepositoriesOwned(String continuationToken, int pageSize, String token);
 
     /**
-     * Retrieves all repositories to which the authenticated user contributes.
+     * Retrieves a page of the repositories to which the authenticated user contributes.
+     * Repositories are sorted by name, the response contains the continuation token of the next page if there is one.
      *
+     * @param continuationToken the token returned with the previous page, or null for the first page
+     * @param pageSize the maximum number of items of the page, the default page size if not positive
      * @param token the JWT token representing the authenticated user
-     * @return a ResponseEntity containing a map with the list of repositories the user contributes to
+     * @return a ResponseEntity containing a map with the page of repositories the user contributes to
      */
-    ResponseEntity<Map<String, Object>> listRepositoriesContributed(String token);
+    ResponseEntity<Map<String, Object>> listRepositoriesContributed(String continuationToken, int pageSize, String token);
 }
@@ -2,19 +2,22 @@ package it.unisa.ddditserver.subsystems.versioning.service.repo;
 
 import it.unisa.ddditserver.subsystems.auth.dto.UserDTO;
 import it.unisa.ddditserver.subsystems.auth.exceptions.NotLoggedUserException;
+import it.unisa.ddditserver.subsystems.auth.service.PrincipalResolver;
+import it.unisa.ddditserver.db.gremlin.GremlinFutures;
+import it.unisa.ddditserver.db.gremlin.GremlinPage;
 import it.unisa.ddditserver.db.gremlin.versioning.repo.GremlinRepositoryRepository;
-import it.unisa.ddditserver.validators.auth.JWT.JWTokenValidator;
 import it.unisa.ddditserver.validators.auth.user.UserValidationDTO;
 import it.unisa.ddditserver.validators.auth.user.UserValidator;
 import it.unisa.ddditserver.validators.versioning.repo.RepositoryValidationDTO;
 import it.unisa.ddditserver.validators.versioning.repo.RepositoryValidator;
+import it.unisa.ddditserver.subsystems.versioning.dto.PageDTO;
 import it.unisa.ddditserver.subsystems.versioning.dto.RepositoryDTO;
+import it.unisa.ddditserver.subsystems.versioning.exceptions.InvalidContinuationTokenException;
 import it.unisa.ddditserver.subsystems.versioning.exceptions.repo.RepositoryException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @Service
@@ -22,7 +25,7 @@ public class RepositoryServiceImpl implements  RepositoryService {
     @Autowired
     private GremlinRepositoryRepository gremlinService;
     @Autowired
-    private JWTokenValidator jwTokenValidator;
+    private PrincipalResolver principalResolver;
     @Autowired
     private UserValidator userValidator;
     @Autowired
@@ -30,7 +33,7 @@ public class RepositoryServiceImpl implements  RepositoryService {
 
     @Override
     public ResponseEntity<Map<String, String>> createRepository(RepositoryDTO repositoryDTO, String token) {
-        String retrievedUsername = jwTokenValidator.isTokenValid(token);
+        String retrievedUsername = principalResolver.resolveUsername(token);
         String repositoryName = repositoryDTO.getRepositoryName();
 
         if (retrievedUsername == null) {
@@ -52,7 +55,7 @@ public class RepositoryServiceImpl implements  RepositoryService {
         repositoryValidator.validateExistence(repositoryValidationDTO, false);
 
         try {
-            gremlinService.saveRepository(repositoryDTO, new UserDTO(retrievedUsername, null));
+            GremlinFutures.join(gremlinService.saveRepositoryAsync(repositoryDTO, new UserDTO(retrievedUsername, null)));
         } catch (Exception e) {
             throw new RepositoryException(e.getMessage());
         }
@@ -64,8 +67,8 @@ public class RepositoryServiceImpl implements  RepositoryService {
     }
 
     @Override
-    public ResponseEntity<Map<String, Object>> listRepositoriesOwned(String token) {
-        String retrievedUsername = jwTokenValidator.isTokenValid(token);
+    public ResponseEntity<Map<String, Object>> listRepositoriesOwned(String continuationToken, int pageSize, String token) {
+        String retrievedUsername = principalResolver.resolveUsername(token);
 
         if (retrievedUsername == null) {
             throw new NotLoggedUserException("Missing, invalid, or expired Authorization token");
@@ -76,24 +79,30 @@ public class RepositoryServiceImpl implements  RepositoryService {
         // Check if user exists in graph database
         userValidator.validateExistence(userValidationDTO, true);
 
-        List<RepositoryDTO> ownedRepositories;
+        PageDTO<RepositoryDTO> ownedRepositories;
 
         try {
-            ownedRepositories = gremlinService.findOwnedRepositoriesByUser(new UserDTO(retrievedUsername, null));
+            ownedRepositories = gremlinService.findOwnedRepositoriesByUser(new UserDTO(retrievedUsername, null), continuationToken, GremlinPage.pageSize(pageSize));
+        } catch (InvalidContinuationTokenException e) {
+            throw e;
         } catch (Exception e) {
             throw new RepositoryException(e.getMessage());
         }
 
         Map<String, Object> response = new HashMap<>();
         response.put("message", "Owned repositories found successfully");
-        response.put("ownedRepositories", ownedRepositories);
+        response.put("ownedRepositories", ownedRepositories.getItems());
+
+        if (ownedRepositories.getContinuationToken() != null) {
+            response.put("continuationToken", ownedRepositories.getContinuationToken());
+        }
 
         return ResponseEntity.ok(response);
     }
 
     @Override
-    public ResponseEntity<Map<String, Object>> listRepositoriesContributed(String token) {
-        String retrievedUsername = jwTokenValidator.isTokenValid(token);
+    public ResponseEntity<Map<String, Object>> listRepositoriesContributed(String continuationToken, int pageSize, String token) {
+        String retrievedUsername = principalResolver.resolveUsername(token);
 
         if (retrievedUsername == null) {
             throw new NotLoggedUserException("Missing, invalid, or expired Authorization token");
@@ -104,17 +113,23 @@ public class RepositoryServiceImpl implements  RepositoryService {
         // Check if user exists in graph database
         userValidator.validateExistence(userValidationDTO, true);
 
-        List<RepositoryDTO> contributedRepositories;
+        PageDTO<RepositoryDTO> contributedRepositories;
 
         try {
-            contributedRepositories = gremlinService.findContributedRepositoriesByUser(new UserDTO(retrievedUsername, null));
+            contributedRepositories = gremlinService.findContributedRepositoriesByUser(new UserDTO(retrievedUsername, null), continuationToken, GremlinPage.pageSize(pageSize));
+        } catch (InvalidContinuationTokenException e) {
+            throw e;
         } catch (Exception e) {
             throw new RepositoryException(e.getMessage());
         }
 
         Map<String, Object> response = new HashMap<>();
         response.put("message", "Contributed repositories found successfully");
-        response.put("contributedRepositories", contributedRepositories);
+        response.put("contributedRepositories", contributedRepositories.getItems());
+
+        if (contributedRepositories.getContinuationToken() != null) {
+            response.put("continuationToken", contributedRepositories.getContinuationToken());
+        }
 
         return ResponseEntity.ok(response);
     }
@@ -11,7 +11,7 @@ import java.util.Map;
  * and retrieve the version tree of a resource for authenticated users.
  *
  * @author Angelo Antonio Prisco
- * @version 1.0
+ * @version 1.2
  * @since 2025-08-14
  */
 public interface ResourceService {
@@ -27,20 +27,26 @@ public interface ResourceService {
     ResponseEntity<Map<String, String>> createResource(ResourceDTO resourceDTO, String token);
 
     /**
-     * Retrieves all resources contained in the specified repository for the authenticated user.
+     * Retrieves a page of the resources contained in the specified repository for the authenticated user.
+     * Resources are sorted by name, the response contains the continuation token of the next page if there is one.
      *
      * @param repositoryDTO the data transfer object representing the repository to search resources for
+     * @param continuationToken the token returned with the previous page, or null for the first page
+     * @param pageSize the maximum number of items of the page, the default page size if not positive
      * @param token the JWT token representing the authenticated user
-     * @return a ResponseEntity containing a map with the list of resources in the repository
+     * @return a ResponseEntity containing a map with the page of resources in the repository
      */
-    ResponseEntity<Map<String, Object>> listResourcesByRepository(RepositoryDTO repositoryDTO, String token);
+    ResponseEntity<Map<String, Object>> listResourcesByRepository(RepositoryDTO repositoryDTO, String continuationToken, int pageSize, String token);
 
     /**
      * Retrieves the version tree of the specified resource for the authenticated user.
+     * Branches are sorted by name and paged, the response contains the continuation token of the next page if there is one.
      *
      * @param resourceDTO the data transfer object representing the resource whose version tree is requested
+     * @param continuationToken the token returned with the previous page, or null for the first page
+     * @param pageSize the maximum number of branches of the page, the default page size if not positive
      * @param token the JWT token representing the authenticated user
-     * @return a ResponseEntity containing a map with the version tree of the specified resource
+     * @return a ResponseEntity containing a map with a page of the version tree of the specified resource
      */
-    ResponseEntity<Map<String, Object>> showVersionTree(ResourceDTO resourceDTO, String token);
+    ResponseEntity<Map<String, Object>> showVersionTree(ResourceDTO resourceDTO, String continuationToken, int pageSize, String token);
 }
@@ -0,0 +1,283 @@
+package it.unisa.ddditserver.subsystems.versioning.service.version;
+
+import it.unisa.ddditserver.db.blobstorage.BlobStorageConfig;
+import it.unisa.ddditserver.db.blobstorage.versioning.BlobStorageVersionRepository;
+import it.unisa.ddditserver.db.cosmos.versioning.CosmosVersionRepository;
+import it.unisa.ddditserver.db.gremlin.versioning.version.GremlinVersionRepository;
+import it.unisa.ddditserver.db.gremlin.versioning.version.VersionKeyBackfill;
+import it.unisa.ddditserver.subsystems.versioning.dto.PageDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.StoredBlobDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * Background job removing the BLOBs and the Cosmos DB documents that no version vertex refers to.
+ *
+ * The meshes and materials containers and the versions container are scanned one page at a time,
+ * each page is checked against the version vertices with a single Gremlin request and its orphans are deleted.
+ * Artifacts younger than the grace period are never touched, so the pushes in progress and the ones
+ * still handled by the push journal are left alone. The pace of the scan and the number of deletions
+ * of a run are bounded, and BLOBs whose path doesn't follow the layout of the versions are never deleted.
+ * Runs are skipped until the versionKey backfill has completed, because the versions without the key
+ * can't be matched to their files and would look orphaned.
+ *
+ * @version 1.0
+ * @since 2026-10-18
+ */
+@Component
+public class VersionOrphanReconciler {
+    private final GremlinVersionRepository versionRepository;
+    private final BlobStorageVersionRepository blobStorageService;
+    private final CosmosVersionRepository cosmosService;
+    private final BlobStorageConfig config;
+    private final VersionKeyBackfill versionKeyBackfill;
+    private ScheduledExecutorService reconciler;
+
+    private volatile String phase = "idle";
+    private volatile long lastRunStartedMillis;
+    private volatile long lastRunDurationMillis;
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong failedRuns = new AtomicLong();
+    private final AtomicLong skippedRuns = new AtomicLong();
+    private final AtomicLong scannedBlobs = new AtomicLong();
+    private final AtomicLong scannedDocuments = new AtomicLong();
+    private final AtomicLong deletedMeshes = new AtomicLong();
+    private final AtomicLong deletedMaterials = new AtomicLong();
+    private final AtomicLong deletedDocuments = new AtomicLong();
+    private final AtomicLong failedDeletions = new AtomicLong();
+
+    @Autowired
+    public VersionOrphanReconciler(GremlinVersionRepository versionRepository,
+                                   BlobStorageVersionRepository blobStorageService,
+                                   CosmosVersionRepository cosmosService,
+                                   BlobStorageConfig config,
+                                   VersionKeyBackfill versionKeyBackfill) {
+        this.versionRepository = versionRepository;
+        this.blobStorageService = blobStorageService;
+        this.cosmosService = cosmosService;
+        this.config = config;
+        this.versionKeyBackfill = versionKeyBackfill;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!config.isReconcilerEnabled()) {
+            return;
+        }
+
+        this.reconciler = Executors.newSingleThreadScheduledExecutor();
+        reconciler.scheduleWithFixedDelay(this::reconcile,
+                config.getReconcilerIntervalMillis(), config.getReconcilerIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (reconciler != null) {
+            reconciler.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs a single pass of the reconciler over the meshes, the materials and the version documents.
+     * The pass is skipped while the version lookups still depend on the versionKey backfill.
+     */
+    public void reconcile() {
+        if (versionKeyBackfill.isChainFallbackActive()) {
+            skippedRuns.incrementAndGet();
+            return;
+        }
+
+        long startedMillis = System.currentTimeMillis();
+        long orphanBefore = startedMillis - config.getReconcilerGracePeriodMillis();
+        lastRunStartedMillis = startedMillis;
+        runs.incrementAndGet();
+
+        try {
+            int budget = config.getReconcilerMaxDeletionsPerRun();
+
+            phase = "meshes";
+            budget = reconcileBlobs(blobStorageService::findMeshBlobs, orphanBefore, budget, true);
+
+            phase = "materials";
+            budget = reconcileBlobs(blobStorageService::findMaterialBlobs, orphanBefore, budget, false);
+
+            phase = "documents";
+            reconcileDocuments(orphanBefore, budget);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // The scan starts again from the first page at the next run
+            failedRuns.incrementAndGet();
+        } finally {
+            phase = "idle";
+            lastRunDurationMillis = System.currentTimeMillis() - startedMillis;
+        }
+    }
+
+    private int reconcileBlobs(BiFunction<String, Integer, PageDTO<StoredBlobDTO>> listing,
+                               long orphanBefore, int budget, boolean meshes) throws InterruptedException {
+        String continuationToken = null;
+
+        do {
+            if (budget <= 0) {
+                return budget;
+            }
+
+            PageDTO<StoredBlobDTO> page = listing.apply(continuationToken, config.getReconcilerPageSize());
+            scannedBlobs.addAndGet(page.getItems().size());
+
+            // Folders of the page holding a recent file, none of their files is deleted
+            Set<String> recentVersionKeys = new HashSet<>();
+            List<StoredBlobDTO> candidates = new ArrayList<>();
+
+            for (StoredBlobDTO blob : page.getItems()) {
+                String versionKey = versionKeyOf(blob);
+
+                if (versionKey == null) {
+                    continue;
+                }
+
+                if (blob.getLastModifiedMillis() >= orphanBefore) {
+                    recentVersionKeys.add(versionKey);
+                } else {
+                    candidates.add(blob);
+                }
+            }
+
+            candidates.removeIf(blob -> recentVersionKeys.contains(versionKeyOf(blob)));
+
+            Map<String, String> blobUrls = versionRepository.findBlobUrlsByVersionKeys(
+                    candidates.stream().map(VersionOrphanReconciler::versionKeyOf).distinct().toList());
+
+            Set<String> deletedFolders = new HashSet<>();
+
+            for (StoredBlobDTO blob : candidates) {
+                if (budget <= 0) {
+                    return budget;
+                }
+
+                String versionKey = versionKeyOf(blob);
+                String blobUrl = blobUrls.get(versionKey);
+
+                try {
+                    if (meshes) {
+                        // A mesh is referenced by its version, unless the vertex points to another file of the same version
+                        if (blobUrl == null || (!blobUrl.isEmpty() && !blobUrl.equals(blob.getBlobUrl()))) {
+                            blobStorageService.deleteMeshByUrl(blob.getBlobUrl());
+                            deletedMeshes.incrementAndGet();
+                            budget--;
+                        }
+                    } else if (blobUrl == null && deletedFolders.add(versionKey)) {
+                        // The textures of a material are deleted together with their folder
+                        String folderUrl = blob.getBlobUrl().substring(0, blob.getBlobUrl().lastIndexOf('/'));
+                        blobStorageService.deleteMaterialByUrl(folderUrl);
+                        deletedMaterials.incrementAndGet();
+                        budget--;
+                    }
+                } catch (Exception e) {
+                    // The BLOB is found again by the next run
+                    failedDeletions.incrementAndGet();
+                }
+            }
+
+            continuationToken = page.getContinuationToken();
+
+            if (continuationToken != null) {
+                Thread.sleep(config.getReconcilerPageDelayMillis());
+            }
+        } while (continuationToken != null);
+
+        return budget;
+    }
+
+    private void reconcileDocuments(long orphanBefore, int budget) throws InterruptedException {
+        String continuationToken = null;
+
+        do {
+            if (budget <= 0) {
+                return;
+            }
+
+            PageDTO<String> page = cosmosService.findVersionDocumentUrls(orphanBefore, continuationToken, config.getReconcilerPageSize());
+            scannedDocuments.addAndGet(page.getItems().size());
+
+            Set<String> referencedUrls = versionRepository.findReferencedDocumentUrls(page.getItems());
+
+            for (String cosmosDocumentUrl : page.getItems()) {
+                if (budget <= 0) {
+                    return;
+                }
+
+                if (referencedUrls.contains(cosmosDocumentUrl)) {
+                    continue;
+                }
+
+                try {
+                    cosmosService.deleteVersionByUrl(cosmosDocumentUrl);
+                    deletedDocuments.incrementAndGet();
+                    budget--;
+                } catch (Exception e) {
+                    // The document is found again by the next run
+                    failedDeletions.incrementAndGet();
+                }
+            }
+
+            continuationToken = page.getContinuationToken();
+
+            if (continuationToken != null) {
+                Thread.sleep(config.getReconcilerPageDelayMillis());
+            }
+        } while (continuationToken != null);
+    }
+
+    // BLOB paths are repoName/resourceName/branchName/versionName/fileName, any other path is not a version file
+    private static String versionKeyOf(StoredBlobDTO blob) {
+        String[] names = blob.getBlobPath().split("/");
+
+        if (names.length != 5) {
+            return null;
+        }
+
+        return names[0] + "/" + names[1] + "/" + names[2] + "/" + names[3];
+    }
+
+    /**
+     * Returns a snapshot of the reconciler settings and of the progress of its runs.
+     *
+     * @return a map containing reconciler settings and progress counters
+     */
+    public Map<String, Object> getReconcilerMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", config.isReconcilerEnabled());
+        metrics.put("intervalMillis", config.getReconcilerIntervalMillis());
+        metrics.put("gracePeriodMillis", config.getReconcilerGracePeriodMillis());
+        metrics.put("pageSize", config.getReconcilerPageSize());
+        metrics.put("maxDeletionsPerRun", config.getReconcilerMaxDeletionsPerRun());
+        metrics.put("phase", phase);
+        metrics.put("lastRunStartedMillis", lastRunStartedMillis);
+        metrics.put("lastRunDurationMillis", lastRunDurationMillis);
+        metrics.put("runs", runs.get());
+        metrics.put("failedRuns", failedRuns.get());
+        metrics.put("skippedRuns", skippedRuns.get());
+        metrics.put("scannedBlobs", scannedBlobs.get());
+        metrics.put("scannedDocuments", scannedDocuments.get());
+        metrics.put("deletedMeshes", deletedMeshes.get());
+        metrics.put("deletedMaterials", deletedMaterials.get());
+        metrics.put("deletedDocuments", deletedDocuments.get());
+        metrics.put("failedDeletions", failedDeletions.get());
+        return metrics;
+    }
+}
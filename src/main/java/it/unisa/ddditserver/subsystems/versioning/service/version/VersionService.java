@@ -1,8 +1,10 @@
 package it.unisa.ddditserver.subsystems.versioning.service.version;
 
 import it.unisa.ddditserver.subsystems.versioning.dto.version.VersionDTO;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.MultiValueMap;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.Map;
 
 /**
@@ -35,6 +37,20 @@ public interface VersionService {
      */
     ResponseEntity<MultiValueMap<String, Object>> pullVersion(VersionDTO versionDTO, String token);
 
+    /**
+     * Streams a single file of the specified version for the authenticated user.
+     * The response reports the real size and the ETag of the file and honours the
+     * {@code Range}, {@code If-Range} and {@code If-None-Match} request headers,
+     * so that downloads can be resumed or split in parallel ranges.
+     *
+     * @param versionDTO the data transfer object representing the version to pull
+     * @param fileName the name of the texture to stream, required only for materials with more than one texture
+     * @param requestHeaders the headers of the HTTP request
+     * @param token the JWT token representing the authenticated user
+     * @return a ResponseEntity streaming the requested bytes of the file
+     */
+    ResponseEntity<StreamingResponseBody> streamVersion(VersionDTO versionDTO, String fileName, HttpHeaders requestHeaders, String token);
+
     /**
      * Retrieves detailed information about a specified version for the authenticated user.
      *
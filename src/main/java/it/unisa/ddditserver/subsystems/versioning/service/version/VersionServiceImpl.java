@@ -1,17 +1,14 @@
 package it.unisa.ddditserver.subsystems.versioning.service.version;
 
-import it.unisa.ddditserver.db.gremlin.versioning.repo.GremlinRepositoryRepository;
+import it.unisa.ddditserver.db.blobstorage.versioning.BlobStorageVersionRepository;
 import it.unisa.ddditserver.db.gremlin.versioning.version.GremlinVersionRepository;
-import it.unisa.ddditserver.subsystems.ai.service.TagClassificationService;
-import it.unisa.ddditserver.subsystems.auth.dto.UserDTO;
-import it.unisa.ddditserver.subsystems.auth.exceptions.NotLoggedUserException;
-import it.unisa.ddditserver.subsystems.versioning.dto.RepositoryDTO;
+import it.unisa.ddditserver.subsystems.ai.service.TagClassificationPipeline;
+import it.unisa.ddditserver.subsystems.auth.service.PrincipalResolver;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.BlobFileDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.TagsStatus;
 import it.unisa.ddditserver.subsystems.versioning.dto.version.VersionDTO;
-import it.unisa.ddditserver.subsystems.versioning.exceptions.repo.RepositoryException;
+import it.unisa.ddditserver.subsystems.versioning.exceptions.version.InvalidMaterialException;
 import it.unisa.ddditserver.subsystems.versioning.exceptions.version.VersionException;
-import it.unisa.ddditserver.validators.auth.JWT.JWTokenValidator;
-import it.unisa.ddditserver.validators.auth.user.UserValidationDTO;
-import it.unisa.ddditserver.validators.auth.user.UserValidator;
 import it.unisa.ddditserver.validators.versioning.version.VersionValidationDTO;
 import it.unisa.ddditserver.validators.versioning.version.VersionValidator;
 import org.apache.commons.lang3.tuple.Pair;
@@ -21,6 +18,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -29,24 +28,16 @@ public class VersionServiceImpl implements VersionService {
     @Autowired
     private GremlinVersionRepository gremlinVersionRepository;
     @Autowired
-    private GremlinRepositoryRepository gremlinRepositoryRepository;
-    @Autowired
-    private JWTokenValidator jwTokenValidator;
-    @Autowired
-    private UserValidator userValidator;
+    private PrincipalResolver principalResolver;
     @Autowired
     private VersionValidator versionValidator;
     @Autowired
-    private TagClassificationService tagClassificationService;
+    private TagClassificationPipeline tagClassificationPipeline;
+    @Autowired
+    private BlobStorageVersionRepository blobStorageVersionRepository;
 
-    private void checkUserStatus(String repositoryName, String username) {
-        RepositoryDTO repositoryDTO = new RepositoryDTO(repositoryName);
-        UserDTO userDTO = new UserDTO(username, null);
-
-        if (!gremlinRepositoryRepository.isContributor(repositoryDTO, userDTO) && !gremlinRepositoryRepository.isOwner(repositoryDTO, userDTO)) {
-            throw new RepositoryException("Permission denied because " + username + " is not a contributor or the owner of " + repositoryName + " repository");
-        }
-    }
+    // Bytes are copied from BLOB storage to the response through a fixed buffer, whatever the file size
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
 
     // The probability of a collision with 1.000.000 versions for a single resource, so with the same base, is ca. 6.37%
     private String generateVersionName(VersionDTO versionDTO) {
@@ -63,7 +54,6 @@ public class VersionServiceImpl implements VersionService {
 
     @Override
     public ResponseEntity<Map<String, String>> createVersion(VersionDTO versionDTO, String token) {
-        String retrievedUsername = jwTokenValidator.isTokenValid(token);
         String repositoryName = versionDTO.getRepositoryName();
         String resourceName = versionDTO.getResourceName();
         String branchName = versionDTO.getBranchName();
@@ -83,19 +73,9 @@ public class VersionServiceImpl implements VersionService {
         else {
             resourceType = true;
             mesh =  versionDTO.getMesh();
-            tags = tagClassificationService.classify(versionDTO);
-        }
-
-        if (retrievedUsername == null) {
-            throw new NotLoggedUserException("Missing, invalid, or expired Authorization token");
         }
 
-        checkUserStatus(repositoryName, retrievedUsername);
-
-        UserValidationDTO userValidationDTO = new UserValidationDTO(retrievedUsername, null);
-
-        // Check if user exists in graph database
-        userValidator.validateExistence(userValidationDTO, true);
+        String retrievedUsername = principalResolver.requireMember(repositoryName, token);
 
         VersionValidationDTO versionValidationDTO;
 
@@ -138,12 +118,19 @@ public class VersionServiceImpl implements VersionService {
             );
         }
 
+        // Meshes are classified in background once the version is committed, materials have no tags
+        enrichedVersionDTO.setTagsStatus(resourceType ? TagsStatus.PENDING : TagsStatus.COMPLETE);
+
         try {
             gremlinVersionRepository.saveVersion(enrichedVersionDTO, resourceType);
         } catch (Exception e) {
             throw new VersionException(e.getMessage());
         }
 
+        if (resourceType) {
+            tagClassificationPipeline.submit(enrichedVersionDTO);
+        }
+
         Map<String, String> response = new HashMap<>();
         if (resourceType) {
             response.put("message", "Version of " + mesh.getOriginalFilename() +
@@ -162,22 +149,12 @@ public class VersionServiceImpl implements VersionService {
 
     @Override
     public ResponseEntity<MultiValueMap<String, Object>> pullVersion(VersionDTO versionDTO, String token) {
-        String retrievedUsername = jwTokenValidator.isTokenValid(token);
         String repositoryName = versionDTO.getRepositoryName();
         String resourceName = versionDTO.getResourceName();
         String branchName = versionDTO.getBranchName();
         String versionName = versionDTO.getVersionName();
 
-        if (retrievedUsername == null) {
-            throw new NotLoggedUserException("Missing, invalid, or expired Authorization token");
-        }
-
-        checkUserStatus(repositoryName, retrievedUsername);
-
-        UserValidationDTO userValidationDTO = new UserValidationDTO(retrievedUsername, null);
-
-        // Check if user exists in graph database
-        userValidator.validateExistence(userValidationDTO, true);
+        principalResolver.requireMember(repositoryName, token);
 
         VersionValidationDTO versionValidationDTO = new VersionValidationDTO(
                 repositoryName, resourceName,
@@ -225,23 +202,134 @@ public class VersionServiceImpl implements VersionService {
     }
 
     @Override
-    public ResponseEntity<Map<String, Object>> showVersionMetadata(VersionDTO versionDTO, String token) {
-        String retrievedUsername = jwTokenValidator.isTokenValid(token);
+    public ResponseEntity<StreamingResponseBody> streamVersion(VersionDTO versionDTO, String fileName, HttpHeaders requestHeaders, String token) {
         String repositoryName = versionDTO.getRepositoryName();
         String resourceName = versionDTO.getResourceName();
         String branchName = versionDTO.getBranchName();
         String versionName = versionDTO.getVersionName();
 
-        if (retrievedUsername == null) {
-            throw new NotLoggedUserException("Missing, invalid, or expired Authorization token");
+        principalResolver.requireMember(repositoryName, token);
+
+        VersionValidationDTO versionValidationDTO = new VersionValidationDTO(
+                repositoryName, resourceName,
+                branchName, versionName,
+                null, null,
+                null
+        );
+
+        // Check if the version already exists in graph database
+        // Check VersionValidator interface for more information about the exists flag
+        versionValidator.validateExistence(versionValidationDTO, true);
+
+        List<BlobFileDTO> files;
+        try {
+            files = gremlinVersionRepository.findFilesByVersion(versionDTO);
+        } catch (Exception e) {
+            throw new VersionException(e.getMessage());
+        }
+
+        BlobFileDTO file = selectFile(files, fileName, versionName);
+        long size = file.getSize();
+        String eTag = quoteETag(file.getETag());
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        headers.setETag(eTag);
+
+        // The client already has this exact file
+        List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+        if (ifNoneMatch.contains("*") || ifNoneMatch.contains(eTag)) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
         }
 
-        checkUserStatus(repositoryName, retrievedUsername);
+        headers.setContentType(MediaType.parseMediaType(file.getContentType()));
+        headers.setContentDisposition(ContentDisposition.attachment().filename(file.getFileName()).build());
+
+        List<HttpRange> ranges;
+        try {
+            ranges = requestHeaders.getRange();
+        } catch (IllegalArgumentException e) {
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+            return new ResponseEntity<>(headers, HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+        }
 
-        UserValidationDTO userValidationDTO = new UserValidationDTO(retrievedUsername, null);
+        // A range is served only for the same file the client started to download, multiple ranges are served as the whole file
+        String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+        boolean partial = ranges.size() == 1 && (ifRange == null || ifRange.equals(eTag));
+
+        long offset = 0;
+        long length = size;
+        HttpStatus status = HttpStatus.OK;
+
+        if (partial) {
+            HttpRange range = ranges.get(0);
+            try {
+                offset = range.getRangeStart(size);
+                length = range.getRangeEnd(size) - offset + 1;
+            } catch (IllegalArgumentException e) {
+                headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                return new ResponseEntity<>(headers, HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+            }
+
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + offset + "-" + (offset + length - 1) + "/" + size);
+            status = HttpStatus.PARTIAL_CONTENT;
+        }
+
+        headers.setContentLength(length);
+
+        if (length == 0) {
+            return new ResponseEntity<>(outputStream -> { }, headers, status);
+        }
+
+        long rangeOffset = offset;
+        long rangeLength = length;
+
+        StreamingResponseBody body = outputStream -> {
+            try (InputStream inputStream = blobStorageVersionRepository.openFileRange(file, rangeOffset, rangeLength)) {
+                byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+                int read;
+                while ((read = inputStream.read(buffer)) != -1) {
+                    outputStream.write(buffer, 0, read);
+                }
+            }
+        };
+
+        return new ResponseEntity<>(body, headers, status);
+    }
+
+    private BlobFileDTO selectFile(List<BlobFileDTO> files, String fileName, String versionName) {
+        if (files.isEmpty()) {
+            throw new VersionException("No file found for version " + versionName);
+        }
+
+        if (fileName == null || fileName.isEmpty()) {
+            if (files.size() > 1) {
+                throw new InvalidMaterialException("A file name is required to stream a material with more than one texture");
+            }
+            return files.get(0);
+        }
+
+        return files.stream()
+                .filter(file -> file.getFileName().equals(fileName))
+                .findFirst()
+                .orElseThrow(() -> new InvalidMaterialException("File " + fileName + " not found in version " + versionName));
+    }
+
+    private static String quoteETag(String eTag) {
+        if (eTag == null) {
+            return "\"\"";
+        }
+        return eTag.startsWith("\"") || eTag.startsWith("W/") ? eTag : "\"" + eTag + "\"";
+    }
+
+    @Override
+    public ResponseEntity<Map<String, Object>> showVersionMetadata(VersionDTO versionDTO, String token) {
+        String repositoryName = versionDTO.getRepositoryName();
+        String resourceName = versionDTO.getResourceName();
+        String branchName = versionDTO.getBranchName();
+        String versionName = versionDTO.getVersionName();
 
-        // Check if user exists in graph database
-        userValidator.validateExistence(userValidationDTO, true);
+        principalResolver.requireMember(repositoryName, token);
 
         VersionValidationDTO versionValidationDTO = new VersionValidationDTO(
                 repositoryName, resourceName, branchName, versionName,
@@ -265,6 +353,7 @@ public class VersionServiceImpl implements VersionService {
         response.put("pushedAt", versionDTO.getPushedAt());
         response.put("comment", versionDTO.getComment());
         response.put("tags", versionDTO.getTagsAsString());
+        response.put("tagsStatus", versionDTO.getTagsStatus());
 
         return  ResponseEntity.ok(response);
     }
@@ -1,10 +1,12 @@
 package it.unisa.ddditserver.validators.auth.JWT;
 
+import java.util.Map;
+
 /**
  * Interface for validating JWT tokens.
  *
  * @author Angelo Antonio Prisco
- * @version 1.3
+ * @version 1.4
  * @since 2025-08-13
  */
 public interface JWTokenValidator {
@@ -15,4 +17,11 @@ public interface JWTokenValidator {
      * @return a string containing the username of the user that sent it, null if the token is not valid
      */
     String isTokenValid(String token);
+
+    /**
+     * Returns how many tokens have been accepted and how many have been rejected at each validation stage.
+     *
+     * @return a map containing the counter of each validation stage
+     */
+    Map<String, Long> getValidationMetrics();
 }
@@ -1,9 +1,12 @@
 package it.unisa.ddditserver.validators.auth.JWT;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
 import it.unisa.ddditserver.db.cosmos.auth.CosmosAuthRepository;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +14,9 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import javax.crypto.SecretKey;
 import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Component responsible for validating JWT token.
@@ -30,35 +36,79 @@ public class JWTokenValidatorImpl implements JWTokenValidator {
     public String jwtSecretBase64;
 
     private SecretKey secretKey;
+    // Built once, the parser is immutable and thread safe
+    private JwtParser parser;
+
+    private final LongAdder validatedTokens = new LongAdder();
+    private final LongAdder missingTokens = new LongAdder();
+    private final LongAdder malformedTokens = new LongAdder();
+    private final LongAdder expiredTokens = new LongAdder();
+    private final LongAdder invalidSignatureTokens = new LongAdder();
+    private final LongAdder missingSubjectTokens = new LongAdder();
+    private final LongAdder blacklistedTokens = new LongAdder();
 
     @PostConstruct
     public void init() {
         byte[] decodedKey = Base64.getDecoder().decode(jwtSecretBase64);
         this.secretKey = Keys.hmacShaKeyFor(decodedKey);
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(secretKey)
+                .build();
     }
 
     @Override
     public String isTokenValid(String token) {
-        if (cosmosAuthService.isTokenBlacklisted(token)) {
+        // Stages go from the cheapest to the most expensive, the blacklist store is only reached by authentic tokens
+        if (token == null || token.isBlank()) {
+            missingTokens.increment();
             return null;
         }
 
-        try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(secretKey)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-
-            String username = claims.getSubject();
+        if (token.chars().filter(c -> c == '.').count() != 2) {
+            malformedTokens.increment();
+            return null;
+        }
 
-            if (username == null || username.isBlank()) {
-                throw new JwtException("Username can't be null or empty in JWT token");
-            }
+        String username;
 
-            return username;
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            username = claims.getSubject();
+        } catch (ExpiredJwtException e) {
+            expiredTokens.increment();
+            return null;
+        } catch (SecurityException e) {
+            invalidSignatureTokens.increment();
+            return null;
         } catch (JwtException | IllegalArgumentException e) {
+            malformedTokens.increment();
+            return null;
+        }
+
+        if (username == null || username.isBlank()) {
+            missingSubjectTokens.increment();
+            return null;
+        }
+
+        if (cosmosAuthService.isTokenBlacklisted(token)) {
+            blacklistedTokens.increment();
             return null;
         }
+
+        validatedTokens.increment();
+        return username;
+    }
+
+    @Override
+    public Map<String, Long> getValidationMetrics() {
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        metrics.put("validatedTokens", validatedTokens.sum());
+        metrics.put("missingTokens", missingTokens.sum());
+        metrics.put("malformedTokens", malformedTokens.sum());
+        metrics.put("expiredTokens", expiredTokens.sum());
+        metrics.put("invalidSignatureTokens", invalidSignatureTokens.sum());
+        metrics.put("missingSubjectTokens", missingSubjectTokens.sum());
+        metrics.put("blacklistedTokens", blacklistedTokens.sum());
+        return metrics;
     }
 }
@@ -6,7 +6,7 @@ import it.unisa.ddditserver.validators.ValidationResult;
  * Interface for validating branch's data.
  *
  * @author Angelo Antonio Prisco
- * @version 1.1
+ * @version 1.2
  * @since 2025-08-13
  */
 public interface BranchValidator {
@@ -19,6 +19,15 @@ public interface BranchValidator {
      */
     ValidationResult validateBranch(BranchValidationDTO branchValidationDTO);
 
+    /**
+     * Validates the names of the given branch and of its resource and repository without checking their existence.
+     *
+     * @param branchValidationDTO the branch data transfer object containing branch's information to validate
+     * @return a ValidationResult indicating if the names are well-formed or not.
+     *         If not, the method throws a custom exception with the reason of the failure.
+     */
+    ValidationResult validateBranchName(BranchValidationDTO branchValidationDTO);
+
     /**
      * Validates whether the branch exists.
      *
@@ -1,16 +1,14 @@
 package it.unisa.ddditserver.validators.versioning.branch;
 
-import it.unisa.ddditserver.db.gremlin.versioning.branch.GremlinBranchRepository;
-import it.unisa.ddditserver.db.gremlin.versioning.version.GremlinVersionRepository;
+import it.unisa.ddditserver.subsystems.versioning.dto.VersioningPathDTO;
 import it.unisa.ddditserver.subsystems.versioning.exceptions.branch.BranchNotFoundException;
 import it.unisa.ddditserver.subsystems.versioning.exceptions.branch.ExistingBranchException;
 import it.unisa.ddditserver.subsystems.versioning.exceptions.branch.InvalidBranchNameException;
+import it.unisa.ddditserver.subsystems.versioning.exceptions.resource.ResourceNotFoundException;
 import it.unisa.ddditserver.validators.ValidationResult;
-import it.unisa.ddditserver.validators.versioning.repo.RepositoryValidationDTO;
-import it.unisa.ddditserver.validators.versioning.repo.RepositoryValidator;
+import it.unisa.ddditserver.validators.versioning.path.VersioningPathResolver;
 import it.unisa.ddditserver.validators.versioning.resource.ResourceValidationDTO;
 import it.unisa.ddditserver.validators.versioning.resource.ResourceValidator;
-import it.unisa.ddditserver.subsystems.versioning.dto.BranchDTO;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import java.util.regex.Pattern;
@@ -27,32 +25,28 @@ import java.util.regex.Pattern;
  *
  * It uses:
  * <ul>
- *     <li>{@link RepositoryValidator} to validate repository data</li>
- *     <li>{@link ResourceValidator} to validate resource data</li>
- *     <li>{@link GremlinVersionRepository} to check existence in the graph database</li>
+ *     <li>{@link ResourceValidator} to validate resource and repository names</li>
+ *     <li>{@link VersioningPathResolver} to check the repository, the resource and the branch with a single query</li>
  * </ul>
  *
  * @author Angelo Antonio Prisco
- * @version 1.1
+ * @version 1.2
  * @since 2025-08-14
  */
 @Component
 public class BranchValidatorImpl implements BranchValidator {
-    private final RepositoryValidator repositoryValidator;
     private final ResourceValidator resourceValidator;
-    private final GremlinBranchRepository gremlinService;
+    private final VersioningPathResolver pathResolver;
 
     private static final int BRANCH_NAME_MIN_LENGTH = 3;
     private static final int BRANCH_NAME_MAX_LENGTH = 30;
     private static final Pattern BRANCH_NAME_PATTERN = Pattern.compile("^[a-zA-Z0-9_]+$");
 
     @Autowired
-    public BranchValidatorImpl(RepositoryValidator repositoryValidator,
-                               ResourceValidator resourceValidator,
-                               GremlinBranchRepository gremlinService) {
-        this.repositoryValidator = repositoryValidator;
+    public BranchValidatorImpl(ResourceValidator resourceValidator,
+                               VersioningPathResolver pathResolver) {
         this.resourceValidator = resourceValidator;
-        this.gremlinService = gremlinService;
+        this.pathResolver = pathResolver;
     }
 
     private boolean isValidBranchName(String branchName) {
@@ -64,26 +58,17 @@ public class BranchValidatorImpl implements BranchValidator {
     }
 
     @Override
-    public ValidationResult validateBranch(BranchValidationDTO branchValidationDTO) {
+    public ValidationResult validateBranchName(BranchValidationDTO branchValidationDTO) {
         String repositoryName = branchValidationDTO.getRepositoryName();
         String resourceName = branchValidationDTO.getResourceName();
         String branchName = branchValidationDTO.getBranchName();
 
-        // Check if the repository is valid before check for the resource because a resource depends on a repository
-        RepositoryValidationDTO repositoryValidationDTO = new RepositoryValidationDTO(repositoryName);
-        ValidationResult repositoryValidationResult = repositoryValidator.validate(repositoryValidationDTO);
-        if (!repositoryValidationResult.isValid()) {
-            return repositoryValidationResult;
-        }
-
-        // Check if the resources is valid before check for the branch because a branch depends on a resource
-        ResourceValidationDTO resourceValidationDTO = new ResourceValidationDTO(repositoryName, resourceName);
-        ValidationResult resourceValidationResult = resourceValidator.validate(resourceValidationDTO);
+        // Check only the format of the resource and repository names, their existence is checked together with the branch
+        ValidationResult resourceValidationResult = resourceValidator.validateResourceName(new ResourceValidationDTO(repositoryName, resourceName));
         if (!resourceValidationResult.isValid()) {
             return resourceValidationResult;
         }
 
-        // Check if the branch is valid
         if (!isValidBranchName(branchName)) {
             throw new InvalidBranchNameException("Branch name must be 3-30 chars long and can contain letters, digits and _ only");
         }
@@ -92,33 +77,44 @@ public class BranchValidatorImpl implements BranchValidator {
     }
 
     @Override
-    public ValidationResult validateExistence(BranchValidationDTO branchValidationDTO, boolean exists) {
+    public ValidationResult validateBranch(BranchValidationDTO branchValidationDTO) {
         String repositoryName = branchValidationDTO.getRepositoryName();
         String resourceName = branchValidationDTO.getResourceName();
-        String branchName = branchValidationDTO.getBranchName();
 
-        BranchDTO branchDTO = new BranchDTO(repositoryName, resourceName, branchName);
+        ValidationResult nameValidationResult = validateBranchName(branchValidationDTO);
+        if (!nameValidationResult.isValid()) {
+            return nameValidationResult;
+        }
 
-        // Check if the repository is valid before check for the resource because a resource depends on a repository
-        RepositoryValidationDTO repositoryValidationDTO = new RepositoryValidationDTO(repositoryName);
-        ValidationResult repositoryValidationResult = repositoryValidator.validate(repositoryValidationDTO);
-        if (!repositoryValidationResult.isValid()) {
-            return repositoryValidationResult;
+        // Check if the resource exists because a branch depends on a resource, a missing repository throws its own exception
+        if (!pathResolver.existsPath(new VersioningPathDTO(repositoryName, resourceName, null, null))) {
+            throw new ResourceNotFoundException(resourceName + " does not exist as resource name");
         }
 
-        // Check if the resources is valid before check for the branch because a branch depends on a resource
-        ResourceValidationDTO resourceValidationDTO = new ResourceValidationDTO(repositoryName, resourceName);
-        ValidationResult resourceValidationResult = resourceValidator.validate(resourceValidationDTO);
-        if (!resourceValidationResult.isValid()) {
-            return resourceValidationResult;
+        return ValidationResult.valid();
+    }
+
+    @Override
+    public ValidationResult validateExistence(BranchValidationDTO branchValidationDTO, boolean exists) {
+        String repositoryName = branchValidationDTO.getRepositoryName();
+        String resourceName = branchValidationDTO.getResourceName();
+        String branchName = branchValidationDTO.getBranchName();
+
+        // Check if the names are well-formed before querying the graph database
+        ValidationResult nameValidationResult = validateBranchName(branchValidationDTO);
+        if (!nameValidationResult.isValid()) {
+            return nameValidationResult;
         }
 
+        // The repository, the resource and the branch are checked by the same query
+        boolean branchExists = pathResolver.existsPath(new VersioningPathDTO(repositoryName, resourceName, branchName, null));
+
         if (exists) {
-            if (!gremlinService.existsByResource(branchDTO)) {
+            if (!branchExists) {
                 throw new BranchNotFoundException(branchName + " does not exist as branch name");
             }
         } else {
-            if (gremlinService.existsByResource(branchDTO)) {
+            if (branchExists) {
                 throw new ExistingBranchException(branchName + " already exists as branch name");
             }
         }
@@ -128,12 +124,8 @@ public class BranchValidatorImpl implements BranchValidator {
 
     @Override
     public ValidationResult validate(BranchValidationDTO branchValidationDTO) {
-        ValidationResult branchValidation = validateBranch(branchValidationDTO);
-        if (!branchValidation.isValid()) {
-            return branchValidation;
-        }
-
-        branchValidation = validateExistence(branchValidationDTO, true);
+        // The existence check also validates the names, so the whole path is checked by a single query
+        ValidationResult branchValidation = validateExistence(branchValidationDTO, true);
         return branchValidation.isValid() ? ValidationResult.valid() : branchValidation;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,21 @@
+package it.unisa.ddditserver.validators.versioning.path;
+
+import it.unisa.ddditserver.subsystems.versioning.dto.VersioningPathDTO;
+
+/**
+ * Interface for resolving a repository, resource, branch and version path shared by the versioning validators.
+ * The whole path is resolved with a single query instead of checking every level on its own.
+ *
+ * @version 1.0
+ * @since 2026-10-18
+ */
+public interface VersioningPathResolver {
+    /**
+     * Resolves the path and checks that all of its outer levels exist.
+     *
+     * @param pathDTO the path to resolve, ending at its last non null name
+     * @return true if the innermost level of the path exists, false otherwise.
+     *         If an outer level does not exist, the method throws the not found exception of that level.
+     */
+    boolean existsPath(VersioningPathDTO pathDTO);
+}
@@ -0,0 +1,42 @@
+package it.unisa.ddditserver.validators.versioning.path;
+
+import it.unisa.ddditserver.db.gremlin.versioning.version.GremlinVersionRepository;
+import it.unisa.ddditserver.subsystems.versioning.dto.VersioningPathDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.VersioningPathLevel;
+import it.unisa.ddditserver.subsystems.versioning.exceptions.branch.BranchNotFoundException;
+import it.unisa.ddditserver.subsystems.versioning.exceptions.repo.RepositoryNotFoundException;
+import it.unisa.ddditserver.subsystems.versioning.exceptions.resource.ResourceNotFoundException;
+import it.unisa.ddditserver.subsystems.versioning.exceptions.version.VersionNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+@Component
+public class VersioningPathResolverImpl implements VersioningPathResolver {
+    private final GremlinVersionRepository gremlinService;
+
+    @Autowired
+    public VersioningPathResolverImpl(GremlinVersionRepository gremlinService) {
+        this.gremlinService = gremlinService;
+    }
+
+    @Override
+    public boolean existsPath(VersioningPathDTO pathDTO) {
+        VersioningPathLevel missingLevel = gremlinService.findFirstMissingLevel(pathDTO);
+
+        if (missingLevel == null) {
+            return true;
+        }
+
+        if (missingLevel == pathDTO.getLeafLevel()) {
+            return false;
+        }
+
+        // An outer level is missing, so the path can't be checked any further
+        switch (missingLevel) {
+            case REPOSITORY -> throw new RepositoryNotFoundException(pathDTO.getRepositoryName() + " does not exist as repository name");
+            case RESOURCE -> throw new ResourceNotFoundException(pathDTO.getResourceName() + " does not exist as resource name");
+            case BRANCH -> throw new BranchNotFoundException(pathDTO.getBranchName() + " does not exist as branch name");
+            default -> throw new VersionNotFoundException(pathDTO.getVersionName() + " does not exist as version name");
+        }
+    }
+}
@@ -6,7 +6,7 @@ import it.unisa.ddditserver.validators.ValidationResult;
  * Interface for validating resource's data.
  *
  * @author Angelo Antonio Prisco
- * @version 1.1
+ * @version 1.2
  * @since 2025-08-13
  */
 public interface ResourceValidator {
@@ -19,6 +19,15 @@ public interface ResourceValidator {
      */
     ValidationResult validateResource(ResourceValidationDTO resourceValidationDTO);
 
+    /**
+     * Validates the names of the given resource and of its repository without checking their existence.
+     *
+     * @param resourceValidationDTO the resource data transfer object containing resource's information to validate
+     * @return a ValidationResult indicating if the names are well-formed or not.
+     *         If not, the method throws a custom exception with the reason of the failure.
+     */
+    ValidationResult validateResourceName(ResourceValidationDTO resourceValidationDTO);
+
     /**
      * Validates whether the resource exists.
      *
@@ -1,13 +1,13 @@
 package it.unisa.ddditserver.validators.versioning.resource;
 
-import it.unisa.ddditserver.db.gremlin.versioning.resource.GremlinResourceRepository;
+import it.unisa.ddditserver.subsystems.versioning.dto.VersioningPathDTO;
 import it.unisa.ddditserver.subsystems.versioning.exceptions.resource.ExistingResourceException;
 import it.unisa.ddditserver.subsystems.versioning.exceptions.resource.InvalidResourceNameException;
 import it.unisa.ddditserver.subsystems.versioning.exceptions.resource.ResourceNotFoundException;
 import it.unisa.ddditserver.validators.ValidationResult;
 import it.unisa.ddditserver.validators.versioning.repo.RepositoryValidationDTO;
 import it.unisa.ddditserver.validators.versioning.repo.RepositoryValidator;
-import it.unisa.ddditserver.subsystems.versioning.dto.ResourceDTO;
+import it.unisa.ddditserver.validators.versioning.path.VersioningPathResolver;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import java.util.regex.Pattern;
@@ -16,7 +16,7 @@ import java.util.regex.Pattern;
  * Component responsible for validating resource data and checking its existence.
  *
  * This validator verifies that the resource name respects predefined pattern and length constraints.
- * It also checks if a resource already exists using the {@link GremlinResourceRepository}.
+ * It also checks if a resource already exists using the {@link VersioningPathResolver}.
  * Validations include:
  * <ul>
  *     <li>Resource name must be 8-30 characters long, containing only letters, digits, and underscores.</li>
@@ -25,25 +25,26 @@ import java.util.regex.Pattern;
  * It uses:
  * <ul>
  *     <li>{@link RepositoryValidator} to validate repository data</li>
+ *     <li>{@link VersioningPathResolver} to check the repository and the resource with a single query</li>
  * </ul>
  *
  * @author Angelo Antonio Prisco
- * @version 1.0
+ * @version 1.1
  * @since 2025-08-14
  */
 @Component
 public class ResourceValidatorImpl implements ResourceValidator {
     private final RepositoryValidator repositoryValidator;
-    private final GremlinResourceRepository gremlinService;
+    private final VersioningPathResolver pathResolver;
 
     private static final int RESOURCE_NAME_MIN_LENGTH = 3;
     private static final int RESOURCE_NAME_MAX_LENGTH = 30;
     private static final Pattern RESOURCE_NAME_PATTERN = Pattern.compile("^[a-zA-Z0-9_]+$");
 
     @Autowired
-    public ResourceValidatorImpl(RepositoryValidator repositoryValidator, GremlinResourceRepository gremlinService) {
+    public ResourceValidatorImpl(RepositoryValidator repositoryValidator, VersioningPathResolver pathResolver) {
         this.repositoryValidator = repositoryValidator;
-        this.gremlinService = gremlinService;
+        this.pathResolver = pathResolver;
     }
 
     public boolean isValidResourceName(String resourceName) {
@@ -74,31 +75,40 @@ public class ResourceValidatorImpl implements ResourceValidator {
     }
 
     @Override
-    public ValidationResult validateExistence(ResourceValidationDTO resourceValidationDTO, boolean exists) {
+    public ValidationResult validateResourceName(ResourceValidationDTO resourceValidationDTO) {
         String repositoryName = resourceValidationDTO.getRepositoryName();
         String resourceName = resourceValidationDTO.getResourceName();
 
-        ResourceDTO resourceDTO = new ResourceDTO(repositoryName, resourceName);
+        // Check only the format of the repository name, its existence is checked together with the resource
+        repositoryValidator.validateRepository(new RepositoryValidationDTO(repositoryName));
 
-        // Check if the repository is valid before check for the resource because a resource depends on a repository
-        RepositoryValidationDTO repositoryValidationDTO = new RepositoryValidationDTO(repositoryName);
-        ValidationResult repositoryValidationResult = repositoryValidator.validate(repositoryValidationDTO);
-        if (!repositoryValidationResult.isValid()) {
-            return repositoryValidationResult;
+        if (!isValidResourceName(resourceName)) {
+            throw new InvalidResourceNameException("Resource name must be 3-30 chars long and can contain letters, digits and _ only");
         }
 
-        // Check if the resource is valid
-        ValidationResult resourceValidationResult = validateResource(resourceValidationDTO);
-        if (!resourceValidationResult.isValid()) {
-            return resourceValidationResult;
+        return ValidationResult.valid();
+    }
+
+    @Override
+    public ValidationResult validateExistence(ResourceValidationDTO resourceValidationDTO, boolean exists) {
+        String repositoryName = resourceValidationDTO.getRepositoryName();
+        String resourceName = resourceValidationDTO.getResourceName();
+
+        // Check if the names are well-formed before querying the graph database
+        ValidationResult nameValidationResult = validateResourceName(resourceValidationDTO);
+        if (!nameValidationResult.isValid()) {
+            return nameValidationResult;
         }
 
+        // The repository and the resource are checked by the same query, a missing repository throws its own exception
+        boolean resourceExists = pathResolver.existsPath(new VersioningPathDTO(repositoryName, resourceName, null, null));
+
         if (exists) {
-            if (!gremlinService.existsByRepository(resourceDTO)) {
+            if (!resourceExists) {
                 throw new ResourceNotFoundException(resourceName + " does not exist as resource name");
             }
         } else {
-            if (gremlinService.existsByRepository(resourceDTO)) {
+            if (resourceExists) {
                 throw new ExistingResourceException(resourceName + " already exists as resource name");
             }
         }
@@ -108,12 +118,8 @@ public class ResourceValidatorImpl implements ResourceValidator {
 
     @Override
     public ValidationResult validate(ResourceValidationDTO resourceValidationDTO) {
-        ValidationResult resourceValidation = validateResource(resourceValidationDTO);
-        if (!resourceValidation.isValid()) {
-            return resourceValidation;
-        }
-
-        resourceValidation = validateExistence(resourceValidationDTO, true);
+        // The existence check also validates the names, so the whole path is checked by a single query
+        ValidationResult resourceValidation = validateExistence(resourceValidationDTO, true);
         return resourceValidation.isValid() ? ValidationResult.valid() : resourceValidation;
     }
 }
@@ -1,15 +1,12 @@
 package it.unisa.ddditserver.validators.versioning.version;
 
-import it.unisa.ddditserver.db.gremlin.versioning.version.GremlinVersionRepository;
+import it.unisa.ddditserver.subsystems.versioning.dto.VersioningPathDTO;
+import it.unisa.ddditserver.subsystems.versioning.exceptions.branch.BranchNotFoundException;
 import it.unisa.ddditserver.subsystems.versioning.exceptions.version.*;
 import it.unisa.ddditserver.validators.ValidationResult;
 import it.unisa.ddditserver.validators.versioning.branch.BranchValidationDTO;
 import it.unisa.ddditserver.validators.versioning.branch.BranchValidator;
-import it.unisa.ddditserver.validators.versioning.repo.RepositoryValidationDTO;
-import it.unisa.ddditserver.validators.versioning.repo.RepositoryValidator;
-import it.unisa.ddditserver.validators.versioning.resource.ResourceValidationDTO;
-import it.unisa.ddditserver.validators.versioning.resource.ResourceValidator;
-import it.unisa.ddditserver.subsystems.versioning.dto.version.VersionDTO;
+import it.unisa.ddditserver.validators.versioning.path.VersioningPathResolver;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
@@ -37,22 +34,18 @@ import java.util.regex.Pattern;
  *
  * It uses:
  * <ul>
- *     <li>{@link RepositoryValidator} to validate repository data</li>
- *     <li>{@link ResourceValidator} to validate resource data</li>
- *     <li>{@link BranchValidator} to validate branch data</li>
- *     <li>{@link GremlinVersionRepository} to check existence in the graph database</li>
+ *     <li>{@link BranchValidator} to validate branch, resource and repository names</li>
+ *     <li>{@link VersioningPathResolver} to check the whole path of the version with a single query</li>
  * </ul>
  *
  * @author Angelo Antonio Prisco
- * @version 1.1
+ * @version 1.2
  * @since 2025-08-14
  */
 @Component
 public class VersionValidatorImpl implements VersionValidator {
-    private final RepositoryValidator repositoryValidator;
-    private final ResourceValidator resourceValidator;
     private final BranchValidator branchValidator;
-    private final GremlinVersionRepository gremlinService;
+    private final VersioningPathResolver pathResolver;
 
     private static final int FILE_NAME_MIN_LENGTH = 3;
     private static final int FILE_NAME_MAX_LENGTH = 30;
@@ -63,14 +56,10 @@ public class VersionValidatorImpl implements VersionValidator {
     private static final Pattern COMMENT_PATTERN = Pattern.compile("^[\\p{L}0-9_\\s.,!?-]+$");
 
     @Autowired
-    public VersionValidatorImpl(GremlinVersionRepository gremlinService,
-                                BranchValidator branchValidator,
-                                ResourceValidator resourceValidator,
-                                RepositoryValidator repositoryValidator) {
-        this.gremlinService = gremlinService;
+    public VersionValidatorImpl(VersioningPathResolver pathResolver,
+                                BranchValidator branchValidator) {
+        this.pathResolver = pathResolver;
         this.branchValidator = branchValidator;
-        this.resourceValidator = resourceValidator;
-        this.repositoryValidator = repositoryValidator;
     }
 
     public boolean isValidComment(String comment) {
@@ -125,27 +114,18 @@ public class VersionValidatorImpl implements VersionValidator {
         MultipartFile mesh = versionValidationDTO.getMesh();
         List<MultipartFile> material =  versionValidationDTO.getMaterial();
 
-        // Check if the repository is valid before check for the resource because a resource depends on a repository
-        RepositoryValidationDTO repositoryValidationDTO = new RepositoryValidationDTO(repositoryName);
-        ValidationResult repositoryValidationResult = repositoryValidator.validate(repositoryValidationDTO);
-        if (!repositoryValidationResult.isValid()) {
-            return repositoryValidationResult;
-        }
-
-        // Check if the resources is valid before check for the branch because a branch depends on a resource
-        ResourceValidationDTO resourceValidationDTO = new ResourceValidationDTO(repositoryName, resourceName);
-        ValidationResult resourceValidationResult = resourceValidator.validate(resourceValidationDTO);
-        if (!resourceValidationResult.isValid()) {
-            return resourceValidationResult;
-        }
-
-        // Check if the resources is valid before check for the branch because a branch depends on a resource
+        // Check if the names of the parents are well-formed before querying the graph database
         BranchValidationDTO branchValidationDTO = new BranchValidationDTO(repositoryName, resourceName,  branchName);
-        ValidationResult branchValidationResult = branchValidator.validate(branchValidationDTO);
+        ValidationResult branchValidationResult = branchValidator.validateBranchName(branchValidationDTO);
         if (!branchValidationResult.isValid()) {
             return branchValidationResult;
         }
 
+        // Check if the branch exists because a version depends on a branch, a missing outer level throws its own exception
+        if (!pathResolver.existsPath(new VersioningPathDTO(repositoryName, resourceName, branchName, null))) {
+            throw new BranchNotFoundException(branchName + " does not exist as branch name");
+        }
+
         if (!isValidComment(comment)) {
             throw new InvalidCommentException("Comment must be 0-200 chars long and contain only !, ? and - as special characters");
         }
@@ -182,37 +162,22 @@ public class VersionValidatorImpl implements VersionValidator {
         String branchName = versionValidationDTO.getBranchName();
         String versionName = versionValidationDTO.getVersionName();
 
-        // Check if the repository is valid before check for the resource because a resource depends on a repository
-        RepositoryValidationDTO repositoryValidationDTO = new RepositoryValidationDTO(repositoryName);
-        ValidationResult repositoryValidationResult = repositoryValidator.validate(repositoryValidationDTO);
-        if (!repositoryValidationResult.isValid()) {
-            return repositoryValidationResult;
-        }
-
-        // Check if the resources is valid before check for the branch because a branch depends on a resource
-        ResourceValidationDTO resourceValidationDTO = new ResourceValidationDTO(repositoryName, resourceName);
-        ValidationResult resourceValidationResult = resourceValidator.validate(resourceValidationDTO);
-        if (!resourceValidationResult.isValid()) {
-            return resourceValidationResult;
-        }
-
-        // Check if the resources is valid before check for the branch because a branch depends on a resource
+        // Check if the names of the parents are well-formed before querying the graph database
         BranchValidationDTO branchValidationDTO = new BranchValidationDTO(repositoryName, resourceName,  branchName);
-        ValidationResult branchValidationResult = branchValidator.validate(branchValidationDTO);
+        ValidationResult branchValidationResult = branchValidator.validateBranchName(branchValidationDTO);
         if (!branchValidationResult.isValid()) {
             return branchValidationResult;
         }
 
-        VersionDTO versionDTO = new VersionDTO(repositoryName, resourceName, branchName, versionName,
-                null,null,null,null,null,null
-        );
+        // The repository, the resource, the branch and the version are checked by the same query
+        boolean versionExists = pathResolver.existsPath(new VersioningPathDTO(repositoryName, resourceName, branchName, versionName));
 
         if (exists) {
-            if (!gremlinService.existsByVersion(versionDTO)) {
+            if (!versionExists) {
                 throw new VersionNotFoundException(versionName + " does not exist as version name");
             }
         } else {
-            if (gremlinService.existsByVersion(versionDTO)) {
+            if (versionExists) {
                 throw new ExistingVersionException(versionName + " already exists as version name." +
                         " This can happen due to a collision when generating a version name for a resource");
             }
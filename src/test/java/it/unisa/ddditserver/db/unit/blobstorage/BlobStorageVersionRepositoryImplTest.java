@@ -1,14 +1,22 @@
 package it.unisa.ddditserver.db.unit.blobstorage;
 
 import com.azure.core.http.rest.PagedIterable;
+import com.azure.core.http.rest.Response;
 import com.azure.storage.blob.BlobClient;
 import com.azure.storage.blob.BlobContainerClient;
 import com.azure.storage.blob.models.BlobItem;
+import com.azure.storage.blob.models.BlobItemProperties;
 import com.azure.storage.blob.models.BlobProperties;
+import com.azure.storage.blob.models.BlockBlobItem;
+import com.azure.storage.blob.models.BlockList;
+import com.azure.storage.blob.models.BlockListType;
 import com.azure.storage.blob.models.ListBlobsOptions;
+import com.azure.storage.blob.options.BlobParallelUploadOptions;
 import com.azure.storage.blob.specialized.BlobInputStream;
+import com.azure.storage.blob.specialized.BlockBlobClient;
 import it.unisa.ddditserver.db.blobstorage.BlobStorageConfig;
 import it.unisa.ddditserver.db.blobstorage.versioning.BlobStorageVersionRepositoryImpl;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.BlobFileDTO;
 import it.unisa.ddditserver.subsystems.versioning.dto.version.VersionDTO;
 import org.apache.commons.lang3.tuple.Triple;
 import org.junit.jupiter.api.BeforeEach;
@@ -21,7 +29,11 @@ import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.lang.reflect.Field;
 import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
 import java.util.stream.Stream;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -54,6 +66,23 @@ public class BlobStorageVersionRepositoryImplTest {
         Field materialsField = BlobStorageVersionRepositoryImpl.class.getDeclaredField("materialsContainerClient");
         materialsField.setAccessible(true);
         materialsField.set(repository, materialsContainerClient);
+
+        Field executorField = BlobStorageVersionRepositoryImpl.class.getDeclaredField("uploadExecutor");
+        executorField.setAccessible(true);
+        executorField.set(repository, Executors.newFixedThreadPool(2));
+
+        Field blockExecutorField = BlobStorageVersionRepositoryImpl.class.getDeclaredField("blockStagingExecutor");
+        blockExecutorField.setAccessible(true);
+        blockExecutorField.set(repository, Executors.newFixedThreadPool(2));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Response<BlockBlobItem> uploadResponse(String eTag) {
+        Response<BlockBlobItem> response = mock(Response.class);
+        BlockBlobItem item = mock(BlockBlobItem.class);
+        when(item.getETag()).thenReturn(eTag);
+        when(response.getValue()).thenReturn(item);
+        return response;
     }
 
     @Test
@@ -75,12 +104,95 @@ public class BlobStorageVersionRepositoryImplTest {
         
         when(meshesContainerClient.getBlobClient(anyString())).thenReturn(blobClient);
         when(blobClient.getBlobUrl()).thenReturn("http://mock/mesh.fbx");
+        Response<BlockBlobItem> response = uploadResponse("etag-mesh");
+        when(blobClient.uploadWithResponse(any(BlobParallelUploadOptions.class), any(), any())).thenReturn(response);
+
+        Map<String, String> writtenBlobs = new HashMap<>();
+        String url = repository.saveMesh(version, writtenBlobs::put);
+
+        assertEquals("http://mock/mesh.fbx", url);
+        assertEquals(Map.of("http://mock/mesh.fbx", "etag-mesh"), writtenBlobs);
+        verify(blobClient, times(1)).uploadWithResponse(any(BlobParallelUploadOptions.class), any(), any());
+        verify(blobClient, never()).setHttpHeaders(any());
+    }
+
+    @Test
+    // Happy path: A mesh bigger than a block is staged in blocks and committed once
+    void saveMeshInBlocksSuccess() throws Exception {
+        Field blockSizeField = BlobStorageVersionRepositoryImpl.class.getDeclaredField("meshBlockSize");
+        blockSizeField.setAccessible(true);
+        blockSizeField.set(repository, 4);
+
+        VersionDTO version = new VersionDTO();
+        version.setRepositoryName("repo");
+        version.setBranchName("main");
+        version.setResourceName("res");
+        version.setVersionName("v1");
+
+        MultipartFile mesh = mock(MultipartFile.class);
+        when(mesh.getOriginalFilename()).thenReturn("mesh.fbx");
+        when(mesh.getSize()).thenReturn(10L);
+        when(mesh.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[]{1,2,3,4,5,6,7,8,9,10}));
+        when(mesh.getContentType()).thenReturn("application/octet-stream");
+
+        version.setMesh(mesh);
+
+        BlockBlobClient blockBlobClient = mock(BlockBlobClient.class);
+        when(meshesContainerClient.getBlobClient(anyString())).thenReturn(blobClient);
+        when(blobClient.getBlockBlobClient()).thenReturn(blockBlobClient);
+        when(blockBlobClient.listBlocks(BlockListType.UNCOMMITTED)).thenReturn(new BlockList().setUncommittedBlocks(List.of()));
+        when(blobClient.getBlobUrl()).thenReturn("http://mock/mesh.fbx");
 
-        String url = repository.saveMesh(version);
+        String url = repository.saveMesh(version, (blobUrl, eTag) -> {});
 
         assertEquals("http://mock/mesh.fbx", url);
-        verify(blobClient, times(1)).upload(any(InputStream.class), eq(100L), eq(true));
-        verify(blobClient, times(1)).setHttpHeaders(any());
+        verify(blockBlobClient, times(3)).stageBlockWithResponse(anyString(), any(InputStream.class), anyLong(), any(), any(), any(), any());
+        verify(blockBlobClient, times(1)).commitBlockListWithResponse(argThat(ids -> ids.size() == 3), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    // Happy path: A block whose staging fails is staged again after a backoff and the mesh is committed
+    void saveMeshInBlocksRetriesFailedBlock() throws Exception {
+        Field blockSizeField = BlobStorageVersionRepositoryImpl.class.getDeclaredField("meshBlockSize");
+        blockSizeField.setAccessible(true);
+        blockSizeField.set(repository, 4);
+
+        Field maxAttemptsField = BlobStorageVersionRepositoryImpl.class.getDeclaredField("meshBlockMaxAttempts");
+        maxAttemptsField.setAccessible(true);
+        maxAttemptsField.set(repository, 2);
+
+        Field backoffField = BlobStorageVersionRepositoryImpl.class.getDeclaredField("meshBlockRetryBackoffMillis");
+        backoffField.setAccessible(true);
+        backoffField.set(repository, 1L);
+
+        VersionDTO version = new VersionDTO();
+        version.setRepositoryName("repo");
+        version.setBranchName("main");
+        version.setResourceName("res");
+        version.setVersionName("v1");
+
+        MultipartFile mesh = mock(MultipartFile.class);
+        when(mesh.getOriginalFilename()).thenReturn("mesh.fbx");
+        when(mesh.getSize()).thenReturn(10L);
+        when(mesh.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[]{1,2,3,4,5,6,7,8,9,10}));
+        when(mesh.getContentType()).thenReturn("application/octet-stream");
+
+        version.setMesh(mesh);
+
+        BlockBlobClient blockBlobClient = mock(BlockBlobClient.class);
+        when(meshesContainerClient.getBlobClient(anyString())).thenReturn(blobClient);
+        when(blobClient.getBlockBlobClient()).thenReturn(blockBlobClient);
+        when(blockBlobClient.listBlocks(BlockListType.UNCOMMITTED)).thenReturn(new BlockList().setUncommittedBlocks(List.of()));
+        when(blockBlobClient.stageBlockWithResponse(anyString(), any(InputStream.class), anyLong(), any(), any(), any(), any()))
+                .thenThrow(new RuntimeException("throttled"))
+                .thenReturn(null);
+        when(blobClient.getBlobUrl()).thenReturn("http://mock/mesh.fbx");
+
+        String url = repository.saveMesh(version, (blobUrl, eTag) -> {});
+
+        assertEquals("http://mock/mesh.fbx", url);
+        verify(blockBlobClient, times(4)).stageBlockWithResponse(anyString(), any(InputStream.class), anyLong(), any(), any(), any(), any());
+        verify(blockBlobClient, times(1)).commitBlockListWithResponse(argThat(ids -> ids.size() == 3), any(), any(), any(), any(), any(), any());
     }
 
     @Test
@@ -103,11 +215,16 @@ public class BlobStorageVersionRepositoryImplTest {
         when(materialsContainerClient.getBlobClient(anyString())).thenReturn(blobClient);
         when(blobClient.getBlobUrl()).thenReturn("http://mock/material/");
 
-        String folderUrl = repository.saveMaterial(version);
+        Response<BlockBlobItem> response = uploadResponse("etag-texture");
+        when(blobClient.uploadWithResponse(any(BlobParallelUploadOptions.class), any(), any())).thenReturn(response);
+
+        Map<String, String> writtenBlobs = new ConcurrentHashMap<>();
+        String folderUrl = repository.saveMaterial(version, writtenBlobs::put);
 
         assertEquals("http://mock/material/", folderUrl);
-        verify(blobClient, times(1)).upload(any(InputStream.class), eq(50L), eq(false));
-        verify(blobClient, times(1)).setHttpHeaders(any());
+        assertEquals(Map.of("http://mock/material/", "etag-texture"), writtenBlobs);
+        verify(blobClient, times(1)).uploadWithResponse(any(BlobParallelUploadOptions.class), any(), any());
+        verify(blobClient, never()).setHttpHeaders(any());
     }
 
     @Test
@@ -203,15 +320,15 @@ public class BlobStorageVersionRepositoryImplTest {
 
         BlobProperties properties = mock(BlobProperties.class);
         when(properties.getContentType()).thenReturn("application/octet-stream");
-        when(blobClient.getProperties()).thenReturn(properties);
-
-        doReturn(true).when(repository).existsMeshByUrl(anyString());
+        when(blobStream.getProperties()).thenReturn(properties);
 
         Triple<InputStream, String, String> result = repository.findMeshByUrl(meshUrl);
 
         assertEquals("mesh.fbx", result.getRight());
         assertEquals("application/octet-stream", result.getMiddle());
         assertEquals(blobStream, result.getLeft());
+        verify(blobClient, never()).getProperties();
+        verify(repository, never()).existsMeshByUrl(anyString());
     }
 
     @Test
@@ -222,20 +339,17 @@ public class BlobStorageVersionRepositoryImplTest {
         PagedIterable<BlobItem> pagedIterableForFind = mock(PagedIterable.class);
         
         BlobInputStream blobInputStream = mock(BlobInputStream.class);
-        BlobProperties properties = mock(BlobProperties.class);
+        BlobItemProperties properties = mock(BlobItemProperties.class);
 
-        when(blobClient.getBlobName()).thenReturn("path/to/texture.png");
         when(blobItem.getName()).thenReturn("materials/texture.png");
+        when(blobItem.getProperties()).thenReturn(properties);
         when(pagedIterableForFind.stream()).thenReturn(Stream.of(blobItem));
         when(materialsContainerClient.getBlobContainerUrl()).thenReturn("http://mock/container");
         when(materialsContainerClient.listBlobsByHierarchy(anyString())).thenReturn(pagedIterableForFind);
         when(materialsContainerClient.getBlobClient("materials/texture.png")).thenReturn(blobClient);
         when(blobClient.openInputStream()).thenReturn(blobInputStream);
-        when(blobClient.getProperties()).thenReturn(properties);
         when(properties.getContentType()).thenReturn("image/png");
 
-        doReturn(true).when(repository).existsMaterialByUrl(anyString());
-
         List<Triple<InputStream, String, String>> results = repository.findMaterialByUrl(materialFolderUrl);
 
         assertEquals(1, results.size());
@@ -243,6 +357,37 @@ public class BlobStorageVersionRepositoryImplTest {
         assertEquals("texture.png", triple.getRight());
         assertEquals("image/png", triple.getMiddle());
         assertEquals(blobInputStream, triple.getLeft());
+        verify(blobClient, never()).getProperties();
+        verify(materialsContainerClient, times(1)).listBlobsByHierarchy(anyString());
+    }
+
+    @Test
+    // Happy path: Describes the textures of a folder URL using only the listing properties
+    void findMaterialFilesByUrlSuccess() {
+        String materialFolderUrl = "http://mock/container/materials/";
+
+        BlobItem blobItem = mock(BlobItem.class);
+        BlobItemProperties properties = mock(BlobItemProperties.class);
+        PagedIterable<BlobItem> pagedIterable = mock(PagedIterable.class);
+
+        when(properties.getContentType()).thenReturn("image/png");
+        when(properties.getContentLength()).thenReturn(50L);
+        when(properties.getETag()).thenReturn("\"0x1\"");
+        when(blobItem.getName()).thenReturn("materials/texture.png");
+        when(blobItem.getProperties()).thenReturn(properties);
+        when(pagedIterable.stream()).thenReturn(Stream.of(blobItem));
+        when(materialsContainerClient.getBlobContainerUrl()).thenReturn("http://mock/container");
+        when(materialsContainerClient.listBlobsByHierarchy(anyString())).thenReturn(pagedIterable);
+        when(materialsContainerClient.getBlobClient("materials/texture.png")).thenReturn(blobClient);
+        when(blobClient.getBlobUrl()).thenReturn("http://mock/container/materials/texture.png");
+
+        List<BlobFileDTO> files = repository.findMaterialFilesByUrl(materialFolderUrl);
+
+        assertEquals(1, files.size());
+        assertEquals("texture.png", files.get(0).getFileName());
+        assertEquals("image/png", files.get(0).getContentType());
+        assertEquals(50L, files.get(0).getSize());
+        verify(blobClient, never()).getProperties();
     }
 
     @Test
@@ -277,5 +422,18 @@ public class BlobStorageVersionRepositoryImplTest {
 
         verify(blobClient, times(1)).delete();
     }
-}
 
+    @Test
+    // Happy path: Deletes a mesh only under the condition that it still holds the content with the given ETag
+    void deleteMeshByUrlIfMatchSuccess() {
+        String meshUrl = "http://mock/container/path/to/mesh.fbx";
+
+        when(meshesContainerClient.getBlobContainerUrl()).thenReturn("http://mock/container");
+        when(meshesContainerClient.getBlobClient("path/to/mesh.fbx")).thenReturn(blobClient);
+
+        repository.deleteMeshByUrlIfMatch(meshUrl, "etag-mesh");
+
+        verify(blobClient, times(1)).deleteWithResponse(any(), argThat(conditions -> "etag-mesh".equals(conditions.getIfMatch())), any(), any());
+        verify(blobClient, never()).delete();
+    }
+}
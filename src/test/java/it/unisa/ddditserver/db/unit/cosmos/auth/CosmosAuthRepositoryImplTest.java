@@ -10,6 +10,7 @@ import it.unisa.ddditserver.subsystems.auth.dto.BlacklistedTokenDTO;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import reactor.core.publisher.Mono;
 import java.lang.reflect.Field;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -17,7 +18,7 @@ import static org.mockito.Mockito.*;
 // ATTENTION: at the moment due to time restrictions only tests for happy paths are available
 public class CosmosAuthRepositoryImplTest {
     @Mock
-    private CosmosContainer blacklistContainer;
+    private CosmosAsyncContainer blacklistContainer;
 
     @InjectMocks
     private CosmosAuthRepositoryImpl repository;
@@ -39,6 +40,8 @@ public class CosmosAuthRepositoryImplTest {
                 .withExpiresAt(new java.util.Date(System.currentTimeMillis() + 60000)) // expires in 60s
                 .sign(Algorithm.HMAC256("secret"));
 
+        doReturn(Mono.just(mock(CosmosItemResponse.class))).when(blacklistContainer).upsertItem(any());
+
         repository.blacklistToken(token);
 
         verify(blacklistContainer, times(1)).upsertItem(any());
@@ -54,7 +57,7 @@ public class CosmosAuthRepositoryImplTest {
         when(mockResponse.getItem()).thenReturn(mockDTO);
 
         when(blacklistContainer.readItem(eq(token), any(PartitionKey.class), eq(BlacklistedTokenDTO.class)))
-                .thenReturn(mockResponse);
+                .thenReturn(Mono.just(mockResponse));
 
         boolean result = repository.isTokenBlacklisted(token);
 
@@ -71,11 +74,72 @@ public class CosmosAuthRepositoryImplTest {
         when(notFoundException.getStatusCode()).thenReturn(404);
 
         when(blacklistContainer.readItem(eq(token), any(PartitionKey.class), eq(BlacklistedTokenDTO.class)))
-                .thenThrow(notFoundException);
+                .thenReturn(Mono.error(notFoundException));
 
         boolean result = repository.isTokenBlacklisted(token);
 
         assertFalse(result);
         verify(blacklistContainer, times(1)).readItem(eq(token), any(PartitionKey.class), eq(BlacklistedTokenDTO.class));
     }
+
+    @Test
+    // Happy path: A token revoked on this node is found in the fresh in-memory blacklist without reading Cosmos DB
+    void isTokenBlacklistedUsesFreshCache() throws Exception {
+        String token = JWT.create()
+                .withIssuer("test")
+                .withExpiresAt(new java.util.Date(System.currentTimeMillis() + 60000)) // expires in 60s
+                .sign(Algorithm.HMAC256("secret"));
+
+        setField("maxCacheSize", 10);
+        setField("maxStalenessMillis", 60000L);
+        setField("lastRefreshMillis", System.currentTimeMillis());
+
+        doReturn(Mono.just(mock(CosmosItemResponse.class))).when(blacklistContainer).upsertItem(any());
+
+        repository.blacklistToken(token);
+
+        assertTrue(repository.isTokenBlacklisted(token));
+        assertFalse(repository.isTokenBlacklisted("other-token"));
+        verify(blacklistContainer, never()).readItem(anyString(), any(PartitionKey.class), eq(BlacklistedTokenDTO.class));
+    }
+
+    @Test
+    // Happy path: A full blacklist mirror drops the token closest to its expiry, which is then checked on Cosmos DB
+    void fullCacheDropsEarliestExpiringToken() throws Exception {
+        String earlyToken = JWT.create()
+                .withIssuer("test")
+                .withExpiresAt(new java.util.Date(System.currentTimeMillis() + 60000)) // expires in 60s
+                .sign(Algorithm.HMAC256("secret"));
+        String lateToken = JWT.create()
+                .withIssuer("test")
+                .withExpiresAt(new java.util.Date(System.currentTimeMillis() + 120000)) // expires in 120s
+                .sign(Algorithm.HMAC256("secret"));
+
+        setField("maxCacheSize", 1);
+        setField("maxStalenessMillis", 60000L);
+        setField("lastRefreshMillis", System.currentTimeMillis());
+
+        doReturn(Mono.just(mock(CosmosItemResponse.class))).when(blacklistContainer).upsertItem(any());
+
+        CosmosItemResponse<BlacklistedTokenDTO> response = mock(CosmosItemResponse.class);
+        when(response.getItem()).thenReturn(new BlacklistedTokenDTO(earlyToken, earlyToken, 60));
+        doReturn(Mono.just(response)).when(blacklistContainer)
+                .readItem(eq(earlyToken), any(PartitionKey.class), eq(BlacklistedTokenDTO.class));
+
+        repository.blacklistToken(lateToken);
+        repository.blacklistToken(earlyToken);
+
+        assertTrue(repository.isTokenBlacklisted(lateToken));
+        assertTrue(repository.isTokenBlacklisted(earlyToken));
+        verify(blacklistContainer, never()).readItem(eq(lateToken), any(PartitionKey.class), eq(BlacklistedTokenDTO.class));
+        verify(blacklistContainer, times(1)).readItem(eq(earlyToken), any(PartitionKey.class), eq(BlacklistedTokenDTO.class));
+        assertEquals(1L, repository.getBlacklistCacheMetrics().get("evictedTokens"));
+        assertEquals(1, repository.getBlacklistCacheMetrics().get("size"));
+    }
+
+    private void setField(String name, Object value) throws Exception {
+        Field field = CosmosAuthRepositoryImpl.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(repository, value);
+    }
 }
@@ -0,0 +1,90 @@
+package it.unisa.ddditserver.db.unit.cosmos.versioning;
+
+import it.unisa.ddditserver.db.cosmos.CosmosConfig;
+import it.unisa.ddditserver.db.cosmos.versioning.CosmosVersionCache;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.CosmosVersionDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.TagsStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// ATTENTION: at the moment due to time restrictions only tests for happy paths are available
+public class CosmosVersionCacheTest {
+    private CosmosVersionCache cache;
+
+    @BeforeEach
+    void setUp() {
+        CosmosConfig config = mock(CosmosConfig.class);
+        when(config.getVersionCacheMaxSize()).thenReturn(100);
+
+        cache = new CosmosVersionCache(config);
+    }
+
+    private CosmosVersionDTO document(TagsStatus tagsStatus) {
+        return new CosmosVersionDTO(
+                "version-123", "res1", "res1", "v1",
+                "user", LocalDateTime.now(), "comment", List.of("tag1"), "http://blob", tagsStatus
+        );
+    }
+
+    @Test
+    // Happy path: get reads a classified document once and then returns it from the cache
+    void getReadsClassifiedDocumentOnce() {
+        AtomicInteger reads = new AtomicInteger();
+        CosmosVersionDTO document = document(TagsStatus.COMPLETE);
+
+        cache.get("version-123", "res1", () -> {
+            reads.incrementAndGet();
+            return CompletableFuture.completedFuture(document);
+        });
+        CosmosVersionDTO cached = cache.get("version-123", "res1", () -> {
+            reads.incrementAndGet();
+            return CompletableFuture.completedFuture(document);
+        });
+
+        assertSame(document, cached);
+        assertEquals(1, reads.get());
+        assertEquals(1L, cache.getCacheMetrics().get("hits"));
+    }
+
+    @Test
+    // Happy path: a read in flight when the document is invalidated is not kept
+    void invalidateDropsReadInFlight() {
+        CompletableFuture<CosmosVersionDTO> staleRead = new CompletableFuture<>();
+        CosmosVersionDTO stale = document(TagsStatus.COMPLETE);
+        CosmosVersionDTO fresh = document(TagsStatus.COMPLETE);
+
+        CompletableFuture<CosmosVersionDTO> lookup = CompletableFuture.supplyAsync(() -> cache.get("version-123", "res1", () -> staleRead));
+        // The read has to be registered before the invalidation
+        while (cache.getCacheMetrics().get("misses").equals(0L)) {
+            Thread.onSpinWait();
+        }
+
+        cache.invalidate("version-123", "res1");
+        staleRead.complete(stale);
+
+        assertSame(stale, lookup.join());
+        assertSame(fresh, cache.get("version-123", "res1", () -> CompletableFuture.completedFuture(fresh)));
+    }
+
+    @Test
+    // Happy path: a document whose tags are pending is read again at every lookup
+    void getDoesNotKeepPendingDocument() {
+        AtomicInteger reads = new AtomicInteger();
+        CosmosVersionDTO document = document(TagsStatus.PENDING);
+
+        for (int i = 0; i < 2; i++) {
+            cache.get("version-123", "res1", () -> {
+                reads.incrementAndGet();
+                return CompletableFuture.completedFuture(document);
+            });
+        }
+
+        assertEquals(2, reads.get());
+    }
+}
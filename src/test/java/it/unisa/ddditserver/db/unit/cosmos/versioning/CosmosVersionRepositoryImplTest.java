@@ -1,20 +1,26 @@
 package it.unisa.ddditserver.db.unit.cosmos.versioning;
 
-import com.azure.cosmos.CosmosContainer;
+import com.azure.cosmos.CosmosAsyncContainer;
 import com.azure.cosmos.models.CosmosItemResponse;
 import com.azure.cosmos.models.PartitionKey;
 import com.azure.cosmos.models.CosmosItemRequestOptions;
+import com.azure.cosmos.models.CosmosPatchOperations;
+import it.unisa.ddditserver.db.cosmos.versioning.CosmosVersionCache;
 import it.unisa.ddditserver.db.cosmos.versioning.CosmosVersionRepositoryImpl;
 import it.unisa.ddditserver.subsystems.versioning.dto.version.CosmosVersionDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.TagsStatus;
 import it.unisa.ddditserver.subsystems.versioning.dto.version.VersionDTO;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Mono;
 import java.lang.reflect.Field;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -22,7 +28,10 @@ import static org.mockito.Mockito.*;
 // ATTENTION: at the moment due to time restrictions only tests for happy paths are available
 public class CosmosVersionRepositoryImplTest {
     @Mock
-    CosmosContainer container;
+    CosmosAsyncContainer container;
+
+    @Mock
+    CosmosVersionCache versionCache;
 
     @InjectMocks
     private CosmosVersionRepositoryImpl repository;
@@ -34,11 +43,15 @@ public class CosmosVersionRepositoryImplTest {
         Field containerField = CosmosVersionRepositoryImpl.class.getDeclaredField("container");
         containerField.setAccessible(true);
         containerField.set(repository, container);
+
+        // A lookup missing the cache reads the document
+        when(versionCache.get(anyString(), anyString(), any())).thenAnswer(invocation ->
+                invocation.<Supplier<CompletableFuture<CosmosVersionDTO>>>getArgument(2).get().join());
     }
 
     @Test
-    // Happy path: saveVersion returns a valid URL when version is saved successfully
-    void saveVersionReturnsDocumentUrl() {
+    // Happy path: saveVersionAsync completes with the URL of the document with the given id once it is written
+    void saveVersionAsyncReturnsDocumentUrl() {
         VersionDTO versionDTO = new VersionDTO(
                 "repo1", "res1",
                 "br1", "v1",
@@ -49,9 +62,12 @@ public class CosmosVersionRepositoryImplTest {
 
         String blobUrl = "http://mock/blob/url";
 
-        String resultUrl = repository.saveVersion(versionDTO, blobUrl);
+        doReturn(Mono.just(mock(CosmosItemResponse.class)))
+                .when(container).createItem(any(), any(PartitionKey.class), any(CosmosItemRequestOptions.class));
+
+        String resultUrl = repository.saveVersionAsync(versionDTO, blobUrl, "version-123").join();
 
-        assertNotNull(resultUrl);
+        assertEquals(repository.getDocumentUrl(versionDTO, "version-123"), resultUrl);
         assertTrue(resultUrl.contains(versionDTO.getResourceName()));
     }
 
@@ -70,7 +86,7 @@ public class CosmosVersionRepositoryImplTest {
         when(mockResponse.getItem()).thenReturn(cosmosVersion);
 
         when(container.readItem(eq(versionId), any(PartitionKey.class), eq(CosmosVersionDTO.class)))
-                .thenReturn(mockResponse);
+                .thenReturn(Mono.just(mockResponse));
 
         VersionDTO result = repository.findVersionByUrl(cosmosUrl);
 
@@ -79,6 +95,26 @@ public class CosmosVersionRepositoryImplTest {
         assertEquals(cosmosVersion.getUsername(), result.getUsername());
     }
 
+    @Test
+    // Happy path: findVersionByUrl returns a classified version from the cache without reading Cosmos DB
+    void findVersionByUrlUsesCachedDocument() {
+        String versionId = "version-123";
+        String partitionKey = "res1";
+        String cosmosUrl = "https://dummy.documents.azure.com/dbs/metadata/colls/versions/docs/" + versionId + "?partitionKey=" + partitionKey;
+
+        CosmosVersionDTO cosmosVersion = new CosmosVersionDTO(
+                versionId, "res1", "res1", "v1",
+                "user", LocalDateTime.now(), "comment", List.of("tag1"), "http://blob", TagsStatus.COMPLETE
+        );
+        when(versionCache.get(eq(versionId), eq(partitionKey), any())).thenReturn(cosmosVersion);
+
+        VersionDTO result = repository.findVersionByUrl(cosmosUrl);
+
+        assertEquals(cosmosVersion.getVersionName(), result.getVersionName());
+        assertEquals(cosmosVersion.getTags(), result.getTags());
+        verify(container, never()).readItem(anyString(), any(PartitionKey.class), eq(CosmosVersionDTO.class));
+    }
+
     @Test
     // Happy path: getBlobUrlByUrl returns the blob URL for a given Cosmos document URL
     void getBlobUrlByUrlReturnsBlobUrl() {
@@ -94,13 +130,29 @@ public class CosmosVersionRepositoryImplTest {
         when(mockResponse.getItem()).thenReturn(cosmosVersion);
 
         when(container.readItem(eq(versionId), any(PartitionKey.class), eq(CosmosVersionDTO.class)))
-                .thenReturn(mockResponse);
+                .thenReturn(Mono.just(mockResponse));
 
         String blobUrl = repository.getBlobUrlByUrl(cosmosUrl);
 
         assertEquals(cosmosVersion.getBlobUrl(), blobUrl);
     }
 
+    @Test
+    // Happy path: updateTagsByUrl patches the document without reading it
+    void updateTagsByUrlSuccess() {
+        String versionId = "version-123";
+        String partitionKey = "res1";
+        String cosmosUrl = "https://dummy.documents.azure.com/dbs/metadata/colls/versions/docs/" + versionId + "?partitionKey=" + partitionKey;
+
+        doReturn(Mono.just(mock(CosmosItemResponse.class)))
+                .when(container).patchItem(eq(versionId), any(PartitionKey.class), any(CosmosPatchOperations.class), eq(CosmosVersionDTO.class));
+
+        assertDoesNotThrow(() -> repository.updateTagsByUrl(cosmosUrl, List.of("tag1"), TagsStatus.COMPLETE));
+        verify(container, times(1))
+                .patchItem(eq(versionId), any(PartitionKey.class), any(CosmosPatchOperations.class), eq(CosmosVersionDTO.class));
+        verify(container, never()).readItem(anyString(), any(PartitionKey.class), eq(CosmosVersionDTO.class));
+    }
+
     @Test
     // Happy path: deleteVersionByUrl successfully calls container.deleteItem without exceptions
     void deleteVersionByUrlSuccess() {
@@ -108,8 +160,12 @@ public class CosmosVersionRepositoryImplTest {
         String partitionKey = "res1";
         String cosmosUrl = "https://dummy.documents.azure.com/dbs/metadata/colls/versions/docs/" + versionId + "?partitionKey=" + partitionKey;
 
+        doReturn(Mono.just(mock(CosmosItemResponse.class)))
+                .when(container).deleteItem(eq(versionId), any(PartitionKey.class), any(CosmosItemRequestOptions.class));
+
         assertDoesNotThrow(() -> repository.deleteVersionByUrl(cosmosUrl));
         verify(container, times(1))
                 .deleteItem(eq(versionId), any(PartitionKey.class), any(CosmosItemRequestOptions.class));
+        verify(versionCache, times(1)).invalidate(versionId, partitionKey);
     }
 }
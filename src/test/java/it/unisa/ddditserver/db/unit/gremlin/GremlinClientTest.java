@@ -0,0 +1,76 @@
+package it.unisa.ddditserver.db.unit.gremlin;
+
+import it.unisa.ddditserver.db.gremlin.GremlinClient;
+import it.unisa.ddditserver.db.gremlin.GremlinConfig;
+import org.apache.tinkerpop.gremlin.driver.Client;
+import org.apache.tinkerpop.gremlin.driver.Result;
+import org.apache.tinkerpop.gremlin.driver.ResultSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// ATTENTION: at the moment due to time restrictions only tests for happy paths are available
+class GremlinClientTest {
+    @Mock
+    private GremlinConfig config;
+
+    @Mock
+    private Client driverClient;
+
+    private GremlinClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        when(config.getAsyncRequestTimeoutMillis()).thenReturn(10_000L);
+        client = new GremlinClient(config);
+
+        Field clientField = GremlinClient.class.getDeclaredField("client");
+        clientField.setAccessible(true);
+        clientField.set(client, driverClient);
+
+        // A single slot, so the second request finds the pool saturated
+        Field permitsField = GremlinClient.class.getDeclaredField("inFlightPermits");
+        permitsField.setAccessible(true);
+        permitsField.set(client, new Semaphore(1, true));
+    }
+
+    private static ResultSet resultSetOf(CompletableFuture<List<Result>> results) {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.all()).thenReturn(results);
+        return resultSet;
+    }
+
+    @Test
+    // Happy path: an asynchronous request finding every slot taken is queued without blocking and sent once a slot is released
+    void submitAsyncQueuesRequestWhenSaturated() throws Exception {
+        CompletableFuture<List<Result>> firstResults = new CompletableFuture<>();
+        ResultSet firstResultSet = resultSetOf(firstResults);
+        ResultSet secondResultSet = resultSetOf(CompletableFuture.completedFuture(List.of()));
+
+        when(driverClient.submitAsync(eq("first"), anyMap())).thenReturn(CompletableFuture.completedFuture(firstResultSet));
+        when(driverClient.submitAsync(eq("second"), anyMap())).thenReturn(CompletableFuture.completedFuture(secondResultSet));
+
+        CompletableFuture<List<Result>> first = client.submitAsync("first", Map.of());
+        CompletableFuture<List<Result>> second = client.submitAsync("second", Map.of());
+
+        assertFalse(second.isDone());
+        verify(driverClient, never()).submitAsync(eq("second"), anyMap());
+        assertEquals(1, client.getPoolMetrics().get("waitingAsyncRequests"));
+
+        firstResults.complete(List.of());
+
+        assertTrue(first.isDone());
+        assertEquals(List.of(), second.get(1, TimeUnit.SECONDS));
+        assertEquals(0, client.getPoolMetrics().get("waitingAsyncRequests"));
+        assertEquals(1L, client.getPoolMetrics().get("saturatedRequests"));
+    }
+}
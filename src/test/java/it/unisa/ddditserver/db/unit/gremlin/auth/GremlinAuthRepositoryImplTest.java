@@ -1,13 +1,11 @@
 package it.unisa.ddditserver.db.unit.gremlin.auth;
 
-import it.unisa.ddditserver.db.gremlin.GremlinConfig;
+import it.unisa.ddditserver.db.gremlin.GremlinClient;
 import it.unisa.ddditserver.db.gremlin.auth.GremlinAuthRepositoryImpl;
 import it.unisa.ddditserver.subsystems.auth.dto.UserDTO;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.apache.tinkerpop.gremlin.driver.Client;
 import org.apache.tinkerpop.gremlin.driver.Result;
-import java.lang.reflect.Field;
 import java.util.List;
 import java.util.Map;
 import org.mockito.*;
@@ -23,10 +21,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 // ATTENTION: at the moment due to time restrictions only tests for happy paths are available
 class GremlinAuthRepositoryImplTest {
     @Mock
-    private GremlinConfig config;
-
-    @Mock
-    private Client client;
+    private GremlinClient client;
 
     @InjectMocks
     private GremlinAuthRepositoryImpl repository;
@@ -34,11 +29,7 @@ class GremlinAuthRepositoryImplTest {
     @BeforeEach
     void setUp() throws Exception {
         MockitoAnnotations.openMocks(this);
-        repository = new GremlinAuthRepositoryImpl(config);
-
-        Field clientField = GremlinAuthRepositoryImpl.class.getDeclaredField("client");
-        clientField.setAccessible(true);
-        clientField.set(repository, client);
+        repository = new GremlinAuthRepositoryImpl(client);
     }
 
     @Test
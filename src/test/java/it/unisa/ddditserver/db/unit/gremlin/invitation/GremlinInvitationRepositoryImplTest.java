@@ -1,17 +1,16 @@
 package it.unisa.ddditserver.db.unit.gremlin.invitation;
 
-import it.unisa.ddditserver.db.gremlin.GremlinConfig;
+import it.unisa.ddditserver.db.gremlin.GremlinClient;
+import it.unisa.ddditserver.db.gremlin.versioning.repo.RepositoryMembershipCache;
 import it.unisa.ddditserver.db.gremlin.invitation.GremlinInvitationRepositoryImpl;
 import it.unisa.ddditserver.subsystems.auth.dto.UserDTO;
 import it.unisa.ddditserver.subsystems.invitation.dto.InvitationDTO;
 import it.unisa.ddditserver.subsystems.versioning.dto.RepositoryDTO;
-import org.apache.tinkerpop.gremlin.driver.Client;
 import org.apache.tinkerpop.gremlin.driver.Result;
 import org.apache.tinkerpop.gremlin.driver.ResultSet;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
-import java.lang.reflect.Field;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -23,10 +22,10 @@ import static org.mockito.ArgumentMatchers.anyString;
 // ATTENTION: at the moment due to time restrictions only tests for happy paths are available
 class GremlinInvitationRepositoryImplTest {
     @Mock
-    private GremlinConfig config;
+    private GremlinClient client;
 
     @Mock
-    private Client client;
+    private RepositoryMembershipCache membershipCache;
 
     @InjectMocks
     private GremlinInvitationRepositoryImpl repository;
@@ -34,11 +33,7 @@ class GremlinInvitationRepositoryImplTest {
     @BeforeEach
     void setUp() throws Exception {
         MockitoAnnotations.openMocks(this);
-        repository = new GremlinInvitationRepositoryImpl(config);
-
-        Field clientField = GremlinInvitationRepositoryImpl.class.getDeclaredField("client");
-        clientField.setAccessible(true);
-        clientField.set(repository, client);
+        repository = new GremlinInvitationRepositoryImpl(client, membershipCache);
     }
 
     @Test
@@ -48,8 +43,10 @@ class GremlinInvitationRepositoryImplTest {
         UserDTO toUser = new UserDTO("user2", null);
         RepositoryDTO repo = new RepositoryDTO("repo1");
 
-        assertDoesNotThrow(() -> repository.saveInvitation(fromUser, toUser, repo));
-        verify(client, times(1)).submit(anyString(), any(Map.class));
+        when(client.submitAsync(anyString(), any(Map.class))).thenReturn(CompletableFuture.completedFuture(List.of()));
+
+        assertDoesNotThrow(() -> repository.saveInvitationAsync(fromUser, toUser, repo).join());
+        verify(client, times(1)).submitAsync(anyString(), any(Map.class));
     }
 
     @Test
@@ -99,8 +96,11 @@ class GremlinInvitationRepositoryImplTest {
         UserDTO toUser = new UserDTO("user2", null);
         RepositoryDTO repo = new RepositoryDTO("repo1");
 
-        assertDoesNotThrow(() -> repository.acceptInvitation(fromUser, toUser, repo));
-        verify(client, times(1)).submit(anyString(), any(Map.class));
+        when(client.submitAsync(anyString(), any(Map.class))).thenReturn(CompletableFuture.completedFuture(List.of()));
+
+        assertDoesNotThrow(() -> repository.acceptInvitationAsync(fromUser, toUser, repo).join());
+        verify(client, times(1)).submitAsync(anyString(), any(Map.class));
+        verify(membershipCache, times(1)).invalidate("user2", "repo1");
     }
 
     @Test
@@ -1,16 +1,15 @@
 package it.unisa.ddditserver.db.unit.gremlin.versioning;
 
-import it.unisa.ddditserver.db.gremlin.GremlinConfig;
+import it.unisa.ddditserver.db.gremlin.GremlinClient;
 import it.unisa.ddditserver.db.gremlin.versioning.branch.GremlinBranchRepositoryImpl;
 import it.unisa.ddditserver.subsystems.versioning.dto.BranchDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.PageDTO;
 import it.unisa.ddditserver.subsystems.versioning.dto.ResourceDTO;
-import org.apache.tinkerpop.gremlin.driver.Client;
 import org.apache.tinkerpop.gremlin.driver.Result;
 import org.apache.tinkerpop.gremlin.driver.ResultSet;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
-import java.lang.reflect.Field;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -22,10 +21,7 @@ import static org.mockito.Mockito.*;
 // ATTENTION: at the moment due to time restrictions only tests for happy paths are available
 class GremlinBranchRepositoryImplTest {
     @Mock
-    private GremlinConfig config;
-
-    @Mock
-    private Client client;
+    private GremlinClient client;
 
     @InjectMocks
     private GremlinBranchRepositoryImpl repository;
@@ -33,11 +29,7 @@ class GremlinBranchRepositoryImplTest {
     @BeforeEach
     void setUp() throws Exception {
         MockitoAnnotations.openMocks(this);
-        repository = new GremlinBranchRepositoryImpl(config);
-
-        Field clientField = GremlinBranchRepositoryImpl.class.getDeclaredField("client");
-        clientField.setAccessible(true);
-        clientField.set(repository, client);
+        repository = new GremlinBranchRepositoryImpl(client);
     }
 
     @Test
@@ -45,8 +37,10 @@ class GremlinBranchRepositoryImplTest {
     void saveBranchSuccess() {
         BranchDTO branch = new BranchDTO("repo1", "resource1", "branch1");
 
-        assertDoesNotThrow(() -> repository.saveBranch(branch));
-        verify(client, times(1)).submit(anyString(), any(Map.class));
+        when(client.submitAsync(anyString(), any(Map.class))).thenReturn(CompletableFuture.completedFuture(List.of()));
+
+        assertDoesNotThrow(() -> repository.saveBranchAsync(branch).join());
+        verify(client, times(1)).submitAsync(anyString(), any(Map.class));
     }
 
     @Test
@@ -83,28 +77,27 @@ class GremlinBranchRepositoryImplTest {
     }
 
     @Test
-    // Happy path: findBranchesByResource returns a list of branches
+    // Happy path: findBranchesByResource returns a full page of BranchDTO and the token of the next page
     void findBranchesByResourceReturnsList() {
         ResourceDTO resource = new ResourceDTO("repo1", "resource1");
 
-        Result mockResult = mock(Result.class);
-        when(mockResult.getObject()).thenReturn(Map.of(
-                "branchName", List.of("branch1")
-        ));
+        Result firstResult = mock(Result.class);
+        when(firstResult.getString()).thenReturn("branch1");
+        Result secondResult = mock(Result.class);
 
         ResultSet mockResultSet = mock(ResultSet.class);
-        CompletableFuture<List<Result>> future = CompletableFuture.completedFuture(List.of(mockResult));
+        CompletableFuture<List<Result>> future = CompletableFuture.completedFuture(List.of(firstResult, secondResult));
         when(mockResultSet.all()).thenReturn(future);
         when(client.submit(anyString(), any(Map.class))).thenReturn(mockResultSet);
 
-        List<BranchDTO> branches = repository.findBranchesByResource(resource);
+        PageDTO<BranchDTO> page = repository.findBranchesByResource(resource, null, 1);
 
-        assertNotNull(branches);
-        assertEquals(1, branches.size());
-        assertEquals("branch1", branches.get(0).getBranchName());
-        assertEquals("repo1", branches.get(0).getRepositoryName());
-        assertEquals("resource1", branches.get(0).getResourceName());
+        assertNotNull(page);
+        assertEquals(1, page.getItems().size());
+        assertEquals("branch1", page.getItems().get(0).getBranchName());
+        assertEquals("repo1", page.getItems().get(0).getRepositoryName());
+        assertEquals("resource1", page.getItems().get(0).getResourceName());
+        assertNotNull(page.getContinuationToken());
         verify(client, times(1)).submit(anyString(), any(Map.class));
     }
 }
-
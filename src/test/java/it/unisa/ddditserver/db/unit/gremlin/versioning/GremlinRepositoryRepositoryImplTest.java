@@ -1,31 +1,34 @@
 package it.unisa.ddditserver.db.unit.gremlin.versioning;
 
-import it.unisa.ddditserver.db.gremlin.GremlinConfig;
+import it.unisa.ddditserver.db.gremlin.GremlinClient;
+import it.unisa.ddditserver.db.gremlin.versioning.repo.RepositoryMembershipCache;
 import it.unisa.ddditserver.db.gremlin.versioning.repo.GremlinRepositoryRepositoryImpl;
 import it.unisa.ddditserver.subsystems.auth.dto.UserDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.PageDTO;
 import it.unisa.ddditserver.subsystems.versioning.dto.RepositoryDTO;
-import org.apache.tinkerpop.gremlin.driver.Client;
+import it.unisa.ddditserver.subsystems.versioning.dto.RepositoryRole;
 import org.apache.tinkerpop.gremlin.driver.Result;
 import org.apache.tinkerpop.gremlin.driver.ResultSet;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
-import java.lang.reflect.Field;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 
 // ATTENTION: at the moment due to time restrictions only tests for happy paths are available
 class GremlinRepositoryRepositoryImplTest {
     @Mock
-    private GremlinConfig config;
+    private GremlinClient client;
 
     @Mock
-    private Client client;
+    private RepositoryMembershipCache membershipCache;
 
     @InjectMocks
     private GremlinRepositoryRepositoryImpl repository;
@@ -33,11 +36,11 @@ class GremlinRepositoryRepositoryImplTest {
     @BeforeEach
     void setUp() throws Exception {
         MockitoAnnotations.openMocks(this);
-        repository = new GremlinRepositoryRepositoryImpl(config);
+        repository = new GremlinRepositoryRepositoryImpl(client, membershipCache);
 
-        Field clientField = GremlinRepositoryRepositoryImpl.class.getDeclaredField("client");
-        clientField.setAccessible(true);
-        clientField.set(repository, client);
+        // A lookup missing the cache queries Gremlin DB
+        when(membershipCache.get(anyString(), anyString(), any())).thenAnswer(invocation ->
+                invocation.<Supplier<CompletableFuture<RepositoryRole>>>getArgument(2).get().join());
     }
 
     @Test
@@ -46,8 +49,10 @@ class GremlinRepositoryRepositoryImplTest {
         UserDTO user = new UserDTO("user1", null);
         RepositoryDTO repo = new RepositoryDTO("repo1");
 
-        assertDoesNotThrow(() -> repository.saveRepository(repo, user));
-        verify(client, times(1)).submit(anyString(), any(Map.class));
+        when(client.submitAsync(anyString(), any(Map.class))).thenReturn(CompletableFuture.completedFuture(List.of()));
+
+        assertDoesNotThrow(() -> repository.saveRepositoryAsync(repo, user).join());
+        verify(client, times(1)).submitAsync(anyString(), any(Map.class));
     }
 
     @Test
@@ -174,55 +179,92 @@ class GremlinRepositoryRepositoryImplTest {
         verify(client, times(1)).submit(anyString(), any(Map.class));
     }
 
+    @Test
+    // Happy path: findUserRole returns the role found by a single traversal
+    void findUserRoleReturnsContributor() throws Exception {
+        RepositoryDTO repo = new RepositoryDTO("repo1");
+        UserDTO user = new UserDTO("user1", null);
+
+        Result mockResult = mock(Result.class);
+        when(mockResult.getString()).thenReturn("CONTRIBUTOR");
+        when(client.submitAsync(anyString(), any(Map.class))).thenReturn(CompletableFuture.completedFuture(List.of(mockResult)));
+
+        RepositoryRole role = repository.findUserRole(repo, user);
+
+        assertEquals(RepositoryRole.CONTRIBUTOR, role);
+        verify(client, times(1)).submitAsync(anyString(), any(Map.class));
+        verify(membershipCache, times(1)).get(eq("user1"), eq("repo1"), any());
+    }
+
+    @Test
+    // Happy path: findUserRole returns the cached role without querying Gremlin DB
+    void findUserRoleReturnsCachedRole() {
+        RepositoryDTO repo = new RepositoryDTO("repo1");
+        UserDTO user = new UserDTO("user1", null);
+
+        when(membershipCache.get(eq("user1"), eq("repo1"), any())).thenReturn(RepositoryRole.OWNER);
+
+        RepositoryRole role = repository.findUserRole(repo, user);
+
+        assertEquals(RepositoryRole.OWNER, role);
+        verify(client, never()).submitAsync(anyString(), any(Map.class));
+    }
+
     @Test
     // Happy path: addContributor submits a query without throwing an exception
     void addContributorSuccess() {
         RepositoryDTO repo = new RepositoryDTO("repo1");
         UserDTO user = new UserDTO("user1", null);
 
-        assertDoesNotThrow(() -> repository.addContributor(repo, user));
-        verify(client, times(1)).submit(anyString(), any(Map.class));
+        when(client.submitAsync(anyString(), any(Map.class))).thenReturn(CompletableFuture.completedFuture(List.of()));
+
+        assertDoesNotThrow(() -> repository.addContributorAsync(repo, user).join());
+        verify(client, times(1)).submitAsync(anyString(), any(Map.class));
+        // Invalidated when the write is sent and again when it is acknowledged
+        verify(membershipCache, times(2)).invalidate("user1", "repo1");
     }
 
     @Test
-    // Happy path: findOwnedRepositoriesByUser returns a list of RepositoryDTO
+    // Happy path: findOwnedRepositoriesByUser returns the last page of RepositoryDTO without a continuation token
     void findOwnedRepositoriesByUserReturnsList() throws Exception {
         UserDTO user = new UserDTO("user1", null);
 
         Result mockResult = mock(Result.class);
-        when(mockResult.getObject()).thenReturn(Map.of("repositoryName", List.of("repo1")));
+        when(mockResult.getString()).thenReturn("repo1");
 
         ResultSet mockResultSet = mock(ResultSet.class);
         CompletableFuture<List<Result>> future = CompletableFuture.completedFuture(List.of(mockResult));
         when(mockResultSet.all()).thenReturn(future);
         when(client.submit(anyString(), any(Map.class))).thenReturn(mockResultSet);
 
-        List<RepositoryDTO> repos = repository.findOwnedRepositoriesByUser(user);
+        PageDTO<RepositoryDTO> page = repository.findOwnedRepositoriesByUser(user, null, 10);
 
-        assertNotNull(repos);
-        assertEquals(1, repos.size());
-        assertEquals("repo1", repos.get(0).getRepositoryName());
+        assertNotNull(page);
+        assertEquals(1, page.getItems().size());
+        assertEquals("repo1", page.getItems().get(0).getRepositoryName());
+        assertNull(page.getContinuationToken());
         verify(client, times(1)).submit(anyString(), any(Map.class));
     }
 
     @Test
-    // Happy path: findContributedRepositoriesByUser returns a list of RepositoryDTO
+    // Happy path: findContributedRepositoriesByUser returns the last page of RepositoryDTO without a continuation token
     void findContributedRepositoriesByUserReturnsList() throws Exception {
         UserDTO user = new UserDTO("user1", null);
 
         Result mockResult = mock(Result.class);
-        when(mockResult.getObject()).thenReturn(Map.of("repositoryName", List.of("repo1")));
+        when(mockResult.getString()).thenReturn("repo1");
 
         ResultSet mockResultSet = mock(ResultSet.class);
         CompletableFuture<List<Result>> future = CompletableFuture.completedFuture(List.of(mockResult));
         when(mockResultSet.all()).thenReturn(future);
         when(client.submit(anyString(), any(Map.class))).thenReturn(mockResultSet);
 
-        List<RepositoryDTO> repos = repository.findContributedRepositoriesByUser(user);
+        PageDTO<RepositoryDTO> page = repository.findContributedRepositoriesByUser(user, null, 10);
 
-        assertNotNull(repos);
-        assertEquals(1, repos.size());
-        assertEquals("repo1", repos.get(0).getRepositoryName());
+        assertNotNull(page);
+        assertEquals(1, page.getItems().size());
+        assertEquals("repo1", page.getItems().get(0).getRepositoryName());
+        assertNull(page.getContinuationToken());
         verify(client, times(1)).submit(anyString(), any(Map.class));
     }
 }
@@ -1,16 +1,15 @@
 package it.unisa.ddditserver.db.unit.gremlin.versioning;
 
-import it.unisa.ddditserver.db.gremlin.GremlinConfig;
+import it.unisa.ddditserver.db.gremlin.GremlinClient;
 import it.unisa.ddditserver.db.gremlin.versioning.resource.GremlinResourceRepositoryImpl;
+import it.unisa.ddditserver.subsystems.versioning.dto.PageDTO;
 import it.unisa.ddditserver.subsystems.versioning.dto.ResourceDTO;
 import it.unisa.ddditserver.subsystems.versioning.dto.RepositoryDTO;
-import org.apache.tinkerpop.gremlin.driver.Client;
 import org.apache.tinkerpop.gremlin.driver.Result;
 import org.apache.tinkerpop.gremlin.driver.ResultSet;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
-import java.lang.reflect.Field;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -22,10 +21,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 // ATTENTION: at the moment due to time restrictions only tests for happy paths are available
 class GremlinResourceRepositoryImplTest {
     @Mock
-    private GremlinConfig config;
-
-    @Mock
-    private Client client;
+    private GremlinClient client;
 
     @InjectMocks
     private GremlinResourceRepositoryImpl repository;
@@ -33,11 +29,7 @@ class GremlinResourceRepositoryImplTest {
     @BeforeEach
     void setUp() throws Exception {
         MockitoAnnotations.openMocks(this);
-        repository = new GremlinResourceRepositoryImpl(config);
-
-        Field clientField = GremlinResourceRepositoryImpl.class.getDeclaredField("client");
-        clientField.setAccessible(true);
-        clientField.set(repository, client);
+        repository = new GremlinResourceRepositoryImpl(client);
     }
 
     @Test
@@ -45,8 +37,10 @@ class GremlinResourceRepositoryImplTest {
     void saveResourceSuccess() {
         ResourceDTO resource = new ResourceDTO("repo1", "res1");
 
-        assertDoesNotThrow(() -> repository.saveResource(resource));
-        verify(client, times(1)).submit(anyString(), any(Map.class));
+        when(client.submitAsync(anyString(), any(Map.class))).thenReturn(CompletableFuture.completedFuture(List.of()));
+
+        assertDoesNotThrow(() -> repository.saveResourceAsync(resource).join());
+        verify(client, times(1)).submitAsync(anyString(), any(Map.class));
     }
 
     @Test
@@ -88,20 +82,44 @@ class GremlinResourceRepositoryImplTest {
         RepositoryDTO repo = new RepositoryDTO("repo1");
 
         Result mockResult = mock(Result.class);
-        when(mockResult.getObject()).thenReturn(Map.of("resourceName", List.of("res1")));
+        when(mockResult.getString()).thenReturn("res1");
 
         ResultSet mockResultSet = mock(ResultSet.class);
         CompletableFuture<List<Result>> future = CompletableFuture.completedFuture(List.of(mockResult));
         when(mockResultSet.all()).thenReturn(future);
         when(client.submit(anyString(), any(Map.class))).thenReturn(mockResultSet);
 
-        List<ResourceDTO> resources = repository.findResourcesByRepository(repo);
+        PageDTO<ResourceDTO> page = repository.findResourcesByRepository(repo, null, 10);
 
-        assertNotNull(resources);
-        assertEquals(1, resources.size());
-        assertEquals("res1", resources.get(0).getResourceName());
-        assertEquals("repo1", resources.get(0).getRepositoryName());
+        assertNotNull(page);
+        assertEquals(1, page.getItems().size());
+        assertEquals("res1", page.getItems().get(0).getResourceName());
+        assertEquals("repo1", page.getItems().get(0).getRepositoryName());
+        assertNull(page.getContinuationToken());
         verify(client, times(1)).submit(anyString(), any(Map.class));
     }
-}
 
+    @Test
+    // Happy path: findVersionTreeByResource returns a page of branches with their ordered versions in a single request
+    void findVersionTreeByResourceReturnsPage() {
+        ResourceDTO resource = new ResourceDTO("repo1", "res1");
+
+        Result devResult = mock(Result.class);
+        when(devResult.getObject()).thenReturn(Map.of("branchName", "dev", "versionNames", List.of()));
+        Result mainResult = mock(Result.class);
+        when(mainResult.getObject()).thenReturn(Map.of("branchName", "main", "versionNames", List.of("v1", "v2")));
+
+        ResultSet mockResultSet = mock(ResultSet.class);
+        CompletableFuture<List<Result>> future = CompletableFuture.completedFuture(List.of(devResult, mainResult));
+        when(mockResultSet.all()).thenReturn(future);
+        when(client.submit(anyString(), any(Map.class))).thenReturn(mockResultSet);
+
+        PageDTO<Map.Entry<String, List<String>>> page = repository.findVersionTreeByResource(resource, null, 1);
+
+        assertEquals(1, page.getItems().size());
+        assertEquals("dev", page.getItems().get(0).getKey());
+        assertTrue(page.getItems().get(0).getValue().isEmpty());
+        assertNotNull(page.getContinuationToken());
+        verify(client, times(1)).submit(anyString(), any(Map.class));
+    }
+}
@@ -2,19 +2,25 @@ package it.unisa.ddditserver.db.unit.gremlin.versioning;
 
 import it.unisa.ddditserver.db.blobstorage.versioning.BlobStorageVersionRepository;
 import it.unisa.ddditserver.db.cosmos.versioning.CosmosVersionRepository;
-import it.unisa.ddditserver.db.gremlin.GremlinConfig;
+import it.unisa.ddditserver.db.gremlin.GremlinClient;
 import it.unisa.ddditserver.db.gremlin.versioning.version.GremlinVersionRepositoryImpl;
-import it.unisa.ddditserver.subsystems.versioning.dto.BranchDTO;
+import it.unisa.ddditserver.db.gremlin.versioning.version.VersionKeyBackfill;
+import it.unisa.ddditserver.db.gremlin.versioning.version.VersionPushSaga;
+import it.unisa.ddditserver.subsystems.versioning.dto.VersioningPathDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.VersioningPathLevel;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.BlobFileDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.PushJournalEntryDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.PushStatus;
 import it.unisa.ddditserver.subsystems.versioning.dto.version.VersionDTO;
-import org.apache.tinkerpop.gremlin.driver.Client;
 import org.apache.tinkerpop.gremlin.driver.Result;
 import org.apache.tinkerpop.gremlin.driver.ResultSet;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
-import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -23,9 +29,6 @@ import static org.mockito.ArgumentMatchers.anyString;
 
 // ATTENTION: at the moment due to time restrictions only tests for happy paths are available
 class GremlinVersionRepositoryImplTest {
-    @Mock
-    private GremlinConfig config;
-
     @Mock
     private CosmosVersionRepository cosmosService;
 
@@ -33,7 +36,13 @@ class GremlinVersionRepositoryImplTest {
     private BlobStorageVersionRepository blobStorageService;
 
     @Mock
-    private Client client;
+    private GremlinClient client;
+
+    @Mock
+    private VersionPushSaga pushSaga;
+
+    @Mock
+    private VersionKeyBackfill versionKeyBackfill;
 
     @InjectMocks
     private GremlinVersionRepositoryImpl repository;
@@ -41,11 +50,36 @@ class GremlinVersionRepositoryImplTest {
     @BeforeEach
     void setUp() throws Exception {
         MockitoAnnotations.openMocks(this);
-        repository = new GremlinVersionRepositoryImpl(config, cosmosService, blobStorageService);
+        repository = new GremlinVersionRepositoryImpl(client, cosmosService, blobStorageService, pushSaga, versionKeyBackfill);
+    }
+
+    @Test
+    // Happy path: saveVersion writes the document while the mesh is uploaded, appends the version vertex
+    // and its edges with a single Gremlin request and commits the push in the journal
+    void saveVersionSingleRoundTrip() {
+        VersionDTO version = new VersionDTO("repo1", "res1", "branch1", "v1", null, null, null, null, null, null);
 
-        Field clientField = GremlinVersionRepositoryImpl.class.getDeclaredField("client");
-        clientField.setAccessible(true);
-        clientField.set(repository, client);
+        when(blobStorageService.getMeshUrl(version)).thenReturn("blobUrl");
+        when(cosmosService.getDocumentUrl(eq(version), anyString())).thenReturn("cosmosUrl");
+        when(cosmosService.saveVersionAsync(eq(version), eq("blobUrl"), anyString()))
+                .thenReturn(CompletableFuture.completedFuture("cosmosUrl"));
+
+        PushJournalEntryDTO pushEntry = new PushJournalEntryDTO("push1", "repo1", "repo1/res1/branch1/v1", "mesh",
+                "blobUrl", "cosmosUrl", PushStatus.STARTED, 0L, new ArrayList<>());
+        when(pushSaga.start(eq("repo1"), eq("repo1/res1/branch1/v1"), eq("mesh"), eq("blobUrl"), eq("cosmosUrl")))
+                .thenReturn(pushEntry);
+
+        Result mockResult = mock(Result.class);
+        ResultSet mockResultSet = mock(ResultSet.class);
+        CompletableFuture<List<Result>> future = CompletableFuture.completedFuture(List.of(mockResult));
+        when(mockResultSet.all()).thenReturn(future);
+        when(client.submit(anyString(), any(Map.class))).thenReturn(mockResultSet);
+
+        assertDoesNotThrow(() -> repository.saveVersion(version, true));
+        verify(client, times(1)).submit(anyString(), any(Map.class));
+        verify(blobStorageService, times(1)).saveMesh(eq(version), any());
+        verify(pushSaga, times(1)).commit(pushEntry);
+        verify(pushSaga, never()).compensate(any(), any());
     }
 
     @Test
@@ -81,6 +115,99 @@ class GremlinVersionRepositoryImplTest {
         verify(client, times(1)).submit(anyString(), any(Map.class));
     }
 
+    @Test
+    // Happy path: after the backfill an existing version is found by its composite key without walking the chain
+    void existsByVersionIndexedLookupHit() {
+        VersionDTO version = new VersionDTO("repo1", "res1", "branch1", "v1", null, null, null, null, null, null);
+        when(versionKeyBackfill.isChainFallbackActive()).thenReturn(false);
+
+        ResultSet mockResultSet = mock(ResultSet.class);
+        when(mockResultSet.all()).thenReturn(CompletableFuture.completedFuture(List.of(mock(Result.class))));
+        ArgumentCaptor<String> query = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Map> parameters = ArgumentCaptor.forClass(Map.class);
+        when(client.submit(query.capture(), parameters.capture())).thenReturn(mockResultSet);
+
+        assertTrue(repository.existsByVersion(version));
+        assertFalse(query.getValue().contains("HAS_NEXT_VERSION"));
+        assertEquals("repo1/res1/branch1/v1", parameters.getValue().get("versionKey"));
+    }
+
+    @Test
+    // Happy path: after the backfill a missing version, as checked by every push, costs a single index lookup
+    void existsByVersionIndexedLookupMiss() {
+        VersionDTO version = new VersionDTO("repo1", "res1", "branch1", "v2", null, null, null, null, null, null);
+        when(versionKeyBackfill.isChainFallbackActive()).thenReturn(false);
+
+        ResultSet mockResultSet = mock(ResultSet.class);
+        when(mockResultSet.all()).thenReturn(CompletableFuture.completedFuture(List.of()));
+        ArgumentCaptor<String> query = ArgumentCaptor.forClass(String.class);
+        when(client.submit(query.capture(), any(Map.class))).thenReturn(mockResultSet);
+
+        assertFalse(repository.existsByVersion(version));
+        assertFalse(query.getValue().contains("HAS_NEXT_VERSION"));
+        assertFalse(query.getValue().contains("coalesce"));
+        verify(client, times(1)).submit(anyString(), any(Map.class));
+    }
+
+    @Test
+    // Happy path: before the backfill has completed the lookup still walks the chain for versions without the key
+    void existsByVersionWalksChainBeforeBackfill() {
+        VersionDTO version = new VersionDTO("repo1", "res1", "branch1", "v1", null, null, null, null, null, null);
+        when(versionKeyBackfill.isChainFallbackActive()).thenReturn(true);
+
+        ResultSet mockResultSet = mock(ResultSet.class);
+        when(mockResultSet.all()).thenReturn(CompletableFuture.completedFuture(List.of(mock(Result.class))));
+        ArgumentCaptor<String> query = ArgumentCaptor.forClass(String.class);
+        when(client.submit(query.capture(), any(Map.class))).thenReturn(mockResultSet);
+
+        assertTrue(repository.existsByVersion(version));
+        assertTrue(query.getValue().contains("HAS_NEXT_VERSION"));
+    }
+
+    @Test
+    // Happy path: the keys are looked up with one request per repository, scoped to its partition
+    void findBlobUrlsByVersionKeysGroupsByRepository() {
+        Result version = mock(Result.class);
+        when(version.getObject()).thenReturn(Map.of(
+                "versionKey", List.of("repo1/res1/branch1/v1"),
+                "blobUrl", List.of("https://blob/repo1/res1/branch1/v1/mesh.fbx")));
+
+        ResultSet repo1Results = mock(ResultSet.class);
+        when(repo1Results.all()).thenReturn(CompletableFuture.completedFuture(List.of(version)));
+        ResultSet repo2Results = mock(ResultSet.class);
+        when(repo2Results.all()).thenReturn(CompletableFuture.completedFuture(List.of()));
+
+        when(client.submit(anyString(), anyMap())).thenAnswer(invocation -> {
+            Map<?, ?> parameters = invocation.getArgument(1);
+            return "repo1".equals(parameters.get("repositoryName")) ? repo1Results : repo2Results;
+        });
+
+        Map<String, String> blobUrls = repository.findBlobUrlsByVersionKeys(
+                List.of("repo1/res1/branch1/v1", "repo1/res1/branch1/v2", "repo2/res1/branch1/v1"));
+
+        assertEquals(Map.of("repo1/res1/branch1/v1", "https://blob/repo1/res1/branch1/v1/mesh.fbx"), blobUrls);
+        verify(client, times(2)).submit(contains("has('version', 'repoId', repositoryName)"), anyMap());
+    }
+
+    @Test
+    // Happy path: findFirstMissingLevel reports the first missing level of the path with a single Gremlin request
+    void findFirstMissingLevelReturnsBranch() throws Exception {
+        VersioningPathDTO path = new VersioningPathDTO("repo1", "res1", "branch1", "v1");
+
+        // Repository and resource found, the branch is missing
+        Result mockResult = mock(Result.class);
+        when(mockResult.getInt()).thenReturn(2);
+        ResultSet mockResultSet = mock(ResultSet.class);
+        CompletableFuture<List<Result>> future = CompletableFuture.completedFuture(List.of(mockResult));
+        when(mockResultSet.all()).thenReturn(future);
+        when(client.submit(anyString(), any(Map.class))).thenReturn(mockResultSet);
+
+        VersioningPathLevel result = repository.findFirstMissingLevel(path);
+
+        assertEquals(VersioningPathLevel.BRANCH, result);
+        verify(client, times(1)).submit(anyString(), any(Map.class));
+    }
+
     @Test
     // Happy path: findVersionByBranch returns VersionDTO from Cosmos
     void findVersionByBranchSuccess() throws Exception {
@@ -105,23 +232,45 @@ class GremlinVersionRepositoryImplTest {
     }
 
     @Test
-    // Happy path: findVersionsByBranch returns a list of VersionDTO
-    void findVersionsByBranchSuccess() {
-        BranchDTO branch = new BranchDTO("repo1", "res1", "branch1");
+    // Happy path: findFilesByVersion reads the BLOB URL from the version vertex without reading Cosmos DB
+    void findFilesByVersionUsesBlobUrlOfVertex() {
+        VersionDTO version = new VersionDTO("repo1", "res1", "branch1", "v1", null, null, null, null, null, null);
+
+        Result mockResult = mock(Result.class);
+        when(mockResult.getObject()).thenReturn(Map.of(
+                "cosmosDocumentUrl", List.of("url1"),
+                "resourceType", List.of("mesh"),
+                "blobUrl", List.of("blobUrl")));
+
+        ResultSet mockResultSet = mock(ResultSet.class);
+        CompletableFuture<List<Result>> future = CompletableFuture.completedFuture(List.of(mockResult));
+        when(mockResultSet.all()).thenReturn(future);
+        when(client.submit(anyString(), any(Map.class))).thenReturn(mockResultSet);
+
+        BlobFileDTO file = new BlobFileDTO("blobUrl", "mesh.fbx", "application/octet-stream", 10L, "etag");
+        when(blobStorageService.findMeshFileByUrl("blobUrl")).thenReturn(file);
+
+        List<BlobFileDTO> files = repository.findFilesByVersion(version);
 
+        assertEquals(List.of(file), files);
+        verify(client, times(1)).submit(anyString(), any(Map.class));
+        verify(cosmosService, never()).getBlobUrlByUrl(anyString());
+    }
+
+    @Test
+    // Happy path: findReferencedDocumentUrls returns the document URLs referenced by a version vertex
+    void findReferencedDocumentUrlsReturnsReferencedUrls() {
         Result mockResult = mock(Result.class);
-        when(mockResult.getObject()).thenReturn(Map.of("versionName", List.of("v1")));
+        when(mockResult.getString()).thenReturn("url1");
 
         ResultSet mockResultSet = mock(ResultSet.class);
         CompletableFuture<List<Result>> future = CompletableFuture.completedFuture(List.of(mockResult));
         when(mockResultSet.all()).thenReturn(future);
         when(client.submit(anyString(), any(Map.class))).thenReturn(mockResultSet);
 
-        List<VersionDTO> versions = repository.findVersionsByBranch(branch);
+        Set<String> referencedUrls = repository.findReferencedDocumentUrls(List.of("url1", "url2"));
 
-        assertNotNull(versions);
-        assertEquals(1, versions.size());
-        assertEquals("v1", versions.get(0).getVersionName());
+        assertEquals(Set.of("url1"), referencedUrls);
         verify(client, times(1)).submit(anyString(), any(Map.class));
     }
 }
@@ -0,0 +1,45 @@
+package it.unisa.ddditserver.db.unit.gremlin.versioning;
+
+import it.unisa.ddditserver.db.gremlin.GremlinConfig;
+import it.unisa.ddditserver.db.gremlin.versioning.repo.RepositoryMembershipCache;
+import it.unisa.ddditserver.subsystems.versioning.dto.RepositoryRole;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.CompletableFuture;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// ATTENTION: at the moment due to time restrictions only tests for happy paths are available
+class RepositoryMembershipCacheTest {
+    private RepositoryMembershipCache cache;
+
+    @BeforeEach
+    void setUp() {
+        GremlinConfig config = mock(GremlinConfig.class);
+        when(config.getMembershipCacheTtlMillis()).thenReturn(60000L);
+        when(config.getMembershipCacheMaxSize()).thenReturn(100);
+
+        cache = new RepositoryMembershipCache(config);
+    }
+
+    @Test
+    // Happy path: a lookup in flight when the membership is invalidated is not kept
+    void invalidateDropsLookupInFlight() {
+        CompletableFuture<RepositoryRole> staleLookup = new CompletableFuture<>();
+
+        CompletableFuture<RepositoryRole> role = CompletableFuture.supplyAsync(() -> cache.get("user1", "repo1", () -> staleLookup));
+        // The lookup has to be registered before the invalidation
+        while (cache.getCacheMetrics().get("misses").equals(0L)) {
+            Thread.onSpinWait();
+        }
+
+        cache.invalidate("user1", "repo1");
+        staleLookup.complete(RepositoryRole.NONE);
+
+        assertEquals(RepositoryRole.NONE, role.join());
+        assertEquals(RepositoryRole.CONTRIBUTOR,
+                cache.get("user1", "repo1", () -> CompletableFuture.completedFuture(RepositoryRole.CONTRIBUTOR)));
+        assertEquals(RepositoryRole.CONTRIBUTOR,
+                cache.get("user1", "repo1", () -> CompletableFuture.completedFuture(RepositoryRole.OWNER)));
+    }
+}
@@ -0,0 +1,80 @@
+package it.unisa.ddditserver.db.unit.gremlin.versioning;
+
+import it.unisa.ddditserver.db.gremlin.GremlinClient;
+import it.unisa.ddditserver.db.gremlin.GremlinConfig;
+import it.unisa.ddditserver.db.gremlin.versioning.version.VersionKeyBackfill;
+import org.apache.tinkerpop.gremlin.driver.Result;
+import org.apache.tinkerpop.gremlin.driver.ResultSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// ATTENTION: at the moment due to time restrictions only tests for happy paths are available
+class VersionKeyBackfillTest {
+    @Mock
+    private GremlinClient client;
+
+    @Mock
+    private GremlinConfig config;
+
+    private VersionKeyBackfill backfill;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(config.isVersionChainFallbackEnabled()).thenReturn(true);
+        when(config.getVersionKeyBackfillBatch()).thenReturn(100);
+        backfill = new VersionKeyBackfill(client, config);
+    }
+
+    private static ResultSet resultSetOf(List<Result> results) {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.all()).thenReturn(CompletableFuture.completedFuture(results));
+        return resultSet;
+    }
+
+    @Test
+    // Happy path: the backfill writes the composite key on the versions without it and then turns the chain fallback off
+    void runBackfillWritesKeysAndDisablesFallback() {
+        Result missingVersion = mock(Result.class);
+        when(missingVersion.getObject()).thenReturn(Map.of(
+                "id", "vertex1",
+                "repositoryName", "repo1",
+                "resourceName", "res1",
+                "branchName", "branch1",
+                "versionName", "v1"));
+
+        ResultSet firstBatch = resultSetOf(List.of(missingVersion));
+        ResultSet emptyBatch = resultSetOf(List.of());
+        ResultSet written = resultSetOf(List.of(mock(Result.class)));
+
+        when(client.submit(contains("hasNot('versionKey')"), anyMap())).thenReturn(firstBatch, emptyBatch);
+        ArgumentCaptor<Map> writeParameters = ArgumentCaptor.forClass(Map.class);
+        when(client.submit(contains("property('versionKey'"), writeParameters.capture())).thenReturn(written);
+
+        assertTrue(backfill.isChainFallbackActive());
+
+        backfill.runBackfill();
+
+        assertFalse(backfill.isChainFallbackActive());
+        assertEquals("repo1/res1/branch1/v1", writeParameters.getValue().get("versionKey"));
+        assertEquals("vertex1", writeParameters.getValue().get("versionId"));
+    }
+
+    @Test
+    // Happy path: with the fallback disabled by configuration the lookups never walk the chain
+    void fallbackDisabledByConfiguration() {
+        when(config.isVersionChainFallbackEnabled()).thenReturn(false);
+
+        VersionKeyBackfill disabled = new VersionKeyBackfill(client, config);
+        disabled.init();
+
+        assertFalse(disabled.isChainFallbackActive());
+        verifyNoInteractions(client);
+    }
+}
@@ -0,0 +1,163 @@
+package it.unisa.ddditserver.db.unit.gremlin.versioning;
+
+import it.unisa.ddditserver.db.blobstorage.versioning.BlobStorageVersionRepository;
+import it.unisa.ddditserver.db.cosmos.CosmosConfig;
+import it.unisa.ddditserver.db.cosmos.versioning.CosmosPushJournalRepository;
+import it.unisa.ddditserver.db.cosmos.versioning.CosmosVersionRepository;
+import it.unisa.ddditserver.db.gremlin.GremlinClient;
+import it.unisa.ddditserver.db.gremlin.versioning.version.VersionPushSaga;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.PushJournalEntryDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.PushStatus;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.WrittenBlobDTO;
+import org.apache.tinkerpop.gremlin.driver.Result;
+import org.apache.tinkerpop.gremlin.driver.ResultSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// ATTENTION: at the moment due to time restrictions only tests for happy paths are available
+class VersionPushSagaTest {
+    @Mock
+    private GremlinClient client;
+
+    @Mock
+    private CosmosVersionRepository cosmosService;
+
+    @Mock
+    private BlobStorageVersionRepository blobStorageService;
+
+    @Mock
+    private CosmosPushJournalRepository pushJournal;
+
+    @Mock
+    private CosmosConfig config;
+
+    private VersionPushSaga saga;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(config.getPushJournalRecoveryMillis()).thenReturn(3_600_000L);
+        when(config.getPushJournalStaleMillis()).thenReturn(1_800_000L);
+        when(config.getPushJournalRecoveryBatch()).thenReturn(100);
+        when(pushJournal.findStaleEntries(anyLong(), anyInt())).thenReturn(List.of());
+        saga = new VersionPushSaga(client, cosmosService, blobStorageService, pushJournal, config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        saga.close();
+    }
+
+    // Makes the version vertex lookup return the given document URL, or no vertex if it is null
+    private void versionVertexWithDocument(String cosmosDocumentUrl) {
+        List<Result> results = new ArrayList<>();
+
+        if (cosmosDocumentUrl != null) {
+            Result result = mock(Result.class);
+            when(result.getString()).thenReturn(cosmosDocumentUrl);
+            results.add(result);
+        }
+
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.all()).thenReturn(CompletableFuture.completedFuture(results));
+        when(client.submit(contains("has('versionKey', versionKey)"), anyMap())).thenReturn(resultSet);
+    }
+
+    private static PushJournalEntryDTO staleEntry(String id, String cosmosDocumentUrl, List<WrittenBlobDTO> writtenBlobs) {
+        return new PushJournalEntryDTO(id, "repo1", "repo1/res1/branch1/v1", "mesh",
+                "https://blob/repo1/res1/branch1/v1/mesh.fbx", cosmosDocumentUrl, PushStatus.STARTED, 0L, writtenBlobs);
+    }
+
+    @Test
+    // Happy path: a committed push leaves the journal, also when the entry removal fails it is counted and left to the recovery
+    void commitRemovesEntryAndCountsFailedRemoval() {
+        saga.init();
+        PushJournalEntryDTO first = saga.start("repo1", "repo1/res1/branch1/v1", "mesh", "blobUrl", "cosmosUrl1");
+        PushJournalEntryDTO second = saga.start("repo1", "repo1/res1/branch1/v2", "mesh", "blobUrl", "cosmosUrl2");
+        doThrow(new RuntimeException("unavailable")).when(pushJournal).deleteEntry(second.getId());
+
+        saga.commit(first);
+        saga.commit(second);
+
+        verify(pushJournal, timeout(1000)).deleteEntry(first.getId());
+        verify(pushJournal, timeout(1000)).deleteEntry(second.getId());
+        assertEquals(2L, saga.getSagaMetrics().get("committedPushes"));
+        assertEquals(1L, saga.getSagaMetrics().get("failedJournalDeletions"));
+        assertEquals(0, saga.getSagaMetrics().get("livePushes"));
+    }
+
+    @Test
+    // Happy path: a failed push deletes only the BLOBs it wrote, conditioned on their ETag, and its own document
+    void compensateDeletesOnlyBlobsWrittenByThePush() {
+        saga.init();
+        versionVertexWithDocument(null);
+        PushJournalEntryDTO entry = saga.start("repo1", "repo1/res1/branch1/v1", "mesh", "blobUrl", "cosmosUrl");
+        saga.recordWrittenBlob(entry, "https://blob/repo1/res1/branch1/v1/mesh.fbx", "etag-mesh");
+
+        saga.compensate(entry, CompletableFuture.completedFuture(null));
+
+        verify(pushJournal, timeout(1000)).deleteEntry(entry.getId());
+        verify(pushJournal).recordWrittenBlob(entry.getId(), new WrittenBlobDTO("https://blob/repo1/res1/branch1/v1/mesh.fbx", "etag-mesh"));
+        verify(blobStorageService).deleteMeshByUrlIfMatch("https://blob/repo1/res1/branch1/v1/mesh.fbx", "etag-mesh");
+        verify(blobStorageService, never()).deleteMeshByUrl(anyString());
+        verify(cosmosService).deleteVersionByUrl("cosmosUrl");
+        assertEquals(1L, saga.getSagaMetrics().get("compensatedPushes"));
+    }
+
+    @Test
+    // Happy path: when another push committed the same version its files are kept, only the own document is deleted
+    void compensateKeepsFilesOfVersionCommittedByAnotherPush() {
+        saga.init();
+        versionVertexWithDocument("cosmosUrlOfOtherPush");
+        PushJournalEntryDTO entry = saga.start("repo1", "repo1/res1/branch1/v1", "mesh", "blobUrl", "cosmosUrl");
+        saga.recordWrittenBlob(entry, "https://blob/repo1/res1/branch1/v1/mesh.fbx", "etag-mesh");
+
+        saga.compensate(entry, CompletableFuture.completedFuture(null));
+
+        verify(pushJournal, timeout(1000)).deleteEntry(entry.getId());
+        verify(blobStorageService, never()).deleteMeshByUrlIfMatch(anyString(), anyString());
+        verify(cosmosService).deleteVersionByUrl("cosmosUrl");
+    }
+
+    @Test
+    // Happy path: the recovery removes the entry of a committed push, rolls back a crashed one and refreshes the live ones
+    void recoveryRollsBackStalePushesAndRefreshesLiveOnes() {
+        when(config.getPushJournalRecoveryMillis()).thenReturn(10L);
+
+        PushJournalEntryDTO committed = staleEntry("committed", "cosmosUrlCommitted", List.of());
+        PushJournalEntryDTO crashed = staleEntry("crashed", "cosmosUrlCrashed",
+                List.of(new WrittenBlobDTO("https://blob/repo1/res1/branch1/v1/mesh.fbx", "etag-crashed")));
+
+        Result committedVertex = mock(Result.class);
+        when(committedVertex.getString()).thenReturn("cosmosUrlCommitted");
+        ResultSet committedResults = mock(ResultSet.class);
+        when(committedResults.all()).thenReturn(CompletableFuture.completedFuture(List.of(committedVertex)));
+        ResultSet noResults = mock(ResultSet.class);
+        when(noResults.all()).thenReturn(CompletableFuture.completedFuture(List.of()));
+        when(client.submit(anyString(), anyMap())).thenReturn(committedResults, noResults);
+
+        PushJournalEntryDTO live = saga.start("repo1", "repo1/res1/branch1/v2", "mesh", "blobUrl", "cosmosUrlLive");
+        PushJournalEntryDTO liveInJournal = staleEntry(live.getId(), "cosmosUrlLive", List.of());
+        when(pushJournal.findStaleEntries(anyLong(), anyInt()))
+                .thenReturn(List.of(committed, crashed, liveInJournal))
+                .thenReturn(List.of());
+
+        saga.init();
+
+        verify(pushJournal, timeout(1000)).deleteEntry("crashed");
+        verify(pushJournal, timeout(1000)).deleteEntry("committed");
+        verify(pushJournal, timeout(1000).atLeastOnce()).refreshEntry(live.getId());
+        verify(blobStorageService).deleteMeshByUrlIfMatch("https://blob/repo1/res1/branch1/v1/mesh.fbx", "etag-crashed");
+        verify(cosmosService).deleteVersionByUrl("cosmosUrlCrashed");
+        verify(cosmosService, never()).deleteVersionByUrl("cosmosUrlCommitted");
+        verify(pushJournal, never()).markCompensating(live.getId());
+        assertEquals(2L, saga.getSagaMetrics().get("recoveredPushes"));
+    }
+}
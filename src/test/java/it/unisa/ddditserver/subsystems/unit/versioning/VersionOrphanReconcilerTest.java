@@ -0,0 +1,151 @@
+package it.unisa.ddditserver.subsystems.unit.versioning;
+
+import it.unisa.ddditserver.db.blobstorage.BlobStorageConfig;
+import it.unisa.ddditserver.db.blobstorage.versioning.BlobStorageVersionRepository;
+import it.unisa.ddditserver.db.cosmos.versioning.CosmosVersionRepository;
+import it.unisa.ddditserver.db.gremlin.versioning.version.GremlinVersionRepository;
+import it.unisa.ddditserver.db.gremlin.versioning.version.VersionKeyBackfill;
+import it.unisa.ddditserver.subsystems.versioning.dto.PageDTO;
+import it.unisa.ddditserver.subsystems.versioning.dto.version.StoredBlobDTO;
+import it.unisa.ddditserver.subsystems.versioning.service.version.VersionOrphanReconciler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// ATTENTION: at the moment due to time restrictions only tests for happy paths are available
+class VersionOrphanReconcilerTest {
+    private static final String BLOB_ROOT = "https://account.blob.core.windows.net/meshes/";
+    private static final long OLD = 0L;
+
+    @Mock
+    private GremlinVersionRepository versionRepository;
+
+    @Mock
+    private BlobStorageVersionRepository blobStorageService;
+
+    @Mock
+    private CosmosVersionRepository cosmosService;
+
+    @Mock
+    private BlobStorageConfig config;
+
+    @Mock
+    private VersionKeyBackfill versionKeyBackfill;
+
+    private VersionOrphanReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(config.getReconcilerGracePeriodMillis()).thenReturn(86_400_000L);
+        when(config.getReconcilerPageSize()).thenReturn(100);
+        when(config.getReconcilerMaxDeletionsPerRun()).thenReturn(1000);
+        when(versionKeyBackfill.isChainFallbackActive()).thenReturn(false);
+        when(blobStorageService.findMeshBlobs(any(), anyInt())).thenReturn(new PageDTO<>(List.of(), null));
+        when(blobStorageService.findMaterialBlobs(any(), anyInt())).thenReturn(new PageDTO<>(List.of(), null));
+        when(cosmosService.findVersionDocumentUrls(anyLong(), any(), anyInt())).thenReturn(new PageDTO<>(List.of(), null));
+        when(versionRepository.findBlobUrlsByVersionKeys(anyList())).thenReturn(Map.of());
+        when(versionRepository.findReferencedDocumentUrls(anyList())).thenReturn(Set.of());
+        reconciler = new VersionOrphanReconciler(versionRepository, blobStorageService, cosmosService, config, versionKeyBackfill);
+    }
+
+    private static StoredBlobDTO blob(String blobPath, long lastModifiedMillis) {
+        return new StoredBlobDTO(BLOB_ROOT + blobPath, blobPath, lastModifiedMillis);
+    }
+
+    @Test
+    // Happy path: an orphan older than the grace period is deleted, a recent one is left to the push still writing it
+    void reconcileDeletesOnlyOrphansOlderThanGracePeriod() {
+        StoredBlobDTO oldOrphan = blob("repo1/res1/branch1/v1/mesh.fbx", OLD);
+        StoredBlobDTO recentOrphan = blob("repo1/res1/branch1/v2/mesh.fbx", System.currentTimeMillis());
+        when(blobStorageService.findMeshBlobs(any(), anyInt())).thenReturn(new PageDTO<>(List.of(oldOrphan, recentOrphan), null));
+
+        reconciler.reconcile();
+
+        verify(blobStorageService).deleteMeshByUrl(oldOrphan.getBlobUrl());
+        verify(blobStorageService, never()).deleteMeshByUrl(recentOrphan.getBlobUrl());
+        verify(versionRepository).findBlobUrlsByVersionKeys(List.of("repo1/res1/branch1/v1"));
+    }
+
+    @Test
+    // Happy path: an old texture is kept while another file of the same material folder is still recent
+    void reconcileKeepsFolderHoldingRecentFile() {
+        StoredBlobDTO oldTexture = blob("repo1/res1/branch1/v1/albedo.png", OLD);
+        StoredBlobDTO recentTexture = blob("repo1/res1/branch1/v1/normal.png", System.currentTimeMillis());
+        when(blobStorageService.findMaterialBlobs(any(), anyInt())).thenReturn(new PageDTO<>(List.of(oldTexture, recentTexture), null));
+
+        reconciler.reconcile();
+
+        verify(blobStorageService, never()).deleteMaterialByUrl(anyString());
+    }
+
+    @Test
+    // Happy path: the mesh of a legacy version, whose vertex has an empty BLOB URL, is considered referenced
+    void reconcileKeepsMeshOfLegacyVertexWithoutBlobUrl() {
+        StoredBlobDTO legacyMesh = blob("repo1/res1/branch1/v1/mesh.fbx", OLD);
+        when(blobStorageService.findMeshBlobs(any(), anyInt())).thenReturn(new PageDTO<>(List.of(legacyMesh), null));
+        when(versionRepository.findBlobUrlsByVersionKeys(anyList())).thenReturn(Map.of("repo1/res1/branch1/v1", ""));
+
+        reconciler.reconcile();
+
+        verify(blobStorageService, never()).deleteMeshByUrl(anyString());
+    }
+
+    @Test
+    // Happy path: only BLOBs laid out as repoName/resourceName/branchName/versionName/fileName are candidates
+    void reconcileIgnoresPathsOutsideVersionLayout() {
+        StoredBlobDTO tooShort = blob("repo1/res1/branch1/mesh.fbx", OLD);
+        StoredBlobDTO tooLong = blob("repo1/res1/branch1/v1/extra/mesh.fbx", OLD);
+        when(blobStorageService.findMeshBlobs(any(), anyInt())).thenReturn(new PageDTO<>(List.of(tooShort, tooLong), null));
+
+        reconciler.reconcile();
+
+        verify(blobStorageService, never()).deleteMeshByUrl(anyString());
+        verify(versionRepository, never()).findBlobUrlsByVersionKeys(argThat(versionKeys -> !versionKeys.isEmpty()));
+    }
+
+    @Test
+    // Happy path: a run stops deleting once its budget is spent, the remaining orphans are left to the next run
+    void reconcileStopsAtDeletionBudget() {
+        when(config.getReconcilerMaxDeletionsPerRun()).thenReturn(1);
+        StoredBlobDTO firstOrphan = blob("repo1/res1/branch1/v1/mesh.fbx", OLD);
+        StoredBlobDTO secondOrphan = blob("repo1/res1/branch1/v2/mesh.fbx", OLD);
+        when(blobStorageService.findMeshBlobs(any(), anyInt())).thenReturn(new PageDTO<>(List.of(firstOrphan, secondOrphan), null));
+
+        reconciler.reconcile();
+
+        verify(blobStorageService, times(1)).deleteMeshByUrl(anyString());
+        verify(blobStorageService, never()).findMaterialBlobs(any(), anyInt());
+        verify(cosmosService, never()).findVersionDocumentUrls(anyLong(), any(), anyInt());
+        assertEquals(1L, reconciler.getReconcilerMetrics().get("deletedMeshes"));
+    }
+
+    @Test
+    // Happy path: an unreferenced version document is deleted, a referenced one is kept
+    void reconcileDeletesUnreferencedDocuments() {
+        when(cosmosService.findVersionDocumentUrls(anyLong(), any(), anyInt()))
+                .thenReturn(new PageDTO<>(List.of("doc1", "doc2"), null));
+        when(versionRepository.findReferencedDocumentUrls(List.of("doc1", "doc2"))).thenReturn(Set.of("doc1"));
+
+        reconciler.reconcile();
+
+        verify(cosmosService).deleteVersionByUrl("doc2");
+        verify(cosmosService, never()).deleteVersionByUrl("doc1");
+    }
+
+    @Test
+    // Happy path: no run happens before the versionKey backfill has completed
+    void reconcileSkippedUntilBackfillCompletes() {
+        when(versionKeyBackfill.isChainFallbackActive()).thenReturn(true);
+
+        reconciler.reconcile();
+
+        verifyNoInteractions(blobStorageService, cosmosService, versionRepository);
+        assertEquals(1L, reconciler.getReconcilerMetrics().get("skippedRuns"));
+    }
+}